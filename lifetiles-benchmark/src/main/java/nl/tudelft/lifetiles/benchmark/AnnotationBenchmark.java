@@ -0,0 +1,61 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.lifetiles.annotation.model.AnnotationMapping;
+import nl.tudelft.lifetiles.annotation.model.GeneAnnotation;
+import nl.tudelft.lifetiles.annotation.model.KnownMutation;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of mapping annotations onto a loaded graph. The mappings are
+ * lazy and remember what they mapped, so every invocation maps the whole
+ * graph onto the reference with a new mapping.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AnnotationBenchmark {
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the genes by segment.
+     */
+    @Benchmark
+    public Map<SequenceSegment, List<GeneAnnotation>> mapGeneAnnotations(
+            final PangenomeState state) {
+        return AnnotationMapping.ofGeneAnnotations(state.getGraph(),
+                state.getCompactor(), state.getGeneAnnotations()).map(
+                state.getReference(), 0, state.getUnifiedEnd());
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the known mutations by segment.
+     */
+    @Benchmark
+    public Map<SequenceSegment, List<KnownMutation>> mapKnownMutations(
+            final PangenomeState state) {
+        return AnnotationMapping.ofKnownMutations(state.getGraph(),
+                state.getCompactor(), state.getKnownMutations()).map(
+                state.getReference(), 0, state.getUnifiedEnd());
+    }
+
+}
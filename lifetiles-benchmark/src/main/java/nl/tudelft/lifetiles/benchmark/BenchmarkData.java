@@ -0,0 +1,152 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import nl.tudelft.lifetiles.graph.generator.PangenomeGenerator;
+import nl.tudelft.lifetiles.graph.generator.StrainTree;
+import nl.tudelft.lifetiles.graph.generator.TreeShape;
+
+/**
+ * A generated data set of the size a benchmark is parameterised with, written
+ * by a {@link PangenomeGenerator} with its default rates to a temporary
+ * directory. The first sequence is the reference.
+ *
+ * The data is generated from a seed, so every run of a benchmark works on
+ * the same data.
+ *
+ * @author agent
+ *
+ */
+public final class BenchmarkData {
+
+    /**
+     * The seed of the generated data.
+     */
+    public static final long SEED = PangenomeGenerator.SEED;
+
+    /**
+     * The approximate number of reference positions per segment with the
+     * default rates of the generator.
+     */
+    private static final int POSITIONS_PER_SEGMENT = 33;
+
+    /**
+     * The name of the generated files.
+     */
+    private static final String NAME = "benchmark";
+
+    /**
+     * The directory containing the files.
+     */
+    private final Path directory;
+
+    /**
+     * Generate a data set in a temporary directory.
+     *
+     * @param segments
+     *            the approximate number of segments in the graph.
+     * @param sequences
+     *            the number of sequences in the graph, at least 2.
+     * @throws IOException
+     *             when the files could not be written.
+     */
+    public BenchmarkData(final int segments, final int sequences)
+            throws IOException {
+        PangenomeGenerator generator = new PangenomeGenerator();
+        generator.setStrains(sequences);
+        generator.setGenomeLength((long) segments * POSITIONS_PER_SEGMENT);
+        directory = Files.createTempDirectory("lifetiles-benchmark");
+        generator.generate(directory, NAME);
+    }
+
+    /**
+     * @param index
+     *            the index of a sequence.
+     * @return the name of the sequence.
+     */
+    public static String sequenceName(final int index) {
+        return PangenomeGenerator.sequenceName(index);
+    }
+
+    /**
+     * Create a balanced tree of sequences in the Newick format.
+     *
+     * @param sequences
+     *            the number of leaves, named like the sequences in the graph.
+     * @return the tree.
+     */
+    public static String newick(final int sequences) {
+        StringWriter tree = new StringWriter();
+        try {
+            new StrainTree(sequences, TreeShape.BALANCED, new Random(SEED))
+                    .writeNewick(tree);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return tree.toString();
+    }
+
+    /**
+     * @return the vertex file of the graph.
+     */
+    public File getVertexFile() {
+        return directory.resolve(NAME + ".node.graph").toFile();
+    }
+
+    /**
+     * @return the edge file of the graph.
+     */
+    public File getEdgeFile() {
+        return directory.resolve(NAME + ".edge.graph").toFile();
+    }
+
+    /**
+     * @return the gene annotation file.
+     */
+    public File getAnnotationFile() {
+        return directory.resolve(NAME + ".gff").toFile();
+    }
+
+    /**
+     * @return the known mutation file.
+     */
+    public File getKnownMutationFile() {
+        return directory.resolve(NAME + ".txt").toFile();
+    }
+
+    /**
+     * @return the phylogenetic tree file.
+     */
+    public File getTreeFile() {
+        return directory.resolve(NAME + ".nwk").toFile();
+    }
+
+    /**
+     * @return the sequence meta data file.
+     */
+    public File getMetaFile() {
+        return directory.resolve(NAME + ".meta").toFile();
+    }
+
+    /**
+     * Delete the generated files.
+     *
+     * @throws IOException
+     *             when a file could not be deleted.
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(getVertexFile().toPath());
+        Files.deleteIfExists(getEdgeFile().toPath());
+        Files.deleteIfExists(getAnnotationFile().toPath());
+        Files.deleteIfExists(getKnownMutationFile().toPath());
+        Files.deleteIfExists(getTreeFile().toPath());
+        Files.deleteIfExists(getMetaFile().toPath());
+        Files.deleteIfExists(directory);
+    }
+
+}
@@ -0,0 +1,117 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.lifetiles.core.util.Settings;
+import nl.tudelft.lifetiles.graph.model.BucketCache;
+import nl.tudelft.lifetiles.graph.model.DefaultGraphParser;
+import nl.tudelft.lifetiles.graph.model.FactoryProducer;
+import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.graph.model.MiniMap;
+import nl.tudelft.lifetiles.graph.model.StackedMutationContainer;
+import nl.tudelft.lifetiles.graph.traverser.ReferencePositionTraverser;
+import nl.tudelft.lifetiles.graph.traverser.UnifiedPositionTraverser;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the steps taken once when a graph is loaded.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphLoadBenchmark {
+
+    /**
+     * The number of vertices per bucket, as used by the graph container.
+     */
+    private static final int VERTICES_BUCKET = Integer.parseInt(Settings
+            .get("num_vertices_bucket"));
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the parsed graph.
+     * @throws IOException
+     *             when the graph could not be read.
+     */
+    @Benchmark
+    public Graph<SequenceSegment> parseGraph(final PangenomeState state)
+            throws IOException {
+        return new DefaultGraphParser().parseGraph(state.getData()
+                .getVertexFile(), state.getData().getEdgeFile(),
+                FactoryProducer.getFactory());
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the aligned graph.
+     */
+    @Benchmark
+    public Graph<SequenceSegment> unifyGraph(final PangenomeState state) {
+        UnifiedPositionTraverser.unifyGraph(state.getGraph());
+        return state.getGraph();
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the graph mapped onto the reference.
+     */
+    @Benchmark
+    public Graph<SequenceSegment> referenceMapGraph(
+            final PangenomeState state) {
+        ReferencePositionTraverser.referenceMapGraph(state.getGraph(),
+                state.getReference());
+        return state.getGraph();
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the bucket cache of the graph.
+     */
+    @Benchmark
+    public BucketCache buildBucketCache(final PangenomeState state) {
+        return new BucketCache(Math.max(1, state.getGraph().getAllVertices()
+                .size()
+                / VERTICES_BUCKET), state.getGraph());
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the minimap of the graph.
+     */
+    @Benchmark
+    public MiniMap buildMiniMap(final PangenomeState state) {
+        return new MiniMap(state.getContainer().getBucketCache());
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the mutation diagram of the visible sequences.
+     */
+    @Benchmark
+    public StackedMutationContainer buildStackedMutations(
+            final PangenomeState state) {
+        return new StackedMutationContainer(state.getContainer()
+                .getMutationCounts(), state.getVisible());
+    }
+
+}
@@ -0,0 +1,79 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.lifetiles.graph.model.BucketCache;
+import nl.tudelft.lifetiles.graph.model.GraphContainer;
+import nl.tudelft.lifetiles.graph.model.SubGraphView;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the steps taken on every filter and repaint of a loaded
+ * graph. A repaint shows the segments in a window of buckets in the middle
+ * of the graph.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphRenderBenchmark {
+
+    /**
+     * The number of buckets shown on a screen.
+     */
+    private static final int WINDOW = 8;
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the segments in the window.
+     */
+    @Benchmark
+    public Set<SequenceSegment> getSegments(final PangenomeState state) {
+        BucketCache buckets = state.getContainer().getBucketCache();
+        int start = buckets.getNumberBuckets() / 2;
+        return buckets.getSegments(start,
+                Math.min(buckets.getNumberBuckets(), start + WINDOW));
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the visible graph.
+     */
+    @Benchmark
+    public SubGraphView<SequenceSegment> setVisible(
+            final PangenomeState state) {
+        GraphContainer container = state.getContainer();
+        container.setVisible(state.getVisible());
+        return container.getVisibleGraph();
+    }
+
+    /**
+     * @param state
+     *            the loaded data set.
+     * @return the visible segments in the window.
+     */
+    @Benchmark
+    public Set<SequenceSegment> getVisibleSegments(
+            final PangenomeState state) {
+        GraphContainer container = state.getContainer();
+        int start = container.getBucketCache().getNumberBuckets() / 2;
+        return container.getVisibleSegments(start, Math.min(container
+                .getBucketCache().getNumberBuckets(), start + WINDOW));
+    }
+
+}
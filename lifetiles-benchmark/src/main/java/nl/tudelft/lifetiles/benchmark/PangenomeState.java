@@ -0,0 +1,229 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.annotation.model.GeneAnnotation;
+import nl.tudelft.lifetiles.annotation.model.GeneAnnotationParser;
+import nl.tudelft.lifetiles.annotation.model.KnownMutation;
+import nl.tudelft.lifetiles.annotation.model.KnownMutationParser;
+import nl.tudelft.lifetiles.core.util.Logging;
+import nl.tudelft.lifetiles.graph.model.DefaultGraphParser;
+import nl.tudelft.lifetiles.graph.model.FactoryProducer;
+import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.graph.model.GraphCompactor;
+import nl.tudelft.lifetiles.graph.model.GraphContainer;
+import nl.tudelft.lifetiles.graph.model.GraphFactory;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A loaded data set, parameterised by the size of the graph, the number of
+ * sequences and whether the graph is compacted, like the application does
+ * by default. The data set is generated and loaded once per trial, the
+ * benchmarks measure the step they are named after on it.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Benchmark)
+public class PangenomeState {
+
+    /**
+     * The approximate number of segments in the graph.
+     */
+    @Param({
+            "1000", "10000", "100000"
+    })
+    private int segments;
+
+    /**
+     * The number of sequences in the graph.
+     */
+    @Param({
+            "10", "100"
+    })
+    private int sequences;
+
+    /**
+     * Whether non-branching chains of segments are compacted.
+     */
+    @Param({
+            "true", "false"
+    })
+    private boolean compact;
+
+    /**
+     * The generated files.
+     */
+    private BenchmarkData data;
+
+    /**
+     * The parsed and aligned graph.
+     */
+    private Graph<SequenceSegment> graph;
+
+    /**
+     * The compactor which produced the graph, null if the graph was not
+     * compacted.
+     */
+    private GraphCompactor compactor;
+
+    /**
+     * The sequences by name.
+     */
+    private Map<String, Sequence> sequenceMap;
+
+    /**
+     * The reference sequence.
+     */
+    private Sequence reference;
+
+    /**
+     * The half of the sequences which is visible.
+     */
+    private Set<Sequence> visible;
+
+    /**
+     * The container of the graph, showing the visible sequences.
+     */
+    private GraphContainer container;
+
+    /**
+     * The highest unified position in the graph.
+     */
+    private long unifiedEnd;
+
+    /**
+     * The parsed gene annotations.
+     */
+    private List<GeneAnnotation> geneAnnotations;
+
+    /**
+     * The parsed known mutations.
+     */
+    private List<KnownMutation> knownMutations;
+
+    /**
+     * Generate and load the data set.
+     *
+     * @throws IOException
+     *             when the data set could not be written or read.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // the timed steps log their duration, which is not what we measure
+        Logging.setLevel(java.util.logging.Level.WARNING);
+        data = new BenchmarkData(segments, sequences);
+        GraphFactory<SequenceSegment> factory = FactoryProducer.getFactory();
+        DefaultGraphParser parser = new DefaultGraphParser();
+        graph = parser.parseGraph(data.getVertexFile(), data.getEdgeFile(),
+                factory);
+        compactor = null;
+        if (compact) {
+            compactor = new GraphCompactor(factory);
+            graph = compactor.compact(graph);
+        }
+        sequenceMap = parser.getSequences();
+        reference = sequenceMap.get(BenchmarkData.sequenceName(0));
+        container = new GraphContainer(graph, reference, compactor);
+        for (SequenceSegment sink : graph.getSinks()) {
+            unifiedEnd = Math.max(unifiedEnd, sink.getUnifiedEnd());
+        }
+        visible = new HashSet<>();
+        for (int index = 0; index < sequences; index += 2) {
+            visible.add(sequenceMap.get(BenchmarkData.sequenceName(index)));
+        }
+        container.setVisible(visible);
+        geneAnnotations = GeneAnnotationParser.parseGeneAnnotations(data
+                .getAnnotationFile());
+        knownMutations = KnownMutationParser.parseKnownMutations(data
+                .getKnownMutationFile());
+    }
+
+    /**
+     * Delete the data set.
+     *
+     * @throws IOException
+     *             when the files could not be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        data.delete();
+    }
+
+    /**
+     * @return the generated files.
+     */
+    public BenchmarkData getData() {
+        return data;
+    }
+
+    /**
+     * @return the parsed and aligned graph.
+     */
+    public Graph<SequenceSegment> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the compactor which produced the graph, null if the graph was
+     *         not compacted.
+     */
+    public GraphCompactor getCompactor() {
+        return compactor;
+    }
+
+    /**
+     * @return the reference sequence.
+     */
+    public Sequence getReference() {
+        return reference;
+    }
+
+    /**
+     * @return the half of the sequences which is visible.
+     */
+    public Set<Sequence> getVisible() {
+        return visible;
+    }
+
+    /**
+     * @return the container of the graph, showing the visible sequences.
+     */
+    public GraphContainer getContainer() {
+        return container;
+    }
+
+    /**
+     * @return the highest unified position in the graph.
+     */
+    public long getUnifiedEnd() {
+        return unifiedEnd;
+    }
+
+    /**
+     * @return the parsed gene annotations.
+     */
+    public List<GeneAnnotation> getGeneAnnotations() {
+        return geneAnnotations;
+    }
+
+    /**
+     * @return the parsed known mutations.
+     */
+    public List<KnownMutation> getKnownMutations() {
+        return knownMutations;
+    }
+
+}
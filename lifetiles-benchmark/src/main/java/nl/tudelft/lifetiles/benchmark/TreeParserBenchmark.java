@@ -0,0 +1,74 @@
+package nl.tudelft.lifetiles.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of parsing the phylogenetic tree of the sequences.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TreeParserBenchmark {
+
+    /**
+     * A tree of sequences, parameterised by the number of sequences.
+     *
+     * @author agent
+     *
+     */
+    @State(Scope.Benchmark)
+    public static class TreeState {
+        /**
+         * The number of sequences in the tree.
+         */
+        @Param({
+                "10", "100", "1000"
+        })
+        private int sequences;
+
+        /**
+         * The tree in the Newick format.
+         */
+        private String tree;
+
+        /**
+         * Generate the tree.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            tree = BenchmarkData.newick(sequences);
+        }
+    }
+
+    /**
+     * @param state
+     *            the tree to parse.
+     * @return the parsed tree.
+     */
+    @Benchmark
+    public PhylogeneticTreeItem parse(final TreeState state) {
+        return PhylogeneticTreeParser.parse(state.tree);
+    }
+
+}
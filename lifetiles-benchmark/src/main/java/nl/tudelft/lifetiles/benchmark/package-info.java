@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks of the hot paths from loading a data set to rendering it.
+ *
+ * @author agent
+ */
+package nl.tudelft.lifetiles.benchmark;
@@ -1,18 +1,11 @@
 package nl.tudelft.lifetiles.core.controller;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.logging.Level;
-
 import javafx.fxml.Initializable;
-import nl.tudelft.lifetiles.core.util.Logging;
 import nl.tudelft.lifetiles.core.util.Message;
 
 /**
- * The base controller.
+ * The base controller. Controllers communicate by shouting messages, which
+ * are delivered by the {@link EventBus}.
  *
  * @author Joren Hammudoglu
  *
@@ -20,25 +13,7 @@ import nl.tudelft.lifetiles.core.util.Message;
 public abstract class AbstractController implements Initializable {
 
     /**
-     * All registered controllers.
-     */
-    private static List<AbstractController> controllers = new CopyOnWriteArrayList<>();
-
-    /**
-     * The listeners for messages.
-     */
-    private final Map<Message, List<ShoutCallback>> listeners;
-
-    /**
-     * Create a new controller and register it.
-     */
-    public AbstractController() {
-        listeners = new HashMap<>();
-        controllers.add(this);
-    }
-
-    /**
-     * Inform all controllers of a message.
+     * Inform all listeners of a message.
      *
      * @param message
      *            the message
@@ -49,15 +24,7 @@ public abstract class AbstractController implements Initializable {
      */
     protected final void shout(final Message message, final String subject,
             final Object... args) {
-        for (AbstractController c : controllers) {
-            List<ShoutCallback> listenersOther = c.getListeners(message);
-            if (listenersOther != null) {
-                listenersOther.stream().forEach(
-                        listener -> listener.accept(this, subject, args));
-            }
-        }
-
-        Logging.getLogger().log(ShoutLevel.SHOUT, message.getValue(), args);
+        EventBus.getInstance().publish(this, message, subject, args);
     }
 
     /**
@@ -70,57 +37,7 @@ public abstract class AbstractController implements Initializable {
      */
     protected final void listen(final Message message,
             final ShoutCallback action) {
-        if (listeners.containsKey(message)) {
-            listeners.get(message).add(action);
-        } else {
-            List<ShoutCallback> newListeners;
-            newListeners = new ArrayList<>();
-            newListeners.add(action);
-            listeners.put(message, newListeners);
-        }
-    }
-
-    /**
-     * Retrieve all shout listeners for a message.
-     *
-     * @param message
-     *            the message
-     * @return a map of listeners for messages
-     */
-    private List<ShoutCallback> getListeners(final Message message) {
-        return listeners.get(message);
+        EventBus.getInstance().subscribe(message, action);
     }
 
 }
-
-/**
- * The custom shout level. Needed because the constructor of {@link Level} is
- * not public.
- *
- * @author Joren Hammudoglu
- *
- */
-class ShoutLevel extends Level {
-    /**
-     * Generated serial version UID.
-     */
-    private static final long serialVersionUID = -8731795030477848078L;
-
-    /**
-     * The shout level.
-     */
-    public static final Level SHOUT = new ShoutLevel("SHOUT",
-            Level.INFO.intValue() + 1);
-
-    /**
-     * Create a new shout level.
-     *
-     * @param name
-     *            the level name
-     * @param value
-     *            the value
-     */
-    public ShoutLevel(final String name, final int value) {
-        super(name, value);
-    }
-}
@@ -0,0 +1,98 @@
+package nl.tudelft.lifetiles.core.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the delivery of a single message by the {@link EventBus}.
+ * The latency is the time between shouting a message and the start of its
+ * delivery to the listeners.
+ *
+ * @author agent
+ *
+ */
+public final class DeliveryStatistics {
+
+    /**
+     * The number of deliveries.
+     */
+    private final AtomicLong delivered = new AtomicLong();
+
+    /**
+     * The number of deliveries skipped because a newer shout superseded them.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * The summed latency of all deliveries in nanoseconds.
+     */
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    /**
+     * The highest latency of a delivery in nanoseconds.
+     */
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Record a delivery.
+     *
+     * @param latency
+     *            the latency of the delivery in nanoseconds.
+     */
+    void recordDelivery(final long latency) {
+        delivered.incrementAndGet();
+        totalLatency.addAndGet(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Record a delivery which was skipped.
+     */
+    void recordCoalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    /**
+     * @return the number of deliveries.
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    /**
+     * @return the number of deliveries skipped because a newer shout
+     *         superseded them.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return the mean latency of the deliveries in nanoseconds, 0 without
+     *         deliveries.
+     */
+    public long getMeanLatency() {
+        long count = delivered.get();
+        if (count == 0) {
+            return 0;
+        }
+        return totalLatency.get() / count;
+    }
+
+    /**
+     * @return the highest latency of a delivery in nanoseconds.
+     */
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "delivered " + getDelivered() + ", coalesced " + getCoalesced()
+                + ", mean latency " + getMeanLatency() + "ns, max latency "
+                + getMaxLatency() + "ns";
+    }
+
+}
@@ -0,0 +1,303 @@
+package nl.tudelft.lifetiles.core.controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javafx.application.Platform;
+import nl.tudelft.lifetiles.core.metrics.MetricsRegistry;
+import nl.tudelft.lifetiles.core.util.Logging;
+import nl.tudelft.lifetiles.core.util.Message;
+
+/**
+ * Delivers shouted messages to the listeners of that message. Listeners are
+ * indexed per message, so a shout only visits its own listeners.
+ *
+ * Messages are delivered on the thread of the shouter, unless they are
+ * configured to be delivered on a named executor. Messages delivered on an
+ * executor can be coalesced: a delivery which has not started when the same
+ * message is shouted again is skipped, only the newest shout is delivered.
+ *
+ * The delivery statistics of every message are registered as gauges in the
+ * {@link MetricsRegistry}.
+ *
+ * @author agent
+ *
+ */
+public final class EventBus {
+
+    /**
+     * The name of the executor running on the JavaFX application thread.
+     */
+    public static final String FX_EXECUTOR = "fx";
+
+    /**
+     * The name of the executor running on a single background thread.
+     */
+    public static final String BACKGROUND_EXECUTOR = "background";
+
+    /**
+     * The logger of shouted messages.
+     */
+    private static final Logger SHOUT_LOGGER = Logging.getLogger("shout");
+
+    /**
+     * The bus used by all controllers.
+     */
+    private static final EventBus INSTANCE = new EventBus();
+
+    /**
+     * The listeners of every message.
+     */
+    private final Map<Message, List<ShoutCallback>> listeners;
+
+    /**
+     * The executors by name.
+     */
+    private final Map<String, Executor> executors;
+
+    /**
+     * The way messages are delivered, messages which are not in the map are
+     * delivered on the thread of the shouter.
+     */
+    private final Map<Message, Delivery> deliveries;
+
+    /**
+     * The delivery statistics of every message.
+     */
+    private final Map<Message, DeliveryStatistics> statistics;
+
+    /**
+     * Create a new event bus with the default executors.
+     */
+    EventBus() {
+        listeners = new ConcurrentHashMap<>();
+        executors = new ConcurrentHashMap<>();
+        deliveries = new ConcurrentHashMap<>();
+        statistics = new ConcurrentHashMap<>();
+        registerExecutor(FX_EXECUTOR, Platform::runLater);
+        registerExecutor(BACKGROUND_EXECUTOR,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "lifetiles-events");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    /**
+     * @return the bus used by all controllers.
+     */
+    public static EventBus getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Add a listener to a message.
+     *
+     * @param message
+     *            the message
+     * @param listener
+     *            the action to perform when receiving the message
+     */
+    public void subscribe(final Message message, final ShoutCallback listener) {
+        listeners.computeIfAbsent(message,
+                key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Register an executor messages can be delivered on.
+     *
+     * @param name
+     *            the name of the executor
+     * @param executor
+     *            the executor, should run tasks in the order they are
+     *            submitted
+     */
+    public void registerExecutor(final String name, final Executor executor) {
+        executors.put(name, executor);
+    }
+
+    /**
+     * Deliver a message on a named executor from now on.
+     *
+     * @param message
+     *            the message
+     * @param executorName
+     *            the name of a registered executor
+     * @param coalesce
+     *            whether deliveries superseded by a newer shout of the
+     *            message are skipped
+     */
+    public void deliverOn(final Message message, final String executorName,
+            final boolean coalesce) {
+        if (!executors.containsKey(executorName)) {
+            throw new IllegalArgumentException("Unknown executor: "
+                    + executorName);
+        }
+        deliveries.put(message, new Delivery(executorName, coalesce));
+    }
+
+    /**
+     * Deliver a message on the thread of the shouter from now on.
+     *
+     * @param message
+     *            the message
+     */
+    public void deliverDirectly(final Message message) {
+        deliveries.remove(message);
+    }
+
+    /**
+     * Inform all listeners of a message.
+     *
+     * @param sender
+     *            the shouting controller
+     * @param message
+     *            the message
+     * @param subject
+     *            The subject of this message.
+     * @param args
+     *            the arguments of the message
+     */
+    public void publish(final AbstractController sender,
+            final Message message, final String subject,
+            final Object... args) {
+        final long shouted = System.nanoTime();
+        if (SHOUT_LOGGER.isLoggable(ShoutLevel.SHOUT)) {
+            // formatted by the log handler, off this thread
+            SHOUT_LOGGER.log(ShoutLevel.SHOUT, "{0} {1}", new Object[] {
+                    message.getValue(), subject
+            });
+        }
+        List<ShoutCallback> messageListeners = listeners.get(message);
+        if (messageListeners == null) {
+            return;
+        }
+        DeliveryStatistics messageStatistics = getStatistics(message);
+        Delivery delivery = deliveries.get(message);
+        if (delivery == null) {
+            messageStatistics.recordDelivery(System.nanoTime() - shouted);
+            deliver(messageListeners, sender, subject, args);
+            return;
+        }
+        final long ticket = delivery.latest.incrementAndGet();
+        executors.get(delivery.executorName).execute(() -> {
+            if (delivery.coalesce && ticket != delivery.latest.get()) {
+                messageStatistics.recordCoalesced();
+                return;
+            }
+            messageStatistics.recordDelivery(System.nanoTime() - shouted);
+            try {
+                deliver(messageListeners, sender, subject, args);
+            } catch (RuntimeException e) {
+                // nobody waits for the delivery to report the error to.
+                Logging.exception(e);
+            }
+        });
+    }
+
+    /**
+     * Deliver a message to its listeners.
+     *
+     * @param messageListeners
+     *            the listeners of the message
+     * @param sender
+     *            the shouting controller
+     * @param subject
+     *            The subject of this message.
+     * @param args
+     *            the arguments of the message
+     */
+    private static void deliver(final List<ShoutCallback> messageListeners,
+            final AbstractController sender, final String subject,
+            final Object... args) {
+        for (ShoutCallback listener : messageListeners) {
+            listener.accept(sender, subject, args);
+        }
+    }
+
+    /**
+     * @param message
+     *            the message
+     * @return the delivery statistics of the message.
+     */
+    public DeliveryStatistics getStatistics(final Message message) {
+        DeliveryStatistics messageStatistics = statistics.get(message);
+        if (messageStatistics == null) {
+            DeliveryStatistics created = new DeliveryStatistics();
+            messageStatistics = statistics.putIfAbsent(message, created);
+            if (messageStatistics == null) {
+                registerGauges(message, created);
+                messageStatistics = created;
+            }
+        }
+        return messageStatistics;
+    }
+
+    /**
+     * Register the delivery statistics of a message as gauges.
+     *
+     * @param message
+     *            the message
+     * @param messageStatistics
+     *            the delivery statistics of the message
+     */
+    private static void registerGauges(final Message message,
+            final DeliveryStatistics messageStatistics) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String prefix = "shout " + message.getValue() + " ";
+        metrics.gauge(prefix + "delivered", messageStatistics::getDelivered);
+        metrics.gauge(prefix + "coalesced", messageStatistics::getCoalesced);
+        metrics.gauge(prefix + "mean latency",
+                messageStatistics::getMeanLatency);
+        metrics.gauge(prefix + "max latency",
+                messageStatistics::getMaxLatency);
+    }
+
+    /**
+     * @return the delivery statistics of all messages shouted so far.
+     */
+    public Map<Message, DeliveryStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * The way a message is delivered.
+     *
+     * @author agent
+     *
+     */
+    private static final class Delivery {
+        /**
+         * The name of the executor the message is delivered on.
+         */
+        private final String executorName;
+        /**
+         * Whether superseded deliveries are skipped.
+         */
+        private final boolean coalesce;
+        /**
+         * The ticket of the newest shout of the message.
+         */
+        private final AtomicLong latest;
+
+        /**
+         * @param executorName
+         *            The name of the executor the message is delivered on.
+         * @param coalesce
+         *            Whether superseded deliveries are skipped.
+         */
+        Delivery(final String executorName, final boolean coalesce) {
+            this.executorName = executorName;
+            this.coalesce = coalesce;
+            latest = new AtomicLong();
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.SplitPane;
 import javafx.scene.layout.HBox;
 import nl.tudelft.lifetiles.core.util.Message;
+import nl.tudelft.lifetiles.core.util.Settings;
 
 /**
  * The controller of the main view.
@@ -16,6 +17,11 @@ import nl.tudelft.lifetiles.core.util.Message;
  */
 public class MainController extends AbstractController {
 
+    /**
+     * The setting key for delivering filter messages asynchronously.
+     */
+    private static final String SETTING_ASYNC_FILTER = "async_filter";
+
     /**
      * The main grid element.
      */
@@ -38,6 +44,13 @@ public class MainController extends AbstractController {
 
         repaint(true);
 
+        if (Settings.getBoolean(SETTING_ASYNC_FILTER)) {
+            // filters are not coalesced, every filter is kept in the undo
+            // history.
+            EventBus.getInstance().deliverOn(Message.FILTERED,
+                    EventBus.FX_EXECUTOR, false);
+        }
+
         listen(Message.OPENED, (controller, subject, args) -> {
             repaint(false);
         });
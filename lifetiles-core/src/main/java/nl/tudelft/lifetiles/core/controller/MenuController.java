@@ -3,10 +3,11 @@ package nl.tudelft.lifetiles.core.controller;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.Stack;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -61,6 +62,10 @@ public class MenuController extends AbstractController {
      * Extension of the sequence meta data file.
      */
     private static final String META_EXTENSION = ".meta";
+    /**
+     * The number of filter actions that can be undone.
+     */
+    private static final int UNDO_CAPACITY = 16;
 
     /**
      * The initial x-coordinate of the window.
@@ -79,9 +84,10 @@ public class MenuController extends AbstractController {
     private MenuBar menuBar;
 
     /**
-     * Keep track of filter actions for the purpose of undoing them.
+     * Keep track of filter actions for the purpose of undoing them. Only the
+     * most recent filter actions are kept.
      */
-    private Stack<Set<?>> filterStack;
+    private Deque<Set<?>> filterStack;
 
     /**
      * The notification factory.
@@ -135,6 +141,9 @@ public class MenuController extends AbstractController {
      */
     @FXML
     private void undoFilterAction() {
+        if (filterStack.isEmpty()) {
+            return;
+        }
         filterStack.pop();
         if (filterStack.isEmpty()) {
             shout(Message.RESET, "");
@@ -375,7 +384,7 @@ public class MenuController extends AbstractController {
         addDraggableNode(menuBar);
 
         nf = new NotificationFactory();
-        filterStack = new Stack<>();
+        filterStack = new ArrayDeque<>(UNDO_CAPACITY);
         listen(Message.FILTERED, (sender, subject, args) -> {
             if (sender.equals(this)) {
                 return;
@@ -384,6 +393,9 @@ public class MenuController extends AbstractController {
             assert args[0] instanceof Set<?>;
             Set<?> newFilter = (Set<?>) args[0];
             filterStack.push(new HashSet<>(newFilter));
+            if (filterStack.size() > UNDO_CAPACITY) {
+                filterStack.removeLast();
+            }
         });
     }
 }
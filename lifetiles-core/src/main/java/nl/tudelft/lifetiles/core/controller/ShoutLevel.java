@@ -0,0 +1,35 @@
+package nl.tudelft.lifetiles.core.controller;
+
+import java.util.logging.Level;
+
+/**
+ * The custom shout level. Needed because the constructor of {@link Level} is
+ * not public.
+ *
+ * @author Joren Hammudoglu
+ *
+ */
+class ShoutLevel extends Level {
+    /**
+     * Generated serial version UID.
+     */
+    private static final long serialVersionUID = -8731795030477848078L;
+
+    /**
+     * The shout level.
+     */
+    public static final Level SHOUT = new ShoutLevel("SHOUT",
+            Level.INFO.intValue() + 1);
+
+    /**
+     * Create a new shout level.
+     *
+     * @param name
+     *            the level name
+     * @param value
+     *            the value
+     */
+    public ShoutLevel(final String name, final int value) {
+        super(name, value);
+    }
+}
@@ -0,0 +1,51 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter which can be incremented from any thread.
+ *
+ * @author agent
+ *
+ */
+public final class Counter implements CounterMXBean {
+
+    /**
+     * The count.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Increment the counter by one.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Increment the counter.
+     *
+     * @param amount
+     *            the amount to add.
+     */
+    public void add(final long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount();
+    }
+
+}
@@ -0,0 +1,16 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+/**
+ * The attributes of a {@link Counter} shown through JMX.
+ *
+ * @author agent
+ *
+ */
+public interface CounterMXBean {
+
+    /**
+     * @return the current count.
+     */
+    long getCount();
+
+}
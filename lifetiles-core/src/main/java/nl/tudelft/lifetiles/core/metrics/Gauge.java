@@ -0,0 +1,18 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+/**
+ * A value which is read when the metrics are reported, such as the size of a
+ * cache.
+ *
+ * @author agent
+ *
+ */
+@FunctionalInterface
+public interface Gauge {
+
+    /**
+     * @return the current value.
+     */
+    double getValue();
+
+}
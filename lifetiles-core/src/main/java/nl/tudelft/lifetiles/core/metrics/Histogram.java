@@ -0,0 +1,225 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, such as durations in nanoseconds.
+ *
+ * Like an HDR histogram, the values are counted in buckets whose width grows
+ * with the value: every power of two is split into the same number of
+ * buckets. This keeps the relative error of the percentiles below 1/32
+ * while the whole range of a long fits in a fixed array. Recording is
+ * lock-free, so values can be recorded from any thread.
+ *
+ * @author agent
+ *
+ */
+public final class Histogram implements HistogramMXBean {
+
+    /**
+     * The number of bits of a value which are kept, the number of buckets
+     * per power of two is half of two to this power.
+     */
+    private static final int PRECISION_BITS = 6;
+
+    /**
+     * The number of buckets per power of two above the linear range.
+     */
+    private static final int HALF = 1 << (PRECISION_BITS - 1);
+
+    /**
+     * The values below this bound are counted exactly.
+     */
+    private static final int LINEAR = 1 << PRECISION_BITS;
+
+    /**
+     * The number of buckets needed for all non-negative longs.
+     */
+    private static final int BUCKETS = LINEAR + (Long.SIZE - 1 - PRECISION_BITS)
+            * HALF;
+
+    /**
+     * The percentage of the median.
+     */
+    private static final double P50 = 50;
+
+    /**
+     * The percentage of the 90th percentile.
+     */
+    private static final double P90 = 90;
+
+    /**
+     * The percentage of the 99th percentile.
+     */
+    private static final double P99 = 99;
+
+    /**
+     * The number of values in every bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of values.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the values.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The smallest value.
+     */
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * The largest value.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value
+     *            the value, negative values are recorded as 0.
+     */
+    public void record(final long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(bucket(clamped));
+        count.incrementAndGet();
+        sum.addAndGet(clamped);
+        min.accumulateAndGet(clamped, Math::min);
+        max.accumulateAndGet(clamped, Math::max);
+    }
+
+    /**
+     * @param value
+     *            a non-negative value.
+     * @return the bucket the value is counted in.
+     */
+    static int bucket(final long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value)
+                - PRECISION_BITS;
+        int sub = (int) (value >>> shift);
+        return LINEAR + (shift - 1) * HALF + sub - HALF;
+    }
+
+    /**
+     * @param bucket
+     *            a bucket.
+     * @return the largest value counted in the bucket.
+     */
+    static long highestValue(final int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR) / HALF + 1;
+        long sub = (bucket - LINEAR) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Get a percentile of the recorded values.
+     *
+     * @param percentage
+     *            the percentage of values which are at most the percentile,
+     *            between 0 and 100.
+     * @return the percentile, accurate within the width of its bucket, or 0
+     *         if nothing was recorded.
+     */
+    public long getPercentile(final double percentage) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentage / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.max(getMin(),
+                        Math.min(getMax(), highestValue(bucket)));
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMin() {
+        if (count.get() == 0) {
+            return 0;
+        }
+        return min.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMean() {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        return sum.get() / total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getP50() {
+        return getPercentile(P50);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getP90() {
+        return getPercentile(P90);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getP99() {
+        return getPercentile(P99);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " min=" + getMin() + " mean="
+                + getMean() + " p50=" + getP50() + " p90=" + getP90()
+                + " p99=" + getP99() + " max=" + getMax();
+    }
+
+}
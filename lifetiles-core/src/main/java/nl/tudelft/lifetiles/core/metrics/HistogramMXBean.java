@@ -0,0 +1,46 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+/**
+ * The attributes of a {@link Histogram} shown through JMX.
+ *
+ * @author agent
+ *
+ */
+public interface HistogramMXBean {
+
+    /**
+     * @return the number of recorded values.
+     */
+    long getCount();
+
+    /**
+     * @return the smallest recorded value, or 0 if nothing was recorded.
+     */
+    long getMin();
+
+    /**
+     * @return the largest recorded value, or 0 if nothing was recorded.
+     */
+    long getMax();
+
+    /**
+     * @return the mean of the recorded values, or 0 if nothing was recorded.
+     */
+    long getMean();
+
+    /**
+     * @return the median of the recorded values.
+     */
+    long getP50();
+
+    /**
+     * @return the 90th percentile of the recorded values.
+     */
+    long getP90();
+
+    /**
+     * @return the 99th percentile of the recorded values.
+     */
+    long getP99();
+
+}
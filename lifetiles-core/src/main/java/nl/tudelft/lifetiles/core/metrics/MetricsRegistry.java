@@ -0,0 +1,305 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import nl.tudelft.lifetiles.core.util.Logging;
+import nl.tudelft.lifetiles.core.util.Settings;
+
+/**
+ * The named timers, counters and gauges of the application. Timers are
+ * {@link Histogram}s of durations in nanoseconds, every
+ * {@link nl.tudelft.lifetiles.core.util.Timer} records into the timer with
+ * the name it is stopped with.
+ *
+ * Once started, the metrics are shown as MXBeans and periodically appended
+ * to a file, so latencies can be compared across sessions.
+ *
+ * @author agent
+ *
+ */
+public final class MetricsRegistry {
+
+    /**
+     * The setting key for showing the metrics through JMX.
+     */
+    private static final String SETTING_JMX = "metrics_jmx";
+
+    /**
+     * The setting key for the file the metrics are dumped to.
+     */
+    private static final String SETTING_FILE = "metrics_file";
+
+    /**
+     * The setting key for the seconds between dumps, 0 disables dumping.
+     */
+    private static final String SETTING_INTERVAL = "metrics_dump_interval";
+
+    /**
+     * The JMX domain of the metrics.
+     */
+    private static final String DOMAIN = "nl.tudelft.lifetiles";
+
+    /**
+     * The registry used by the application.
+     */
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    /**
+     * The timers by name.
+     */
+    private final Map<String, Histogram> timers;
+
+    /**
+     * The counters by name.
+     */
+    private final Map<String, Counter> counters;
+
+    /**
+     * The gauges by name.
+     */
+    private final Map<String, Gauge> gauges;
+
+    /**
+     * The server the metrics are registered with, null until started.
+     */
+    private MBeanServer server;
+
+    /**
+     * Create a new, empty registry.
+     */
+    MetricsRegistry() {
+        timers = new ConcurrentSkipListMap<>();
+        counters = new ConcurrentSkipListMap<>();
+        gauges = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * @return the registry used by the application.
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a timer, creating it if it does not exist yet.
+     *
+     * @param name
+     *            the name of the timer.
+     * @return the timer.
+     */
+    public Histogram timer(final String name) {
+        Histogram timer = timers.get(name);
+        if (timer == null) {
+            Histogram created = new Histogram();
+            timer = timers.putIfAbsent(name, created);
+            if (timer == null) {
+                register("Timer", name, created, HistogramMXBean.class);
+                timer = created;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Get a counter, creating it if it does not exist yet.
+     *
+     * @param name
+     *            the name of the counter.
+     * @return the counter.
+     */
+    public Counter counter(final String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            Counter created = new Counter();
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                register("Counter", name, created, CounterMXBean.class);
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Add a gauge, replacing the gauge with the same name.
+     *
+     * @param name
+     *            the name of the gauge.
+     * @param gauge
+     *            the gauge.
+     */
+    public void gauge(final String name, final Gauge gauge) {
+        if (gauges.put(name, gauge) != null) {
+            unregister("Gauge", name);
+        }
+        register("Gauge", name, gauge, Gauge.class);
+    }
+
+    /**
+     * Start showing the metrics through JMX and dumping them to a file, as
+     * configured in the settings. The metrics are also dumped when the
+     * application exits.
+     */
+    public void start() {
+        if (Settings.getBoolean(SETTING_JMX)) {
+            startJmx();
+        }
+        final Path file = Paths.get(Settings.get(SETTING_FILE));
+        final long interval = Long.parseLong(Settings.get(SETTING_INTERVAL));
+        if (interval <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors
+                .newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "lifetiles-metrics");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scheduler.scheduleWithFixedDelay(() -> dumpQuietly(file), interval,
+                interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> dumpQuietly(file), "lifetiles-metrics-exit"));
+    }
+
+    /**
+     * Register all metrics, and all metrics created from now on, with the
+     * platform MBean server.
+     */
+    private synchronized void startJmx() {
+        if (server != null) {
+            return;
+        }
+        server = ManagementFactory.getPlatformMBeanServer();
+        timers.forEach((name, timer) -> register("Timer", name, timer,
+                HistogramMXBean.class));
+        counters.forEach((name, counter) -> register("Counter", name,
+                counter, CounterMXBean.class));
+        gauges.forEach((name, gauge) -> register("Gauge", name, gauge,
+                Gauge.class));
+    }
+
+    /**
+     * Register a metric with the MBean server, if JMX is started.
+     *
+     * @param <T>
+     *            the type of the attributes of the metric.
+     * @param type
+     *            the type of the metric.
+     * @param name
+     *            the name of the metric.
+     * @param metric
+     *            the metric.
+     * @param attributes
+     *            the interface defining the attributes of the metric.
+     */
+    private synchronized <T> void register(final String type,
+            final String name, final T metric, final Class<T> attributes) {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.registerMBean(new StandardMBean(metric, attributes, true),
+                    objectName(type, name));
+        } catch (JMException e) {
+            Logging.exception(e);
+        }
+    }
+
+    /**
+     * Remove a metric from the MBean server, if JMX is started.
+     *
+     * @param type
+     *            the type of the metric.
+     * @param name
+     *            the name of the metric.
+     */
+    private synchronized void unregister(final String type, final String name) {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.unregisterMBean(objectName(type, name));
+        } catch (JMException e) {
+            Logging.exception(e);
+        }
+    }
+
+    /**
+     * @param type
+     *            the type of the metric.
+     * @param name
+     *            the name of the metric.
+     * @return the JMX name of the metric.
+     * @throws JMException
+     *             if the name is not valid.
+     */
+    private static ObjectName objectName(final String type, final String name)
+            throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name="
+                + ObjectName.quote(name));
+    }
+
+    /**
+     * @return all metrics, one per line, sorted by type and name.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        timers.forEach((name, timer) -> report.append("timer ").append(name)
+                .append(": ").append(timer).append('\n'));
+        counters.forEach((name, counter) -> report.append("counter ")
+                .append(name).append(": ").append(counter).append('\n'));
+        gauges.forEach((name, gauge) -> report.append("gauge ").append(name)
+                .append(": value=").append(gauge.getValue()).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Append the current metrics to a file.
+     *
+     * @param file
+     *            the file.
+     * @throws IOException
+     *             if the file could not be written.
+     */
+    public void dump(final Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file,
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            writer.write("# " + new Date() + "\n");
+            writer.write(report());
+        }
+    }
+
+    /**
+     * Append the current metrics to a file, logging a failure.
+     *
+     * @param file
+     *            the file.
+     */
+    private void dumpQuietly(final Path file) {
+        try {
+            dump(file);
+        } catch (IOException e) {
+            Logging.exception(e);
+        }
+    }
+
+}
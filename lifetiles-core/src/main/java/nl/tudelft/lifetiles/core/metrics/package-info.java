@@ -0,0 +1,7 @@
+/**
+ * Timers, counters and gauges of the running application.
+ *
+ * @author agent
+ *
+ */
+package nl.tudelft.lifetiles.core.metrics;
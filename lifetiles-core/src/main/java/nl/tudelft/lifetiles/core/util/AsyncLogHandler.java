@@ -0,0 +1,206 @@
+package nl.tudelft.lifetiles.core.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A log handler which never blocks the logging thread. Records are put in a
+ * bounded ring buffer and written by a background thread in batches, so the
+ * formatting of messages and their parameters happens on that thread too.
+ * When the buffer is full, records are dropped and the number of dropped
+ * records is written with the next batch.
+ *
+ * Because records are formatted later, log parameters should not be
+ * modified after logging them.
+ *
+ * @author agent
+ *
+ */
+public final class AsyncLogHandler extends Handler {
+
+    /**
+     * The largest number of records written before flushing the writer.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * The milliseconds to wait for the writer thread before giving up.
+     */
+    private static final long WAIT_MILLIS = 1000;
+
+    /**
+     * The records waiting to be written.
+     */
+    private final BlockingQueue<LogRecord> buffer;
+
+    /**
+     * The destination of the formatted records.
+     */
+    private final Writer out;
+
+    /**
+     * The thread writing the records.
+     */
+    private final Thread writerThread;
+
+    /**
+     * The number of records put in the buffer.
+     */
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * The number of records dropped because the buffer was full.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The number of records taken from the buffer and written, guarded by
+     * this handler.
+     */
+    private long written;
+
+    /**
+     * Whether the handler has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Create a new handler and start its writer thread.
+     *
+     * @param out
+     *            the destination of the formatted records.
+     * @param capacity
+     *            the number of records which can wait to be written.
+     */
+    public AsyncLogHandler(final Writer out, final int capacity) {
+        super();
+        this.out = out;
+        buffer = new ArrayBlockingQueue<>(capacity);
+        setFormatter(new SimpleFormatter());
+        writerThread = new Thread(this::writeLoop, "lifetiles-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // inferring the caller walks the stack, and must happen before the
+        // record leaves this thread. The logger name is the category.
+        record.setSourceClassName(record.getLoggerName());
+        record.setSourceMethodName(null);
+        if (buffer.offer(record)) {
+            published.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Write the records in the buffer until the handler is closed.
+     */
+    private void writeLoop() {
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                // closing, write what is left in the buffer
+                Thread.currentThread().interrupt();
+            }
+            buffer.drainTo(batch, BATCH_SIZE - batch.size());
+            write(batch);
+            synchronized (this) {
+                written += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+            if (Thread.interrupted()) {
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Format and write a batch of records.
+     *
+     * @param batch
+     *            the records.
+     */
+    private void write(final List<LogRecord> batch) {
+        try {
+            for (LogRecord record : batch) {
+                out.write(getFormatter().format(record));
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                out.write(lost + " log records dropped.\n");
+            }
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Wait until all records published so far are written.
+     */
+    @Override
+    public synchronized void flush() {
+        long target = published.get();
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (written < target && writerThread.isAlive()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the remaining records and close the writer.
+     */
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join(WAIT_MILLIS);
+            out.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+    }
+
+    /**
+     * @return the number of records dropped since the last batch was
+     *         written.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+}
@@ -1,12 +1,22 @@
 package nl.tudelft.lifetiles.core.util;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * The logging utility class, manages the LOGGER.
+ * The logging utility class, manages the LOGGER. Records are written to the
+ * log file by an {@link AsyncLogHandler}, so logging does not block.
+ *
+ * Parts of the application can log to their own category, a child of the
+ * LOGGER. The level of a category can be set with the setting
+ * <code>log_level_&lt;category&gt;</code>, categories without that setting
+ * use the level of the LOGGER.
  *
  * @author Joren Hammudoglu
  *
@@ -18,16 +28,32 @@ public final class Logging {
      */
     private static final String LOG_FILE = "lifetiles.log";
 
+    /**
+     * The number of records which can wait to be written to the log file.
+     */
+    private static final int BUFFER_CAPACITY = 8192;
+
+    /**
+     * The prefix of the settings for the levels of categories.
+     */
+    private static final String SETTING_LEVEL = "log_level_";
+
     /**
      * The logger instance.
      */
     private static final Logger LOGGER = Logger.getLogger(Logging.class
             .getName());
 
+    /**
+     * The category loggers by category. The loggers are kept here because
+     * the log manager forgets the levels of loggers nobody refers to.
+     */
+    private static final Map<String, Logger> CATEGORIES = new ConcurrentHashMap<>();
+
     /**
      * The file handler.
      */
-    private static FileHandler filehandler;
+    private static AsyncLogHandler filehandler;
 
     /**
      * Uninstantiable.
@@ -41,12 +67,16 @@ public final class Logging {
      */
     static {
         try {
-            filehandler = new FileHandler(LOG_FILE, false);
+            filehandler = new AsyncLogHandler(Files.newBufferedWriter(
+                    Paths.get(LOG_FILE), StandardCharsets.UTF_8),
+                    BUFFER_CAPACITY);
+            getLogger().addHandler(filehandler);
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(filehandler::close, "lifetiles-log-exit"));
         } catch (SecurityException | IOException e) {
             exception(e);
         }
 
-        getLogger().addHandler(filehandler);
         setLevel(Level.INFO);
     }
 
@@ -60,6 +90,18 @@ public final class Logging {
         getLogger().setLevel(level);
     }
 
+    /**
+     * Set the logging level of a category.
+     *
+     * @param category
+     *            The category.
+     * @param level
+     *            The new level, or null to use the level of the LOGGER.
+     */
+    public static void setLevel(final String category, final Level level) {
+        getLogger(category).setLevel(level);
+    }
+
     /**
      * Log an info message.
      *
@@ -116,4 +158,22 @@ public final class Logging {
         return LOGGER;
     }
 
+    /**
+     * Get the logger of a category, with the level from the settings.
+     *
+     * @param category
+     *            the category.
+     * @return the Logger of the category.
+     */
+    public static Logger getLogger(final String category) {
+        return CATEGORIES.computeIfAbsent(category, key -> {
+            Logger logger = Logger.getLogger(LOGGER.getName() + "." + key);
+            String level = Settings.get(SETTING_LEVEL + key, null);
+            if (level != null) {
+                logger.setLevel(Level.parse(level));
+            }
+            return logger;
+        });
+    }
+
 }
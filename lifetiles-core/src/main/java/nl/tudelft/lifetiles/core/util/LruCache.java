@@ -0,0 +1,55 @@
+package nl.tudelft.lifetiles.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small map which evicts the least recently used entry once it grows beyond
+ * its capacity.
+ *
+ * @author agent
+ *
+ * @param <K>
+ *            The type of the keys.
+ * @param <V>
+ *            The type of the values.
+ */
+public class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+    /**
+     * Generated serial UID.
+     */
+    private static final long serialVersionUID = 4375812286071236436L;
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int capacity;
+
+    /**
+     * Create a new cache.
+     *
+     * @param capacity
+     *            The maximum number of entries.
+     */
+    public LruCache(final int capacity) {
+        super(capacity + 1, 1f, true);
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+        return size() > capacity;
+    }
+
+    /**
+     * @return the maximum number of entries.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+}
@@ -34,7 +34,8 @@ public final class Message {
      */
     public static final Message BOOKMARKS = create("bookmarks");
     /**
-     * A shout message indicating we want to move to a location in the genome.
+     * A shout message indicating we want to move to a location in the genome,
+     * either a unified position or a bookmark.
      */
     public static final Message GOTO = create("goto");
     /**
@@ -53,6 +53,19 @@ public final class Settings {
         return property;
     }
 
+    /**
+     * Get a setting which does not need to be defined.
+     *
+     * @param setting
+     *            the setting key.
+     * @param fallback
+     *            the value if the setting is not defined.
+     * @return the setting value
+     */
+    public static String get(final String setting, final String fallback) {
+        return PROPERTIES.getProperty(setting, fallback);
+    }
+
     /**
      * Get a boolean setting.
      *
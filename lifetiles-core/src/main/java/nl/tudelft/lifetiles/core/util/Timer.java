@@ -2,8 +2,11 @@ package nl.tudelft.lifetiles.core.util;
 
 import java.util.concurrent.TimeUnit;
 
+import nl.tudelft.lifetiles.core.metrics.MetricsRegistry;
+
 /**
- * A timer utility class.
+ * A timer utility class. Stopped timers record their elapsed time in the
+ * {@link MetricsRegistry} timer with the same name.
  *
  * @author Joren Hammudoglu
  *
@@ -64,16 +67,30 @@ public final class Timer {
     }
 
     /**
-     * Stop the timer and log the elapsed time.
+     * Stop the timer and record the elapsed time, without logging it. Meant
+     * for things which are timed too often to log.
+     *
+     * @param timee
+     *            what got timed, the name of the metrics timer
+     * @return the elapsed time in nanoseconds.
+     */
+    public long stopAndRecord(final String timee) {
+        stop();
+        long elapsed = getElapsed();
+        MetricsRegistry.getInstance().timer(timee).record(elapsed);
+        return elapsed;
+    }
+
+    /**
+     * Stop the timer, record the elapsed time and log it.
      *
      * @param timee
-     *            what got timed
+     *            what got timed, the name of the metrics timer
      */
     // We check for this in a wrapper method in Logging.
     @SuppressWarnings("PMD.GuardLogStatementJavaUtil")
     public void stopAndLog(final String timee) {
-        stop();
-        long elapsed = getElapsed();
+        long elapsed = stopAndRecord(timee);
 
         Logging.info(timee + " took " + formatNanos(elapsed));
     }
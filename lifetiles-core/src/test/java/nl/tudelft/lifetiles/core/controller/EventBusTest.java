@@ -0,0 +1,124 @@
+package nl.tudelft.lifetiles.core.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.logging.Level;
+
+import nl.tudelft.lifetiles.core.metrics.MetricsRegistry;
+import nl.tudelft.lifetiles.core.util.Logging;
+import nl.tudelft.lifetiles.core.util.Message;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EventBusTest {
+
+    private static final String QUEUE = "queue";
+
+    private EventBus bus;
+
+    private Queue<Runnable> queue;
+
+    private List<Object> inbox;
+
+    private Message message;
+
+    @BeforeClass
+    public static void before() {
+        Logging.setLevel(Level.SEVERE);
+    }
+
+    @Before
+    public void setUp() {
+        bus = new EventBus();
+        queue = new ArrayDeque<>();
+        bus.registerExecutor(QUEUE, queue::add);
+        inbox = new ArrayList<>();
+        message = Message.create("Tiamat");
+        bus.subscribe(message, (sender, subject, args) -> inbox.add(args[0]));
+    }
+
+    private void runQueue() {
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+    }
+
+    @Test
+    public void testDirectDelivery() {
+        bus.publish(null, message, "", 1);
+
+        assertEquals(1, inbox.size());
+        assertEquals(1, bus.getStatistics(message).getDelivered());
+    }
+
+    @Test
+    public void testStatisticsGauges() {
+        Message gauged = Message.create("Nergal");
+        bus.subscribe(gauged, (sender, subject, args) -> inbox.add(args[0]));
+        bus.publish(null, gauged, "", 1);
+        bus.publish(null, gauged, "", 2);
+
+        String report = MetricsRegistry.getInstance().report();
+        assertTrue(report.contains("gauge shout Nergal delivered: value=2.0"));
+        assertTrue(report.contains("gauge shout Nergal coalesced: value=0.0"));
+        assertTrue(report.contains("gauge shout Nergal max latency: "));
+    }
+
+    @Test
+    public void testOtherMessage() {
+        bus.publish(null, Message.create("Apsu"), "", 1);
+
+        assertEquals(0, inbox.size());
+    }
+
+    @Test
+    public void testAsyncDelivery() {
+        bus.deliverOn(message, QUEUE, false);
+        bus.publish(null, message, "", 1);
+        bus.publish(null, message, "", 2);
+
+        assertEquals(0, inbox.size());
+        runQueue();
+        assertEquals(2, inbox.size());
+        assertEquals(2, inbox.get(1));
+        assertEquals(0, bus.getStatistics(message).getCoalesced());
+    }
+
+    @Test
+    public void testCoalescedDelivery() {
+        bus.deliverOn(message, QUEUE, true);
+        bus.publish(null, message, "", 1);
+        bus.publish(null, message, "", 2);
+        bus.publish(null, message, "", 3);
+        runQueue();
+
+        assertEquals(1, inbox.size());
+        assertEquals(3, inbox.get(0));
+        assertEquals(1, bus.getStatistics(message).getDelivered());
+        assertEquals(2, bus.getStatistics(message).getCoalesced());
+    }
+
+    @Test
+    public void testDeliverDirectly() {
+        bus.deliverOn(message, QUEUE, true);
+        bus.deliverDirectly(message);
+        bus.publish(null, message, "", 1);
+
+        assertEquals(1, inbox.size());
+        assertNull(queue.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownExecutor() {
+        bus.deliverOn(message, "Mummu", false);
+    }
+
+}
@@ -0,0 +1,72 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistogramTest {
+
+    private Histogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getP99());
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int bucket = 1; bucket < 2000; bucket++) {
+            long lowest = Histogram.highestValue(bucket - 1) + 1;
+            if (lowest < 0) {
+                break;
+            }
+            assertEquals(bucket, Histogram.bucket(lowest));
+            assertEquals(bucket,
+                    Histogram.bucket(Histogram.highestValue(bucket)));
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.highestValue(Histogram
+                .bucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5, histogram.getMean());
+        assertEquals(5, histogram.getP50());
+        assertEquals(9, histogram.getP90());
+    }
+
+    @Test
+    public void testLargeValuesWithinPrecision() {
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000000);
+        }
+        long p50 = histogram.getP50();
+        long p99 = histogram.getP99();
+        assertTrue(Math.abs(p50 - 500000000L) <= 500000000L / 32);
+        assertTrue(Math.abs(p99 - 990000000L) <= 990000000L / 32);
+        assertEquals(1000000000L, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testNegativeValue() {
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, histogram.getCount());
+    }
+
+}
@@ -0,0 +1,66 @@
+package nl.tudelft.lifetiles.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+    private MetricsRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void testSameTimer() {
+        assertSame(registry.timer("Graph parsing"),
+                registry.timer("Graph parsing"));
+    }
+
+    @Test
+    public void testCounter() {
+        registry.counter("repaints").increment();
+        registry.counter("repaints").add(2);
+        assertEquals(3, registry.counter("repaints").getCount());
+    }
+
+    @Test
+    public void testReport() {
+        registry.timer("b").record(10);
+        registry.timer("a").record(20);
+        registry.gauge("size", () -> 4);
+        String report = registry.report();
+        assertTrue(report.startsWith("timer a: count=1"));
+        assertTrue(report.contains("timer b: count=1"));
+        assertTrue(report.contains("gauge size: value=4.0"));
+    }
+
+    @Test
+    public void testDumpAppends() throws IOException {
+        Path file = Files.createTempFile("metrics", ".log");
+        try {
+            registry.counter("shouts").increment();
+            registry.dump(file);
+            registry.dump(file);
+            String dumped = new String(Files.readAllBytes(file),
+                    StandardCharsets.UTF_8);
+            assertEquals(dumped.indexOf("counter shouts"),
+                    dumped.indexOf("counter shouts: count=1"));
+            assertTrue(dumped.lastIndexOf("counter shouts") > dumped
+                    .indexOf("counter shouts"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package nl.tudelft.lifetiles.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.junit.Test;
+
+public class AsyncLogHandlerTest {
+
+    @Test
+    public void testWritesRecords() {
+        StringWriter out = new StringWriter();
+        AsyncLogHandler handler = new AsyncLogHandler(out, 16);
+        LogRecord record = new LogRecord(Level.INFO, "{0} {1}");
+        record.setParameters(new Object[] {
+                "filtered", "tree"
+        });
+        record.setLoggerName("shout");
+        handler.publish(record);
+        handler.publish(new LogRecord(Level.WARNING, "second"));
+        handler.flush();
+
+        String written = out.toString();
+        assertTrue(written.contains("filtered tree"));
+        assertTrue(written.indexOf("filtered tree") < written
+                .indexOf("second"));
+        handler.close();
+    }
+
+    @Test
+    public void testLevel() {
+        StringWriter out = new StringWriter();
+        AsyncLogHandler handler = new AsyncLogHandler(out, 16);
+        handler.setLevel(Level.WARNING);
+        handler.publish(new LogRecord(Level.INFO, "hidden"));
+        handler.publish(new LogRecord(Level.SEVERE, "shown"));
+        handler.close();
+
+        assertTrue(out.toString().contains("shown"));
+        assertTrue(!out.toString().contains("hidden"));
+    }
+
+    @Test
+    public void testDropsWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter written = new StringWriter();
+        Writer out = new Writer() {
+            @Override
+            public void write(final char[] buffer, final int offset,
+                    final int length) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.write(buffer, offset, length);
+            }
+
+            @Override
+            public void flush() {
+                // noop
+            }
+
+            @Override
+            public void close() {
+                // noop
+            }
+        };
+        AsyncLogHandler handler = new AsyncLogHandler(out, 1);
+        for (int index = 0; index < 3; index++) {
+            handler.publish(new LogRecord(Level.INFO, "record " + index));
+        }
+        assertTrue(handler.getDropped() >= 1);
+        release.countDown();
+        handler.close();
+
+        assertTrue(written.toString().contains("dropped"));
+        assertEquals(0, handler.getDropped());
+    }
+
+}
@@ -0,0 +1,28 @@
+package nl.tudelft.lifetiles.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LruCacheTest {
+
+    private LruCache<String, Integer> cache;
+
+    @Before
+    public void setUp() {
+        cache = new LruCache<>(2);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertFalse(cache.containsKey("b"));
+    }
+
+}
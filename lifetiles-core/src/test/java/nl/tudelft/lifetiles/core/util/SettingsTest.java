@@ -23,6 +23,11 @@ public class SettingsTest {
         assertFalse(Settings.getBoolean(key));
     }
 
+    @Test
+    public void testGetFallback() {
+        assertEquals("fallback", Settings.get("LT_TEST_4", "fallback"));
+    }
+
     @Test(expected=IllegalArgumentException.class)
     public void testGetException() {
         Settings.get("LT_TEST_3");
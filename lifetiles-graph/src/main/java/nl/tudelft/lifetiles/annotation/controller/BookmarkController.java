@@ -1,21 +1,33 @@
 package nl.tudelft.lifetiles.annotation.controller;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import nl.tudelft.lifetiles.annotation.model.AbstractBookmark;
+import nl.tudelft.lifetiles.annotation.model.BookmarkIndex;
+import nl.tudelft.lifetiles.annotation.model.MotifBookmark;
 import nl.tudelft.lifetiles.core.controller.AbstractController;
 import nl.tudelft.lifetiles.core.util.Message;
+import nl.tudelft.lifetiles.graph.model.KmerIndex;
+import nl.tudelft.lifetiles.graph.model.MotifMatch;
+import nl.tudelft.lifetiles.notification.controller.NotificationController;
+import nl.tudelft.lifetiles.notification.model.NotificationFactory;
 
 /**
  * Controller for the Bookmark sidebar.
@@ -24,6 +36,27 @@ import nl.tudelft.lifetiles.core.util.Message;
  */
 public class BookmarkController extends AbstractController {
 
+    /**
+     * The minimal length of a search query to be looked up as a motif.
+     */
+    private static final int MIN_MOTIF_LENGTH = 4;
+
+    /**
+     * Pattern of search queries which are looked up as a motif.
+     */
+    private static final Pattern MOTIF_PATTERN = Pattern.compile("[ACGTacgt]+");
+
+    /**
+     * The maximal number of occurrences of a motif shown as bookmarks. Short
+     * motifs occur tens of thousands of times in a genome.
+     */
+    private static final int MAX_MOTIF_MATCHES = 1000;
+
+    /**
+     * The time in milliseconds typing has to pause before searching.
+     */
+    private static final double SEARCH_DELAY = 150;
+
     /**
      * The wrapper element for the control.
      */
@@ -45,12 +78,38 @@ public class BookmarkController extends AbstractController {
     /**
      * The list of all bookmarks.
      */
+    private List<AbstractBookmark> bookmarks;
+
+    /**
+     * The bookmarks matching the last search, shown in the list.
+     */
     private ObservableList<AbstractBookmark> listItems;
+
+    /**
+     * The index used to search the bookmarks, null until it has been built.
+     */
+    private BookmarkIndex searchIndex;
+
+    /**
+     * The number of bookmark indices requested, used to discard outdated
+     * indices.
+     */
+    private int indexGeneration;
+
+    /**
+     * The number of searches started, used to discard outdated results.
+     */
+    private int searchGeneration;
+
     /**
-     * The filtered list that will wrap the listItems.
-     * do not add items directly to this list, instead add them to listItems.
+     * Delays searching until typing pauses.
      */
-    private FilteredList<AbstractBookmark> filteredItems;
+    private PauseTransition searchDelay;
+
+    /**
+     * The index used to search for motifs, null until it has been built.
+     */
+    private KmerIndex motifIndex;
 
     /**
      * {@inheritDoc}
@@ -60,10 +119,16 @@ public class BookmarkController extends AbstractController {
             final ResourceBundle resources) {
         setVisibility(false);
 
-        // wrap the observable list in a filtered list so we can search it later
+        bookmarks = new ArrayList<>();
         listItems = FXCollections.observableArrayList();
-        filteredItems = new FilteredList<AbstractBookmark>(listItems);
-        bookmarkList.setItems(filteredItems);
+        bookmarkList.setItems(listItems);
+
+        // search as you type, once typing pauses.
+        searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY));
+        searchDelay.setOnFinished(event -> search(searchBox.getText()));
+        searchBox.textProperty().addListener(
+                (observable, oldValue, newValue) -> searchDelay
+                        .playFromStart());
 
         /*
          * create a new Cell factory so we can use a different method
@@ -83,10 +148,15 @@ public class BookmarkController extends AbstractController {
                         setText(item.toCellString());
                         setOnMouseClicked(event -> {
                             if (event.getClickCount() == 2) {
-                                shout(Message.GOTO, "" ,
-                                        Long.valueOf(item.getUnifiedPosition()));
+                                // the graph maps the bookmark onto the
+                                // current reference before moving there.
+                                shout(Message.GOTO, "", item);
                             }
                         });
+                    } else {
+                        // cells are reused when the results shrink.
+                        setText(null);
+                        setOnMouseClicked(null);
                     }
                 }
             };
@@ -111,11 +181,31 @@ public class BookmarkController extends AbstractController {
         listen(Message.LOADED, (sender, subject, args) -> {
             if ("known mutations".equals(subject) || "annotations".equals(subject)) {
                 assert args[0] instanceof List<?>;
-                List<AbstractBookmark> bookmarks = (List<AbstractBookmark>) args[0];
-                listItems.addAll(bookmarks);
+                bookmarks.addAll((List<AbstractBookmark>) args[0]);
+                indexBookmarks();
+            } else if ("kmer index".equals(subject)) {
+                assert args[0] instanceof KmerIndex;
+                motifIndex = (KmerIndex) args[0];
             }
         });
     }
+
+    /**
+     * Rebuilds the search index over all bookmarks off the FX thread, and
+     * repeats the current search once it is done.
+     */
+    private void indexBookmarks() {
+        final int generation = ++indexGeneration;
+        final List<AbstractBookmark> indexed = new ArrayList<>(bookmarks);
+        CompletableFuture.supplyAsync(() -> new BookmarkIndex(indexed))
+                .thenAccept(index -> Platform.runLater(() -> {
+                    if (generation == indexGeneration) {
+                        searchIndex = index;
+                        search(searchBox.getText());
+                    }
+                }));
+        listItems.setAll(indexed);
+    }
     /**
      * closes the bookmark sidebar.
      */
@@ -128,20 +218,97 @@ public class BookmarkController extends AbstractController {
     }
 
     /**
-     * updates the filtering predicate.
-     * uses a simple contains check on the text of the listItem.
+     * searches immediately, instead of waiting for typing to pause.
      */
     @FXML
     // PMD/findbugs do not work well with javafx. The method IS used.
     @SuppressWarnings("PMD.UnusedPrivateMethod")
     @SuppressFBWarnings("UPM_UNCALLED_PRIVATE_METHOD")
     private void searchAction() {
-        filteredItems.setPredicate(annotation -> {
-            if (searchBox.textProperty().get().isEmpty()) {
-                return true;
+        searchDelay.stop();
+        search(searchBox.getText());
+    }
+
+    /**
+     * Searches the bookmarks off the FX thread and shows the ranked results,
+     * unless a newer search has been started in the meantime.
+     *
+     * @param query
+     *            the search query.
+     */
+    private void search(final String query) {
+        final int generation = ++searchGeneration;
+        final BookmarkIndex index = searchIndex;
+        final KmerIndex motifs = motifIndex;
+        // until the index is built, all bookmarks are shown.
+        final List<AbstractBookmark> all = new ArrayList<>(bookmarks);
+        final AtomicInteger occurrences = new AtomicInteger();
+        CompletableFuture.supplyAsync(() -> {
+            List<AbstractBookmark> results;
+            if (index == null) {
+                results = all;
+            } else {
+                results = index.search(query);
             }
-           return annotation.toCellString().contains(searchBox.getCharacters());
-        });
+            List<MotifMatch> matches = searchMotif(motifs, query);
+            occurrences.set(matches.size());
+            results.addAll(motifBookmarks(query, matches));
+            return results;
+        }).thenAccept(results -> Platform.runLater(() -> {
+            if (generation == searchGeneration) {
+                listItems.setAll(results);
+                if (occurrences.get() > MAX_MOTIF_MATCHES) {
+                    shout(NotificationController.NOTIFY, "",
+                            new NotificationFactory().getNotification(
+                                    "Showing the first " + MAX_MOTIF_MATCHES
+                                            + " of " + occurrences.get()
+                                            + " occurrences of " + query
+                                            + ".",
+                                    NotificationFactory.WARNING));
+                }
+            }
+        }));
+    }
+
+    /**
+     * Looks up the occurrences of the query, if the query looks like a motif.
+     *
+     * @param motifs
+     *            the index used to search for motifs, may be null.
+     * @param query
+     *            the search query.
+     * @return the occurrences of the motif.
+     */
+    private static List<MotifMatch> searchMotif(final KmerIndex motifs,
+            final String query) {
+        if (motifs != null && query.length() >= MIN_MOTIF_LENGTH
+                && MOTIF_PATTERN.matcher(query).matches()) {
+            return motifs.find(query);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Creates the bookmarks on the occurrences of a motif, up to the maximal
+     * number of occurrences shown.
+     *
+     * @param query
+     *            the searched motif.
+     * @param matches
+     *            the occurrences of the motif.
+     * @return the bookmarks on the first occurrences of the motif.
+     */
+    private static List<MotifBookmark> motifBookmarks(final String query,
+            final List<MotifMatch> matches) {
+        List<MotifBookmark> motifItems = new ArrayList<>();
+        for (MotifMatch match : matches.subList(0,
+                Math.min(matches.size(), MAX_MOTIF_MATCHES))) {
+            // one bookmark per occurrence is needed.
+            @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+            MotifBookmark bookmark = new MotifBookmark(query, match);
+            motifItems.add(bookmark);
+        }
+        return motifItems;
     }
 
     /**
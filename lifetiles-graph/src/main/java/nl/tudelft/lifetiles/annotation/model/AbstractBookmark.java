@@ -1,5 +1,8 @@
 package nl.tudelft.lifetiles.annotation.model;
 
+import java.util.Collections;
+import java.util.List;
+
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
@@ -16,6 +19,17 @@ public abstract class AbstractBookmark {
      */
     private final long genomePosition;
 
+    /**
+     * Identifier of the original segment containing the bookmark, -1 if the
+     * bookmark has not been located.
+     */
+    private int segmentIdentifier = -1;
+
+    /**
+     * Offset of the bookmark in the content of the original segment.
+     */
+    private long segmentOffset;
+
     /**
      * Constructs a bookmark.
      *
@@ -35,16 +49,56 @@ public abstract class AbstractBookmark {
         return genomePosition;
     }
 
+    /**
+     * Locates the bookmark in a segment as it was parsed, so the bookmark can
+     * be resolved when the graph has been compacted.
+     *
+     * @param identifier
+     *            Identifier of the original segment containing the bookmark.
+     * @param offset
+     *            Offset of the bookmark in the content of the original
+     *            segment.
+     */
+    public void locate(final int identifier, final long offset) {
+        segmentIdentifier = identifier;
+        segmentOffset = offset;
+    }
+
+    /**
+     * @return whether the bookmark has been located in an original segment.
+     */
+    public boolean isLocated() {
+        return segmentIdentifier >= 0;
+    }
+
+    /**
+     * @return identifier of the original segment containing the bookmark, -1
+     *         if the bookmark has not been located.
+     */
+    public int getSegmentIdentifier() {
+        return segmentIdentifier;
+    }
+
+    /**
+     * @return offset of the bookmark in the content of the original segment.
+     */
+    public long getSegmentOffset() {
+        return segmentOffset;
+    }
+
     /**
      * Returns the position of the bookmark mapped to a sequence segment.
      *
      * @param segment
      *            Sequence segment which bookmark is mapped to.
+     * @param start
+     *            Genome position at which the segment starts on the path of
+     *            the reference.
      * @return position of bookmark on segment.
      */
-    protected long segmentPosition(final SequenceSegment segment) {
-        return segment.getUnifiedStart() + getGenomePosition()
-                - segment.getStart();
+    protected long segmentPosition(final SequenceSegment segment,
+            final long start) {
+        return segment.getUnifiedStart() + getGenomePosition() - start;
     }
 
     /**
@@ -59,4 +113,14 @@ public abstract class AbstractBookmark {
      * @return a string representing this object
      */
     public abstract String toCellString();
+
+    /**
+     * Returns the fields of the bookmark which can be searched for. By
+     * default only the text of the bookmark is searched.
+     *
+     * @return the searchable fields of the bookmark.
+     */
+    public List<String> getSearchFields() {
+        return Collections.singletonList(toCellString());
+    }
 }
@@ -0,0 +1,397 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.graph.model.GraphCompactor;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequencePathIndex;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * Maps annotations onto the graph on demand. Only the annotations overlapping
+ * a requested range of unified positions are mapped, the mapped annotations
+ * are remembered for every reference. Annotations which are never scrolled to
+ * are never mapped.
+ *
+ * The annotations themselves hold their position on the reference they were
+ * last mapped onto. When a remembered mapping is used again after switching
+ * references, its annotations are mapped onto its reference again.
+ *
+ * When the graph has been compacted, resolved annotations are located in the
+ * segments as they were parsed, through the compactor.
+ *
+ * @author agent
+ *
+ * @param <A>
+ *            The type of the annotations.
+ */
+public final class AnnotationMapping<A extends AbstractBookmark> {
+
+    /**
+     * The graph to map the annotations onto.
+     */
+    private final Graph<SequenceSegment> graph;
+
+    /**
+     * The compactor which produced the graph, or null if the graph was not
+     * compacted.
+     */
+    private final GraphCompactor compactor;
+
+    /**
+     * The annotations, sorted by genome position.
+     */
+    private final List<A> annotations;
+
+    /**
+     * The genome start positions of the annotations.
+     */
+    private final long[] starts;
+
+    /**
+     * The genome end positions of the annotations.
+     */
+    private final long[] ends;
+
+    /**
+     * The length of the longest annotation.
+     */
+    private final long maxLength;
+
+    /**
+     * Maps a single annotation onto the path of a reference.
+     */
+    private final BiFunction<A, SequencePathIndex, Collection<SequenceSegment>> mapper;
+
+    /**
+     * The mappings made so far, per reference.
+     */
+    private final Map<Sequence, ReferenceMapping<A>> mappings;
+
+    /**
+     * The reference the resolved annotations were last mapped onto.
+     */
+    private Sequence current;
+
+    /**
+     * Create a new annotation mapping.
+     *
+     * @param graph
+     *            The graph to map the annotations onto.
+     * @param compactor
+     *            The compactor which produced the graph, or null if the graph
+     *            was not compacted.
+     * @param annotations
+     *            The annotations to map.
+     * @param end
+     *            Gives the genome end position of an annotation.
+     * @param mapper
+     *            Maps a single annotation onto the path of a reference.
+     */
+    private AnnotationMapping(final Graph<SequenceSegment> graph,
+            final GraphCompactor compactor, final List<A> annotations,
+            final ToLongFunction<A> end,
+            final BiFunction<A, SequencePathIndex, Collection<SequenceSegment>> mapper) {
+        this.graph = graph;
+        this.compactor = compactor;
+        this.annotations = new ArrayList<>(annotations);
+        this.annotations.sort(Comparator
+                .comparingLong(AbstractBookmark::getGenomePosition));
+        this.mapper = mapper;
+        starts = new long[this.annotations.size()];
+        ends = new long[this.annotations.size()];
+        long longest = 0;
+        for (int index = 0; index < starts.length; index++) {
+            starts[index] = this.annotations.get(index).getGenomePosition();
+            ends[index] = end.applyAsLong(this.annotations.get(index));
+            longest = Math.max(longest, ends[index] - starts[index]);
+        }
+        maxLength = longest;
+        mappings = new HashMap<>();
+    }
+
+    /**
+     * Create a lazy mapping of known mutations.
+     *
+     * @param graph
+     *            The graph to map the known mutations onto.
+     * @param knownMutations
+     *            The known mutations to map.
+     * @return the lazy mapping of the known mutations.
+     */
+    public static AnnotationMapping<KnownMutation> ofKnownMutations(
+            final Graph<SequenceSegment> graph,
+            final List<KnownMutation> knownMutations) {
+        return ofKnownMutations(graph, null, knownMutations);
+    }
+
+    /**
+     * Create a lazy mapping of known mutations onto a compacted graph.
+     *
+     * @param graph
+     *            The graph to map the known mutations onto.
+     * @param compactor
+     *            The compactor which produced the graph, or null if the graph
+     *            was not compacted.
+     * @param knownMutations
+     *            The known mutations to map.
+     * @return the lazy mapping of the known mutations.
+     */
+    public static AnnotationMapping<KnownMutation> ofKnownMutations(
+            final Graph<SequenceSegment> graph,
+            final GraphCompactor compactor,
+            final List<KnownMutation> knownMutations) {
+        return new AnnotationMapping<>(graph, compactor, knownMutations,
+                KnownMutation::getGenomePosition, (mutation, path) -> {
+                    SequenceSegment segment = mutation.mapOntoSequence(path);
+                    if (segment == null) {
+                        return Collections.emptyList();
+                    }
+                    return Collections.singletonList(segment);
+                });
+    }
+
+    /**
+     * Create a lazy mapping of gene annotations.
+     *
+     * @param graph
+     *            The graph to map the gene annotations onto.
+     * @param geneAnnotations
+     *            The gene annotations to map.
+     * @return the lazy mapping of the gene annotations.
+     */
+    public static AnnotationMapping<GeneAnnotation> ofGeneAnnotations(
+            final Graph<SequenceSegment> graph,
+            final List<GeneAnnotation> geneAnnotations) {
+        return ofGeneAnnotations(graph, null, geneAnnotations);
+    }
+
+    /**
+     * Create a lazy mapping of gene annotations onto a compacted graph.
+     *
+     * @param graph
+     *            The graph to map the gene annotations onto.
+     * @param compactor
+     *            The compactor which produced the graph, or null if the graph
+     *            was not compacted.
+     * @param geneAnnotations
+     *            The gene annotations to map.
+     * @return the lazy mapping of the gene annotations.
+     */
+    public static AnnotationMapping<GeneAnnotation> ofGeneAnnotations(
+            final Graph<SequenceSegment> graph,
+            final GraphCompactor compactor,
+            final List<GeneAnnotation> geneAnnotations) {
+        return new AnnotationMapping<>(graph, compactor, geneAnnotations,
+                GeneAnnotation::getGenomeEndPosition,
+                GeneAnnotation::mapOntoSequence);
+    }
+
+    /**
+     * Maps the annotations overlapping a range of unified positions onto the
+     * reference, if they have not been mapped onto it before.
+     *
+     * @param reference
+     *            The current reference.
+     * @param unifiedStart
+     *            The first unified position of the range.
+     * @param unifiedEnd
+     *            The last unified position of the range.
+     * @return Map which maps segments to the annotations mapped onto the
+     *         reference so far, including those in the range.
+     */
+    public Map<SequenceSegment, List<A>> map(final Sequence reference,
+            final long unifiedStart, final long unifiedEnd) {
+        ReferenceMapping<A> mapping = activate(reference);
+        long genomeStart = mapping.path.toGenomeCeiling(unifiedStart);
+        long genomeEnd = mapping.path.toGenomeFloor(unifiedEnd);
+        if (genomeStart >= 0 && genomeEnd >= genomeStart) {
+            int first = lowerBound(genomeStart - maxLength);
+            int last = lowerBound(genomeEnd + 1);
+            for (int index = first; index < last; index++) {
+                if (ends[index] >= genomeStart && !mapping.resolved.get(index)) {
+                    mapping.resolved.set(index);
+                    A annotation = annotations.get(index);
+                    for (SequenceSegment segment : mapper.apply(annotation,
+                            mapping.path)) {
+                        mapping.mapped.computeIfAbsent(segment,
+                                key -> new ArrayList<>()).add(annotation);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(mapping.mapped);
+    }
+
+    /**
+     * Maps a single annotation onto the reference, so its unified position
+     * can be requested, and locates it in the original segment containing
+     * its start.
+     *
+     * @param annotation
+     *            The annotation to map.
+     * @param reference
+     *            The current reference.
+     * @return whether the annotation could be mapped onto the reference.
+     */
+    public boolean resolve(final A annotation, final Sequence reference) {
+        SequencePathIndex path = activate(reference).path;
+        if (mapper.apply(annotation, path).isEmpty()) {
+            return false;
+        }
+        // annotations may start before the reference, locate them at the
+        // first segment they overlap.
+        int index = path.ceilingIndex(annotation.getGenomePosition());
+        if (index >= 0) {
+            SequenceSegment segment = path.getSegment(index);
+            long offset = Math.max(0, annotation.getGenomePosition()
+                    - path.getStart(index));
+            if (compactor == null) {
+                annotation.locate(segment.getIdentifier(), offset);
+            } else {
+                int original = compactor.getOriginalIdentifier(segment,
+                        offset);
+                annotation.locate(original,
+                        offset - compactor.getOffset(original));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of annotations.
+     */
+    public int size() {
+        return annotations.size();
+    }
+
+    /**
+     * @param reference
+     *            The reference.
+     * @return the number of annotations mapped onto the reference so far.
+     */
+    public int countResolved(final Sequence reference) {
+        ReferenceMapping<A> mapping = mappings.get(reference);
+        if (mapping == null) {
+            return 0;
+        }
+        return mapping.resolved.cardinality();
+    }
+
+    /**
+     * @param reference
+     *            The reference.
+     * @return the mappings made onto the reference so far, created if there
+     *         were none.
+     */
+    private ReferenceMapping<A> getMapping(final Sequence reference) {
+        return mappings.computeIfAbsent(reference,
+                key -> new ReferenceMapping<>(selectReference(key)));
+    }
+
+    /**
+     * Makes a reference the current one. If the current reference changes,
+     * the annotations resolved on the new reference are mapped onto it
+     * again, as they hold the positions of the previous reference.
+     *
+     * @param reference
+     *            The reference.
+     * @return the mappings made onto the reference so far.
+     */
+    private ReferenceMapping<A> activate(final Sequence reference) {
+        ReferenceMapping<A> mapping = getMapping(reference);
+        if (!reference.equals(current)) {
+            current = reference;
+            BitSet resolved = mapping.resolved;
+            for (int index = resolved.nextSetBit(0); index >= 0;
+                    index = resolved.nextSetBit(index + 1)) {
+                mapper.apply(annotations.get(index), mapping.path);
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * @param position
+     *            A genome position.
+     * @return the index of the first annotation starting at or after the
+     *         position.
+     */
+    private int lowerBound(final long position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Indexes the segments in the graph which are part of the reference.
+     *
+     * @param reference
+     *            The reference to search for in the segments.
+     * @return index over the reference segments in the graph.
+     */
+    private SequencePathIndex selectReference(final Sequence reference) {
+        List<SequenceSegment> segments = new ArrayList<>();
+        for (SequenceSegment segment : graph.getAllVertices()) {
+            // empty segments bridge deletions, they are positioned in
+            // unified coordinates and contain no genome positions.
+            if (segment.getSources().contains(reference)
+                    && !segment.getContent().isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return new SequencePathIndex(segments);
+    }
+
+    /**
+     * The annotations mapped onto a single reference.
+     *
+     * @author agent
+     *
+     * @param <A>
+     *            The type of the annotations.
+     */
+    private static final class ReferenceMapping<A> {
+        /**
+         * Index over the segments of the reference.
+         */
+        private final SequencePathIndex path;
+        /**
+         * The indices of the annotations which have been mapped.
+         */
+        private final BitSet resolved;
+        /**
+         * Map from segment to the annotations mapped onto it.
+         */
+        private final Map<SequenceSegment, List<A>> mapped;
+
+        /**
+         * @param path
+         *            Index over the segments of the reference.
+         */
+        ReferenceMapping(final SequencePathIndex path) {
+            this.path = path;
+            resolved = new BitSet();
+            mapped = new HashMap<>();
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import nl.tudelft.lifetiles.core.util.Timer;
+
+/**
+ * Search index over the fields of bookmarks. The fields are split into
+ * lower case words. Every query word is matched against the words of the
+ * bookmarks through a sorted word list, for prefixes, and a trigram index,
+ * for words appearing inside other words. Results are ranked by how well the
+ * words match.
+ *
+ * @author agent
+ *
+ */
+public final class BookmarkIndex {
+
+    /**
+     * The length of the n-grams in the index.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The score of a query word equal to a word of a bookmark.
+     */
+    private static final int EXACT_SCORE = 3;
+
+    /**
+     * The score of a query word which is a prefix of a word of a bookmark.
+     */
+    private static final int PREFIX_SCORE = 2;
+
+    /**
+     * The score of a query word within a word of a bookmark.
+     */
+    private static final int INFIX_SCORE = 1;
+
+    /**
+     * Separates the words of a field or query.
+     */
+    private static final Pattern SEPARATOR = Pattern
+            .compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * The indexed bookmarks.
+     */
+    private final List<AbstractBookmark> bookmarks;
+
+    /**
+     * The distinct words of all bookmarks, sorted.
+     */
+    private final String[] words;
+
+    /**
+     * The indices of the bookmarks containing each word.
+     */
+    private final int[][] postings;
+
+    /**
+     * The indices of the words containing each trigram.
+     */
+    private final Map<String, int[]> grams;
+
+    /**
+     * Build the index over a list of bookmarks.
+     *
+     * @param bookmarks
+     *            The bookmarks to index.
+     */
+    public BookmarkIndex(final List<? extends AbstractBookmark> bookmarks) {
+        Timer timer = Timer.getAndStart();
+        this.bookmarks = new ArrayList<>(bookmarks);
+
+        Map<String, List<Integer>> wordBookmarks = new TreeMap<>();
+        for (int index = 0; index < this.bookmarks.size(); index++) {
+            for (String field : this.bookmarks.get(index).getSearchFields()) {
+                for (String word : split(field)) {
+                    List<Integer> bookmarkIndices = wordBookmarks
+                            .computeIfAbsent(word, key -> new ArrayList<>());
+                    if (bookmarkIndices.isEmpty()
+                            || bookmarkIndices.get(bookmarkIndices.size() - 1)
+                                    != index) {
+                        bookmarkIndices.add(index);
+                    }
+                }
+            }
+        }
+
+        words = wordBookmarks.keySet().toArray(new String[0]);
+        postings = new int[words.length][];
+        Map<String, List<Integer>> gramWords = new HashMap<>();
+        for (int word = 0; word < words.length; word++) {
+            postings[word] = toArray(wordBookmarks.get(words[word]));
+            for (int start = 0; start + GRAM_LENGTH <= words[word].length();
+                    start++) {
+                List<Integer> wordIndices = gramWords.computeIfAbsent(
+                        words[word].substring(start, start + GRAM_LENGTH),
+                        key -> new ArrayList<>());
+                if (wordIndices.isEmpty()
+                        || wordIndices.get(wordIndices.size() - 1) != word) {
+                    wordIndices.add(word);
+                }
+            }
+        }
+        grams = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : gramWords.entrySet()) {
+            grams.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        timer.stopAndLog("Indexing bookmarks");
+    }
+
+    /**
+     * @param values
+     *            The values to convert.
+     * @return the values as a primitive array.
+     */
+    private static int[] toArray(final List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int index = 0; index < array.length; index++) {
+            array[index] = values.get(index);
+        }
+        return array;
+    }
+
+    /**
+     * @param text
+     *            The text to split.
+     * @return the lower case words in the text.
+     */
+    private static List<String> split(final String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches the bookmarks. A bookmark matches when every word of the query
+     * is equal to, a prefix of, or contained in one of its words.
+     *
+     * @param query
+     *            The search query.
+     * @return the matching bookmarks, the best matches first. All bookmarks
+     *         in their original order if the query contains no words.
+     */
+    public List<AbstractBookmark> search(final String query) {
+        List<String> queryWords = split(query);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>(bookmarks);
+        }
+        int[] scores = null;
+        for (String queryWord : queryWords) {
+            int[] wordScores = score(queryWord);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                for (int index = 0; index < scores.length; index++) {
+                    if (scores[index] == 0 || wordScores[index] == 0) {
+                        scores[index] = 0;
+                    } else {
+                        scores[index] += wordScores[index];
+                    }
+                }
+            }
+        }
+        return ranked(scores);
+    }
+
+    /**
+     * Scores every bookmark for a single query word.
+     *
+     * @param queryWord
+     *            The query word.
+     * @return the best score of a word of every bookmark, 0 if none matches.
+     */
+    private int[] score(final String queryWord) {
+        int[] scores = new int[bookmarks.size()];
+        // words starting with the query word form a range of the sorted words
+        int first = Arrays.binarySearch(words, queryWord);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        for (int word = first; word < words.length
+                && words[word].startsWith(queryWord); word++) {
+            int score = PREFIX_SCORE;
+            if (words[word].length() == queryWord.length()) {
+                score = EXACT_SCORE;
+            }
+            award(word, score, scores);
+        }
+        if (queryWord.length() >= GRAM_LENGTH) {
+            for (int word : candidates(queryWord)) {
+                if (words[word].indexOf(queryWord) > 0) {
+                    award(word, INFIX_SCORE, scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Finds the words which contain all trigrams of a query word.
+     *
+     * @param queryWord
+     *            The query word, at least a trigram long.
+     * @return the indices of the candidate words.
+     */
+    private int[] candidates(final String queryWord) {
+        int[] result = null;
+        for (int start = 0; start + GRAM_LENGTH <= queryWord.length();
+                start++) {
+            int[] wordIndices = grams.get(queryWord.substring(start, start
+                    + GRAM_LENGTH));
+            if (wordIndices == null) {
+                return new int[0];
+            }
+            if (result == null) {
+                result = wordIndices;
+            } else {
+                result = intersect(result, wordIndices);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param left
+     *            A sorted array.
+     * @param right
+     *            A sorted array.
+     * @return the values in both arrays, sorted.
+     */
+    private static int[] intersect(final int[] left, final int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int leftIndex = 0;
+        int rightIndex = 0;
+        while (leftIndex < left.length && rightIndex < right.length) {
+            if (left[leftIndex] < right[rightIndex]) {
+                leftIndex++;
+            } else if (left[leftIndex] > right[rightIndex]) {
+                rightIndex++;
+            } else {
+                result[size++] = left[leftIndex];
+                leftIndex++;
+                rightIndex++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Gives the bookmarks containing a word at least a score.
+     *
+     * @param word
+     *            The index of the word.
+     * @param score
+     *            The score of the word.
+     * @param scores
+     *            The scores of the bookmarks.
+     */
+    private void award(final int word, final int score, final int[] scores) {
+        for (int bookmark : postings[word]) {
+            scores[bookmark] = Math.max(scores[bookmark], score);
+        }
+    }
+
+    /**
+     * @param scores
+     *            The scores of the bookmarks.
+     * @return the bookmarks with a positive score, the highest scores first
+     *         and otherwise in their original order.
+     */
+    private List<AbstractBookmark> ranked(final int[] scores) {
+        List<Integer> matches = new ArrayList<>();
+        for (int index = 0; index < scores.length; index++) {
+            if (scores[index] > 0) {
+                matches.add(index);
+            }
+        }
+        // the sort is stable, so equal scores keep their original order.
+        matches.sort((left, right) -> Integer.compare(scores[right],
+                scores[left]));
+        List<AbstractBookmark> result = new ArrayList<>(matches.size());
+        for (int index : matches) {
+            result.add(bookmarks.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of indexed bookmarks.
+     */
+    public int size() {
+        return bookmarks.size();
+    }
+
+}
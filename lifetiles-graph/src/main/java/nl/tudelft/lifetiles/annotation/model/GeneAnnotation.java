@@ -1,10 +1,12 @@
 package nl.tudelft.lifetiles.annotation.model;
 
+import java.util.Collections;
 import java.util.Formatter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
-import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequencePathIndex;
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
@@ -21,9 +23,9 @@ public class GeneAnnotation extends AbstractAnnotation {
     private final String name;
 
     /**
-     * The segments to which this annotation maps to.
+     * The unified position of the annotation on the segments it maps to.
      */
-    private Set<SequenceSegment> mappingSegments;
+    private long unifiedPosition;
 
     /**
      * Construct a gene annotation.
@@ -38,7 +40,7 @@ public class GeneAnnotation extends AbstractAnnotation {
     public GeneAnnotation(final long start, final long end, final String name) {
         super(start, end);
         this.name = name;
-        mappingSegments = new HashSet<>();
+        unifiedPosition = 1;
     }
 
     /**
@@ -49,23 +51,23 @@ public class GeneAnnotation extends AbstractAnnotation {
     }
 
     /**
-     * Maps known mutation onto a set of segments.
+     * Maps the gene annotation onto the path of a sequence.
      *
-     * @param segments
-     *            Segments to map the annotation to.
-     * @param reference
-     *            The current reference used in the list of segments.
+     * @param path
+     *            Index over the path of the current reference.
      * @return segments which annotation should be mapped to.
      */
-    public Set<SequenceSegment> mapOntoSequence(
-            final Set<SequenceSegment> segments, final Sequence reference) {
-        mappingSegments = new HashSet<>();
-        for (SequenceSegment segment : segments) {
-            if (segment.getSources().contains(reference)
-                    && segment.getStart() <= getGenomeEndPosition()
-                    && segment.getEnd() > getGenomePosition()) {
-                mappingSegments.add(segment);
-            }
+    public Set<SequenceSegment> mapOntoSequence(final SequencePathIndex path) {
+        Set<SequenceSegment> mappingSegments = new HashSet<>();
+        unifiedPosition = 1;
+        int index = path.ceilingIndex(getGenomePosition());
+        while (index >= 0 && index < path.size()
+                && path.getStart(index) <= getGenomeEndPosition()) {
+            SequenceSegment segment = path.getSegment(index);
+            mappingSegments.add(segment);
+            unifiedPosition = Math.max(unifiedPosition, segmentPosition(
+                    segment, path.getStart(index)));
+            index++;
         }
         return mappingSegments;
     }
@@ -95,11 +97,7 @@ public class GeneAnnotation extends AbstractAnnotation {
      */
     @Override
     public long getUnifiedPosition() {
-        long position = 1;
-        for (SequenceSegment segment : mappingSegments) {
-            position = Math.max(position, segmentPosition(segment));
-        }
-        return position;
+        return unifiedPosition;
     }
 
     /**
@@ -110,4 +108,12 @@ public class GeneAnnotation extends AbstractAnnotation {
         return "Gene: " + name;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getSearchFields() {
+        return Collections.singletonList(name);
+    }
+
 }
@@ -5,10 +5,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 import nl.tudelft.lifetiles.graph.model.Graph;
 import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequencePathIndex;
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
@@ -42,11 +42,12 @@ public final class GeneAnnotationMapper {
     public static Map<SequenceSegment, List<GeneAnnotation>> mapAnnotations(
             final Graph<SequenceSegment> graph,
             final List<GeneAnnotation> genomes, final Sequence reference) {
-        Set<SequenceSegment> segments = selectReference(graph, reference);
+        SequencePathIndex path = new SequencePathIndex(selectReference(graph,
+                reference));
         Map<SequenceSegment, List<GeneAnnotation>> annotatedSegments = new HashMap<>();
         for (GeneAnnotation geneAnnotation : genomes) {
             Set<SequenceSegment> mappedSegments = geneAnnotation
-                    .mapOntoSequence(segments, reference);
+                    .mapOntoSequence(path);
             for (SequenceSegment segment : mappedSegments) {
                 if (!annotatedSegments.containsKey(segment)) {
                     // We do actually need to instantiate here.
@@ -62,19 +63,24 @@ public final class GeneAnnotationMapper {
 
     /**
      * Selects the segments in the graph which are part of the reference
-     * sequence and returns them in a list.
+     * sequence and returns them in a list. The segments are indexed by their
+     * genome position afterwards, so every annotation is mapped by a binary
+     * search.
      *
      * @param graph
      *            The graph to be searched for reference segments.
      * @param reference
      *            The reference to search for in the segments.
-     * @return set of reference segments in the graph.
+     * @return list of reference segments in the graph.
      */
-    private static Set<SequenceSegment> selectReference(
+    private static List<SequenceSegment> selectReference(
             final Graph<SequenceSegment> graph, final Sequence reference) {
-        Set<SequenceSegment> segments = new TreeSet<>();
+        List<SequenceSegment> segments = new ArrayList<>();
         for (SequenceSegment segment : graph.getAllVertices()) {
-            if (segment.getSources().contains(reference)) {
+            // empty segments bridge deletions, they are positioned in
+            // unified coordinates and contain no genome positions.
+            if (segment.getSources().contains(reference)
+                    && !segment.getContent().isEmpty()) {
                 segments.add(segment);
             }
         }
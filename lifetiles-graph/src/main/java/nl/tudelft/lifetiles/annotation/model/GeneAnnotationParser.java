@@ -1,22 +1,41 @@
 package nl.tudelft.lifetiles.annotation.model;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import nl.tudelft.lifetiles.core.util.Timer;
+
 /**
- * Static class which parses gene annotations.
+ * Static class which parses gene annotations from GFF3 files. The file is
+ * read line by line up to the FASTA section, comment and directive lines are
+ * skipped. Large files are parsed in parallel.
  *
  * @author Jos
  *
  */
 public final class GeneAnnotationParser {
 
+    /**
+     * The number of columns in a feature line.
+     */
+    private static final int NUMBER_OF_COLUMNS = 9;
+    /**
+     * The index of the source field in a annotation line.
+     */
+    private static final int SOURCE_FIELD = 1;
+    /**
+     * The index of the type field in a annotation line.
+     */
+    private static final int TYPE_FIELD = 2;
     /**
      * The index of the start field in a annotation line.
      */
@@ -37,6 +56,18 @@ public final class GeneAnnotationParser {
      * The standard null name for annotations without a name.
      */
     private static final String NULL_NAME = "";
+    /**
+     * The directive starting the FASTA section at the end of the file.
+     */
+    private static final String FASTA_DIRECTIVE = "##FASTA";
+    /**
+     * The number of lines above which the lines are parsed in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+    /**
+     * The radix of the positions.
+     */
+    private static final int RADIX = 10;
 
     /**
      * Static class can not have a public or default constructor.
@@ -57,49 +88,167 @@ public final class GeneAnnotationParser {
     public static List<GeneAnnotation> parseGeneAnnotations(final File file)
             throws IOException {
         List<GeneAnnotation> genomeAnnotations = new ArrayList<>();
-        Stream<String> annotationLines = Files.lines(file.toPath());
-        annotationLines.map(GeneAnnotationParser::parseGeneAnnotation)
-                .filter(genome -> genome != null)
-                .forEach(genome -> genomeAnnotations.add(genome));
-        annotationLines.close();
+        for (GffFeature feature : parseFeatures(file)) {
+            String name = feature.getAttribute(NAME_FIELD);
+            if (name == null) {
+                name = NULL_NAME;
+            }
+            // one annotation per feature is needed.
+            @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+            GeneAnnotation annotation = new GeneAnnotation(feature.getStart(),
+                    feature.getEnd(), name);
+            genomeAnnotations.add(annotation);
+        }
         return genomeAnnotations;
     }
 
     /**
-     * Parses a single line of the gene file into a gene.
+     * Parses the features of a GFF3 file, in the order of the file.
+     *
+     * @param file
+     *            the GFF3 file.
+     * @throws IOException
+     *             When there is an error reading the specified file.
+     * @return the features in the file.
+     */
+    public static List<GffFeature> parseFeatures(final File file)
+            throws IOException {
+        Timer timer = Timer.getAndStart();
+        List<String> lines = readFeatureLines(file);
+        // seqid, source and type are repeated on nearly every line.
+        Map<String, String> interned = new ConcurrentHashMap<>();
+        Stream<String> stream;
+        if (lines.size() > PARALLEL_THRESHOLD) {
+            stream = lines.parallelStream();
+        } else {
+            stream = lines.stream();
+        }
+        List<GffFeature> features = stream
+                .map(line -> parseFeature(line, interned))
+                .collect(Collectors.toList());
+        timer.stopAndLog("Parsing annotations");
+        return features;
+    }
+
+    /**
+     * Reads the feature lines of a GFF3 file, skipping empty lines, comments
+     * and directives. Stops reading at the FASTA section.
+     *
+     * @param file
+     *            the GFF3 file.
+     * @throws IOException
+     *             When there is an error reading the specified file.
+     * @return the feature lines.
+     */
+    private static List<String> readFeatureLines(final File file)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(),
+                StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null && !line.startsWith(FASTA_DIRECTIVE)
+                    && !line.startsWith(">")) {
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    lines.add(line);
+                }
+                line = reader.readLine();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parses a single line of the gene file into a feature. The columns are
+     * located with indexOf, only the used columns are copied.
      *
      * @param line
      *            Single line of the gene file.
-     * @return parsed gene.
-     */
-    private static GeneAnnotation parseGeneAnnotation(final String line) {
-        String[] columns = line.split("\t");
-        long start = Long.parseLong(columns[START_FIELD]);
-        long end = Long.parseLong(columns[END_FIELD]);
-        Map<String, String> fields = extractGeneFields(columns[EXTRA_FIELD]
-                .split(";"));
-        String name;
-        if (fields.containsKey(NAME_FIELD)) {
-            name = fields.get(NAME_FIELD);
-        } else {
-            name = NULL_NAME;
+     * @param interned
+     *            The strings already seen, used to share repeated columns.
+     * @return parsed feature.
+     */
+    private static GffFeature parseFeature(final String line,
+            final Map<String, String> interned) {
+        int[] bounds = new int[NUMBER_OF_COLUMNS + 1];
+        bounds[0] = -1;
+        for (int column = 1; column < NUMBER_OF_COLUMNS; column++) {
+            bounds[column] = line.indexOf('\t', bounds[column - 1] + 1);
+            if (bounds[column] < 0) {
+                throw new IllegalArgumentException("Malformed annotation: "
+                        + line);
+            }
+        }
+        int attributesEnd = line.indexOf('\t', bounds[EXTRA_FIELD] + 1);
+        if (attributesEnd < 0) {
+            attributesEnd = line.length();
+        }
+        bounds[NUMBER_OF_COLUMNS] = attributesEnd;
+
+        String seqid = intern(line.substring(0, bounds[1]), interned);
+        String source = intern(column(line, bounds, SOURCE_FIELD), interned);
+        String type = intern(column(line, bounds, TYPE_FIELD), interned);
+        long start = parsePosition(line, bounds[START_FIELD] + 1,
+                bounds[START_FIELD + 1]);
+        long end = parsePosition(line, bounds[END_FIELD] + 1,
+                bounds[END_FIELD + 1]);
+        return new GffFeature(seqid, source, type, start, end, column(line,
+                bounds, EXTRA_FIELD));
+    }
+
+    /**
+     * @param line
+     *            The line to take the column from.
+     * @param bounds
+     *            The positions of the tabs in the line.
+     * @param column
+     *            The index of the column.
+     * @return the content of the column.
+     */
+    private static String column(final String line, final int[] bounds,
+            final int column) {
+        return line.substring(bounds[column] + 1, bounds[column + 1]);
+    }
+
+    /**
+     * @param value
+     *            The string to intern.
+     * @param interned
+     *            The strings already seen.
+     * @return the first equal string seen.
+     */
+    private static String intern(final String value,
+            final Map<String, String> interned) {
+        String previous = interned.putIfAbsent(value, value);
+        if (previous == null) {
+            return value;
         }
-        return new GeneAnnotation(start, end, name);
+        return previous;
     }
 
     /**
-     * Method which extract the gene fields into a map.
+     * Parses a position without copying it out of the line.
      *
-     * @param fields
-     *            Fields of the gene.
-     * @return Map of attributes in the gene.
-     */
-    private static Map<String, String> extractGeneFields(final String... fields) {
-        final Map<String, String> genomeFields = new HashMap<String, String>();
-        for (String field : fields) {
-            String[] attribute = field.split("=");
-            genomeFields.put(attribute[0], attribute[1]);
+     * @param line
+     *            The line containing the position.
+     * @param from
+     *            The index of the first digit.
+     * @param to
+     *            The index after the last digit.
+     * @return the parsed position.
+     */
+    private static long parsePosition(final String line, final int from,
+            final int to) {
+        if (from >= to) {
+            throw new NumberFormatException("Empty position: " + line);
+        }
+        long position = 0;
+        for (int index = from; index < to; index++) {
+            int digit = Character.digit(line.charAt(index), RADIX);
+            if (digit < 0) {
+                throw new NumberFormatException("Invalid position: " + line);
+            }
+            position = position * RADIX + digit;
         }
-        return genomeFields;
+        return position;
     }
 }
@@ -0,0 +1,166 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+
+/**
+ * A single feature line of a GFF3 file. The attribute column is kept as it
+ * was read and only searched when an attribute is requested, most features
+ * are never asked for more than their name.
+ *
+ * @author agent
+ *
+ */
+public final class GffFeature {
+
+    /**
+     * The value of empty columns.
+     */
+    private static final String EMPTY_COLUMN = ".";
+
+    /**
+     * The sequence the feature is located on.
+     */
+    private final String seqid;
+
+    /**
+     * The program or database which produced the feature.
+     */
+    private final String source;
+
+    /**
+     * The type of the feature.
+     */
+    private final String type;
+
+    /**
+     * The start position of the feature.
+     */
+    private final long start;
+
+    /**
+     * The end position of the feature.
+     */
+    private final long end;
+
+    /**
+     * The unparsed attribute column.
+     */
+    private final String attributes;
+
+    /**
+     * Construct a GFF3 feature.
+     *
+     * @param seqid
+     *            The sequence the feature is located on.
+     * @param source
+     *            The program or database which produced the feature.
+     * @param type
+     *            The type of the feature.
+     * @param start
+     *            The start position of the feature.
+     * @param end
+     *            The end position of the feature.
+     * @param attributes
+     *            The unparsed attribute column.
+     */
+    public GffFeature(final String seqid, final String source,
+            final String type, final long start, final long end,
+            final String attributes) {
+        this.seqid = seqid;
+        this.source = source;
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.attributes = attributes;
+    }
+
+    /**
+     * @return the sequence the feature is located on.
+     */
+    public String getSeqid() {
+        return seqid;
+    }
+
+    /**
+     * @return the program or database which produced the feature.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the type of the feature.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the start position of the feature.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the end position of the feature.
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Looks up an attribute in the attribute column.
+     *
+     * @param key
+     *            The name of the attribute.
+     * @return the decoded value of the attribute, or null if the feature does
+     *         not have the attribute.
+     */
+    public String getAttribute(final String key) {
+        if (EMPTY_COLUMN.equals(attributes)) {
+            return null;
+        }
+        int from = 0;
+        while (from < attributes.length()) {
+            int separator = attributes.indexOf(';', from);
+            if (separator < 0) {
+                separator = attributes.length();
+            }
+            int assign = attributes.indexOf('=', from);
+            if (assign > from && assign < separator
+                    && assign - from == key.length()
+                    && attributes.startsWith(key, from)) {
+                return decode(attributes.substring(assign + 1, separator));
+            }
+            from = separator + 1;
+            // attributes may be separated by "; "
+            while (from < attributes.length()
+                    && attributes.charAt(from) == ' ') {
+                from++;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the escaped characters of an attribute value.
+     *
+     * @param value
+     *            The escaped value.
+     * @return the decoded value.
+     */
+    private static String decode(final String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        try {
+            // a plus sign is not an escaped space in GFF3.
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+}
@@ -1,9 +1,10 @@
 package nl.tudelft.lifetiles.annotation.model;
 
+import java.util.Arrays;
 import java.util.Formatter;
-import java.util.Set;
+import java.util.List;
 
-import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequencePathIndex;
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
@@ -45,6 +46,12 @@ public class KnownMutation extends AbstractBookmark {
      */
     private SequenceSegment mappingSegment;
 
+    /**
+     * The genome position at which the mapping segment starts on the path of
+     * the reference.
+     */
+    private long mappingStart;
+
     /**
      * Construct a known mutation.
      *
@@ -108,25 +115,29 @@ public class KnownMutation extends AbstractBookmark {
     }
 
     /**
-     * Maps known mutation onto a set of segments.
+     * Maps known mutation onto the path of a sequence.
      *
-     * @param segments
-     *            Segments to map the annotation to.
-     * @param reference
-     *            The current reference used in the list of segments.
-     * @return segment which annotation should be mapped to.
-     */
-    public SequenceSegment mapOntoSequence(final Set<SequenceSegment> segments,
-            final Sequence reference) {
-        for (SequenceSegment segment : segments) {
-            if (segment.getSources().contains(reference)
-                    && segment.getStart() <= getGenomePosition()
-                    && segment.getEnd() > getGenomePosition()) {
-                mappingSegment = segment;
-                return segment;
-            }
+     * @param path
+     *            Index over the path of the current reference.
+     * @return segment which annotation should be mapped to, or null if the
+     *         reference does not cover the position of the mutation.
+     */
+    public SequenceSegment mapOntoSequence(final SequencePathIndex path) {
+        int index = path.indexAt(getGenomePosition());
+        if (index < 0) {
+            mappingSegment = null;
+        } else {
+            mappingSegment = path.getSegment(index);
+            mappingStart = path.getStart(index);
         }
-        return null;
+        return mappingSegment;
+    }
+
+    /**
+     * @return offset of the known mutation in the segment it is mapped to.
+     */
+    public long getMappingOffset() {
+        return getGenomePosition() - mappingStart;
     }
 
     /**
@@ -156,7 +167,7 @@ public class KnownMutation extends AbstractBookmark {
      */
     @Override
     public long getUnifiedPosition() {
-        return segmentPosition(mappingSegment);
+        return segmentPosition(mappingSegment, mappingStart);
     }
 
     /**
@@ -167,4 +178,13 @@ public class KnownMutation extends AbstractBookmark {
         return typeOfMutation + " in " + geneName + " causing resistance for " + drugResistance;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getSearchFields() {
+        return Arrays.asList(geneName, typeOfMutation, change, filter,
+                drugResistance);
+    }
+
 }
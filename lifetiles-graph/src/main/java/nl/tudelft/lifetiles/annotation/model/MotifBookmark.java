@@ -0,0 +1,111 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import java.util.Formatter;
+
+import nl.tudelft.lifetiles.graph.model.MotifMatch;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+
+/**
+ * Bookmark on an occurrence of a searched motif. The genome position of the
+ * bookmark is the position in the first sequence containing the occurrence.
+ *
+ * @author agent
+ *
+ */
+public class MotifBookmark extends AbstractBookmark {
+
+    /**
+     * The searched motif.
+     */
+    private final String motif;
+
+    /**
+     * The occurrence of the motif.
+     */
+    private final MotifMatch match;
+
+    /**
+     * The sequence in which the genome position of the bookmark lies.
+     */
+    private final Sequence sequence;
+
+    /**
+     * Construct a motif bookmark.
+     *
+     * @param motif
+     *            The searched motif.
+     * @param match
+     *            The occurrence of the motif.
+     */
+    public MotifBookmark(final String motif, final MotifMatch match) {
+        this(motif, match, match.getFirstSequence());
+    }
+
+    /**
+     * Construct a motif bookmark.
+     *
+     * @param motif
+     *            The searched motif.
+     * @param match
+     *            The occurrence of the motif.
+     * @param sequence
+     *            The sequence in which the genome position lies.
+     */
+    private MotifBookmark(final String motif, final MotifMatch match,
+            final Sequence sequence) {
+        super(match.getGenomePosition(sequence));
+        this.motif = motif;
+        this.match = match;
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return the searched motif.
+     */
+    public String getMotif() {
+        return motif;
+    }
+
+    /**
+     * @return the occurrence of the motif.
+     */
+    public MotifMatch getMatch() {
+        return match;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getUnifiedPosition() {
+        return match.getUnifiedPosition();
+    }
+
+    /**
+     * Returns the String representation for the motif to be displayed in the
+     * tooltip of it's bookmark.
+     *
+     * @return Tooltip string representation.
+     */
+    @Override
+    public String toString() {
+        Formatter formatter = new Formatter();
+        formatter.format(
+                "Motif: %1$s%nPosition: %2$s in %3$s%nSequences: %4$s",
+                motif, getGenomePosition(), sequence.getIdentifier(), match
+                        .getSequences().size());
+        String motifBookmark = formatter.toString();
+        formatter.close();
+        return motifBookmark;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toCellString() {
+        return "Motif " + motif + " in " + match.getSequences().size()
+                + " sequences";
+    }
+
+}
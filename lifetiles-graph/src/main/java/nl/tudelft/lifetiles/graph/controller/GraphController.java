@@ -3,13 +3,13 @@ package nl.tudelft.lifetiles.graph.controller;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.Group;
 import javafx.scene.SnapshotParameters;
@@ -17,22 +17,25 @@ import javafx.scene.control.ScrollPane;
 import javafx.scene.image.WritableImage;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.shape.Rectangle;
+import nl.tudelft.lifetiles.annotation.model.AbstractBookmark;
+import nl.tudelft.lifetiles.annotation.model.AnnotationMapping;
 import nl.tudelft.lifetiles.annotation.model.GeneAnnotation;
-import nl.tudelft.lifetiles.annotation.model.GeneAnnotationMapper;
 import nl.tudelft.lifetiles.annotation.model.GeneAnnotationParser;
 import nl.tudelft.lifetiles.annotation.model.KnownMutation;
-import nl.tudelft.lifetiles.annotation.model.KnownMutationMapper;
 import nl.tudelft.lifetiles.annotation.model.KnownMutationParser;
 import nl.tudelft.lifetiles.core.controller.AbstractController;
 import nl.tudelft.lifetiles.core.controller.MenuController;
 import nl.tudelft.lifetiles.core.util.Message;
+import nl.tudelft.lifetiles.core.util.Settings;
 import nl.tudelft.lifetiles.core.util.Timer;
 import nl.tudelft.lifetiles.graph.model.DefaultGraphParser;
 import nl.tudelft.lifetiles.graph.model.FactoryProducer;
 import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.graph.model.GraphCompactor;
 import nl.tudelft.lifetiles.graph.model.GraphContainer;
 import nl.tudelft.lifetiles.graph.model.GraphFactory;
 import nl.tudelft.lifetiles.graph.model.GraphParser;
+import nl.tudelft.lifetiles.graph.model.KmerIndex;
 import nl.tudelft.lifetiles.graph.model.StackedMutationContainer;
 import nl.tudelft.lifetiles.graph.view.DiagramView;
 import nl.tudelft.lifetiles.graph.view.TileView;
@@ -62,6 +65,16 @@ public class GraphController extends AbstractController {
     private static final String NOT_LOADED_MSG = "Graph not loaded"
             + " while attempting to add known mutations.";
 
+    /**
+     * The setting key for compacting non-branching chains of segments.
+     */
+    private static final String SETTING_COMPACT = "compact_graph";
+
+    /**
+     * The setting key for indexing the k-mers of the graph to search motifs.
+     */
+    private static final String SETTING_KMER_INDEX = "kmer_index";
+
     /**
      * The pane that will be used to draw the scrollpane and toolbar on the
      * screen.
@@ -99,6 +112,12 @@ public class GraphController extends AbstractController {
      * graph model.
      */
     private Graph<SequenceSegment> graph;
+
+    /**
+     * The compactor which produced the graph, null if the graph was not
+     * compacted. Maps the segments back to the segments as they were parsed.
+     */
+    private GraphCompactor compactor;
     /**
      * the highest unified coordinate in the graph.
      */
@@ -144,14 +163,14 @@ public class GraphController extends AbstractController {
     private double scale = Math.pow(ZOOM_OUT_FACTOR, zoomLevel - SCALE_OFFSET);
 
     /**
-     * The currently inserted known mutations.
+     * The currently inserted known mutations, mapped when they are drawn.
      */
-    private Map<SequenceSegment, List<KnownMutation>> knownMutations;
+    private AnnotationMapping<KnownMutation> knownMutations;
 
     /**
-     * The currently inserted annotations.
+     * The currently inserted annotations, mapped when they are drawn.
      */
-    private Map<SequenceSegment, List<GeneAnnotation>> mappedAnnotations;
+    private AnnotationMapping<GeneAnnotation> mappedAnnotations;
 
     /**
      * The factor that each zoom in step that updates the current scale.
@@ -238,6 +257,8 @@ public class GraphController extends AbstractController {
     private MiniMapController getMiniMapController() {
         if (miniMapController == null) {
             miniMapController = new MiniMapController(scrollPane, model);
+        } else {
+            miniMapController.setModel(model);
         }
         return miniMapController;
     }
@@ -278,7 +299,7 @@ public class GraphController extends AbstractController {
             if (model != null) {
                 model.setVisible(new HashSet<>(sequences.values()));
             } else {
-                model = new GraphContainer(graph, null);
+                model = new GraphContainer(graph, null, compactor);
             }
         });
 
@@ -290,7 +311,7 @@ public class GraphController extends AbstractController {
             Set<Sequence> newSequences = (Set<Sequence>) args[0];
             visibleSequences = newSequences;
             model.setVisible(visibleSequences);
-            diagram = new StackedMutationContainer(model.getBucketCache(),
+            diagram = new StackedMutationContainer(model.getMutationCounts(),
                     visibleSequences);
             repaintNow = true;
             repaint();
@@ -301,19 +322,29 @@ public class GraphController extends AbstractController {
                     assert args.length == 1;
                     assert args[0] instanceof Sequence;
                     reference = (Sequence) args[0];
-                    model = new GraphContainer(graph, reference);
+                    model = new GraphContainer(graph, reference, compactor);
                     model.setVisible(visibleSequences);
                     diagram = new StackedMutationContainer(model
-                            .getBucketCache(), visibleSequences);
+                            .getMutationCounts(), visibleSequences);
                     repaintNow = true;
                     repaint();
                 });
 
         listen(Message.GOTO, (controller, subject, args) -> {
-            assert args[0] instanceof Long;
-            Long position = (Long) args[0];
+            assert args[0] instanceof Long
+                    || args[0] instanceof AbstractBookmark;
+            long position;
+            if (args[0] instanceof AbstractBookmark) {
+                AbstractBookmark bookmark = (AbstractBookmark) args[0];
+                if (!resolveBookmark(bookmark)) {
+                    return;
+                }
+                position = unifiedPosition(bookmark);
+            } else {
+                position = (Long) args[0];
+            }
             // calculate position on a 0 to 1 scale
-            double hValue = position.doubleValue() / (double) maxUnifiedEnd;
+            double hValue = (double) position / (double) maxUnifiedEnd;
             scrollPane.setHvalue(hValue);
             });
     }
@@ -414,13 +445,22 @@ public class GraphController extends AbstractController {
         GraphFactory<SequenceSegment> factory = FactoryProducer.getFactory();
         GraphParser parser = new DefaultGraphParser();
         graph = parser.parseGraph(vertexfile, edgefile, factory);
+        compactor = null;
+        if (Settings.getBoolean(SETTING_COMPACT)) {
+            compactor = new GraphCompactor(factory);
+            graph = compactor.compact(graph);
+        }
+
+        if (Settings.getBoolean(SETTING_KMER_INDEX)) {
+            indexMotifs(graph);
+        }
 
         collapseGraph(graph, parser.getSequences().size());
-        knownMutations = new HashMap<>();
-        mappedAnnotations = new HashMap<>();
+        knownMutations = null;
+        mappedAnnotations = null;
 
-        model = new GraphContainer(graph, reference);
-        diagram = new StackedMutationContainer(model.getBucketCache(),
+        model = new GraphContainer(graph, reference, compactor);
+        diagram = new StackedMutationContainer(model.getMutationCounts(),
                 visibleSequences);
 
         shout(Message.LOADED, "sequences", parser.getSequences());
@@ -439,8 +479,8 @@ public class GraphController extends AbstractController {
     private void insertKnownMutations(final File file) throws IOException {
         Timer timer = Timer.getAndStart();
         List<KnownMutation> mutationsList = KnownMutationParser.parseKnownMutations(file);
-        knownMutations = KnownMutationMapper.mapAnnotations(graph,
-                mutationsList, reference);
+        knownMutations = AnnotationMapping.ofKnownMutations(graph,
+                compactor, mutationsList);
 
         timer.stopAndLog("Inserting known mutations");
         shout(Message.LOADED, "known mutations", mutationsList);
@@ -448,6 +488,24 @@ public class GraphController extends AbstractController {
         repaintPosition(scrollPane.hvalueProperty().doubleValue());
     }
 
+    /**
+     * Builds the k-mer index of the graph in the background, and passes it to
+     * the other controllers once it is done. The contents are read before
+     * returning, so the graph may be collapsed afterwards.
+     *
+     * @param loaded
+     *            The graph to index.
+     */
+    private void indexMotifs(final Graph<SequenceSegment> loaded) {
+        KmerIndex.buildAsync(loaded).thenAccept(
+                index -> Platform.runLater(() -> {
+                    // a newer graph may have been loaded in the meantime.
+                    if (graph == loaded) {
+                        shout(Message.LOADED, "kmer index", index);
+                    }
+                }));
+    }
+
     /**
      * Collapses the total segments in the graph.
      * Total segments contain all sequences in the graph.
@@ -480,8 +538,8 @@ public class GraphController extends AbstractController {
         List<GeneAnnotation> annotations = GeneAnnotationParser
                 .parseGeneAnnotations(file);
         shout(Message.LOADED, "annotations", annotations);
-        mappedAnnotations = GeneAnnotationMapper.mapAnnotations(graph,
-                annotations, reference);
+        mappedAnnotations = AnnotationMapping.ofGeneAnnotations(graph,
+                compactor, annotations);
 
         timer.stopAndLog("Inserting annotations");
         repaintNow = true;
@@ -496,11 +554,11 @@ public class GraphController extends AbstractController {
         wrapper.snapshot(new SnapshotParameters(), new WritableImage(5, 5));
         if (graph != null) {
             if (model == null) {
-                model = new GraphContainer(graph, reference);
+                model = new GraphContainer(graph, reference, compactor);
             }
             if (diagram == null) {
-                diagram = new StackedMutationContainer(model.getBucketCache(),
-                        visibleSequences);
+                diagram = new StackedMutationContainer(model
+                        .getMutationCounts(), visibleSequences);
             }
 
             view = new TileView(this,
@@ -559,6 +617,7 @@ public class GraphController extends AbstractController {
         double scaledVertex = scale * VertexView.HORIZONTALSCALE;
         if (zoomLevel > zoomSwitchLevel) {
             if (currentZoomLevel != zoomLevel || repaintNow) {
+                Timer timer = Timer.getAndStart();
                 Group diagramDrawing = new Group();
                 double width = maxUnifiedEnd * scaledVertex;
                 int diagramLevel = zoomLevel - zoomSwitchLevel;
@@ -570,6 +629,7 @@ public class GraphController extends AbstractController {
 
                 currentZoomLevel = zoomLevel;
                 repaintNow = false;
+                timer.stopAndRecord("Repainting diagram");
             }
         } else {
             int[] bucketLocations = getStartandEndBucket(position);
@@ -579,6 +639,7 @@ public class GraphController extends AbstractController {
 
             if (currEndPosition != endBucket
                     && currStartPosition != startBucket || repaintNow) {
+                Timer timer = Timer.getAndStart();
                 Group graphDrawing = new Group();
                 graphDrawing.setManaged(false);
                 graphDrawing.getChildren().addAll(
@@ -592,6 +653,7 @@ public class GraphController extends AbstractController {
                 currStartPosition = startBucket;
 
                 repaintNow = false;
+                timer.stopAndRecord("Repainting graph");
             }
         }
     }
@@ -662,13 +724,74 @@ public class GraphController extends AbstractController {
      * @return Group object to be drawn on the screen
      */
     public Group drawGraph(final int startBucket, final int endBucket) {
+        Set<SequenceSegment> segments = model.getVisibleSegments(startBucket,
+                endBucket);
+
+        // only the annotations in view are mapped onto the reference.
+        long unifiedStart = Long.MAX_VALUE;
+        long unifiedEnd = Long.MIN_VALUE;
+        for (SequenceSegment segment : segments) {
+            unifiedStart = Math.min(unifiedStart, segment.getUnifiedStart());
+            unifiedEnd = Math.max(unifiedEnd, segment.getUnifiedEnd());
+        }
+        Map<SequenceSegment, List<KnownMutation>> mutationsInView = null;
+        if (knownMutations != null) {
+            mutationsInView = knownMutations.map(reference, unifiedStart,
+                    unifiedEnd);
+        }
+        Map<SequenceSegment, List<GeneAnnotation>> annotationsInView = null;
+        if (mappedAnnotations != null) {
+            annotationsInView = mappedAnnotations.map(reference, unifiedStart,
+                    unifiedEnd);
+        }
 
-        Group test = view.drawGraph(model.getVisibleSegments(startBucket,
-                endBucket), graph, knownMutations, mappedAnnotations, scale);
+        Group test = view.drawGraph(segments, graph, mutationsInView,
+                annotationsInView, scale);
 
         return test;
     }
 
+    /**
+     * Maps a bookmark onto the current reference, so its unified position is
+     * known.
+     *
+     * @param bookmark
+     *            The bookmark to map.
+     * @return whether the bookmark has a unified position.
+     */
+    private boolean resolveBookmark(final AbstractBookmark bookmark) {
+        if (bookmark instanceof KnownMutation) {
+            return knownMutations != null
+                    && knownMutations.resolve((KnownMutation) bookmark,
+                            reference);
+        }
+        if (bookmark instanceof GeneAnnotation) {
+            return mappedAnnotations != null
+                    && mappedAnnotations.resolve((GeneAnnotation) bookmark,
+                            reference);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the unified position of a resolved bookmark. Bookmarks located
+     * in an original segment are resolved through the compacted graph.
+     *
+     * @param bookmark
+     *            The resolved bookmark.
+     * @return the unified position of the bookmark.
+     */
+    private long unifiedPosition(final AbstractBookmark bookmark) {
+        if (bookmark.isLocated()) {
+            long position = model.getUnifiedPosition(bookmark
+                    .getSegmentIdentifier(), bookmark.getSegmentOffset());
+            if (position >= 0) {
+                return position;
+            }
+        }
+        return bookmark.getUnifiedPosition();
+    }
+
     /**
      * Set that this segment is selected and set those sequences visible.
      *
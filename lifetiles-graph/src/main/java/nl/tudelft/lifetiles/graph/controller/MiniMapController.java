@@ -1,7 +1,9 @@
 package nl.tudelft.lifetiles.graph.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.ScrollBar;
 import javafx.scene.control.ScrollPane;
@@ -29,7 +31,18 @@ public final class MiniMapController {
     /**
      * The graph model.
      */
-    private final GraphContainer model;
+    private GraphContainer model;
+
+    /**
+     * The stops currently drawn onto the scrollbar.
+     */
+    private List<Stop> drawnStops;
+
+    /**
+     * The stops most recently requested, stops that complete later than a
+     * newer request are not drawn.
+     */
+    private CompletableFuture<List<Stop>> requestedStops;
 
     /**
      * Create a new mini map controller.
@@ -49,11 +62,47 @@ public final class MiniMapController {
     }
 
     /**
-     * Draw the miniMap onto the horizontal scrollbar.
+     * Draw the miniMap for the visible sequences onto the horizontal
+     * scrollbar. If the stops are still being computed, the minimap is drawn
+     * once they are done.
      */
     public void drawMiniMap() {
-        Background background = getMiniMapBackground();
-        scrollBar.setBackground(background);
+        CompletableFuture<List<Stop>> stops = model.getMiniMap()
+                .getStopsAsync(model.getVisibleSequences());
+        requestedStops = stops;
+        if (stops.isDone()) {
+            drawStops(stops.join());
+        } else {
+            stops.thenAccept(result -> Platform.runLater(() -> {
+                if (stops == requestedStops) {
+                    drawStops(result);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Set the graph model to draw the minimap for.
+     *
+     * @param model
+     *            the graph model
+     */
+    public void setModel(final GraphContainer model) {
+        this.model = model;
+    }
+
+    /**
+     * Draw the stops onto the horizontal scrollbar, unless they are already
+     * drawn.
+     *
+     * @param stops
+     *            the color stops to draw
+     */
+    private void drawStops(final List<Stop> stops) {
+        if (stops != drawnStops) {
+            drawnStops = stops;
+            scrollBar.setBackground(getMiniMapBackground(stops));
+        }
     }
 
     /**
@@ -69,22 +118,25 @@ public final class MiniMapController {
     /**
      * Gets the MiniMap background gradient.
      *
+     * @param stops
+     *            the color stops of the gradient
      * @return the minimap background
      */
-    private Background getMiniMapBackground() {
+    private static Background getMiniMapBackground(final List<Stop> stops) {
         double buttonWidth = javafx.scene.text.Font.getDefault().getSize();
         Insets insets = new Insets(0.0, buttonWidth, 0.0, buttonWidth);
-        return new Background(new BackgroundFill(getGradient(), null, insets));
+        return new Background(new BackgroundFill(getGradient(stops), null,
+                insets));
     }
 
     /**
      * Get the generated linear gradient from the bucket interestingness.
      *
+     * @param stops
+     *            the color stops of the gradient
      * @return the {@link LinearGradient}.
      */
-    private LinearGradient getGradient() {
-        List<Stop> stops = model.getMiniMap().getStops();
-
+    private static LinearGradient getGradient(final List<Stop> stops) {
         LinearGradient gradient = new LinearGradient(0, 0, 1, 0, true,
                 CycleMethod.NO_CYCLE, stops);
 
@@ -0,0 +1,140 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * A variant site in the graph. All paths leaving the entry segment meet again
+ * at the exit segment and no path enters the site in between. Each distinct
+ * path between entry and exit taken by a sequence is an allele.
+ *
+ * @author agent
+ *
+ */
+public class Bubble {
+    /**
+     * The segment at which the paths split.
+     */
+    private final SequenceSegment entry;
+    /**
+     * The segment at which the paths meet again.
+     */
+    private final SequenceSegment exit;
+    /**
+     * The alleles, mapped onto the sequences taking them. An allele is the
+     * list of segments strictly between entry and exit.
+     */
+    private final Map<List<SequenceSegment>, Set<Sequence>> alleles;
+    /**
+     * The number of sequences passing through this bubble.
+     */
+    private int sequenceCount;
+
+    /**
+     * Create a new bubble.
+     *
+     * @param entry
+     *            The segment at which the paths split.
+     * @param exit
+     *            The segment at which the paths meet again.
+     */
+    public Bubble(final SequenceSegment entry, final SequenceSegment exit) {
+        this.entry = entry;
+        this.exit = exit;
+        alleles = new LinkedHashMap<>();
+    }
+
+    /**
+     * Registers the path a sequence takes through this bubble.
+     *
+     * @param sequence
+     *            The sequence.
+     * @param allele
+     *            The segments strictly between entry and exit on the path of
+     *            the sequence.
+     */
+    void addAllele(final Sequence sequence, final List<SequenceSegment> allele) {
+        alleles.computeIfAbsent(new ArrayList<>(allele), key -> new HashSet<>())
+                .add(sequence);
+        sequenceCount++;
+    }
+
+    /**
+     * @return the segment at which the paths split.
+     */
+    public SequenceSegment getEntry() {
+        return entry;
+    }
+
+    /**
+     * @return the segment at which the paths meet again.
+     */
+    public SequenceSegment getExit() {
+        return exit;
+    }
+
+    /**
+     * @return the first unified position inside this bubble.
+     */
+    public long getUnifiedStart() {
+        return entry.getUnifiedEnd();
+    }
+
+    /**
+     * @return the first unified position after this bubble.
+     */
+    public long getUnifiedEnd() {
+        return exit.getUnifiedStart();
+    }
+
+    /**
+     * @return the first reference position inside this bubble, or
+     *         {@link Long#MAX_VALUE} if the reference does not pass through
+     *         the entry.
+     */
+    public long getReferenceStart() {
+        long end = entry.getReferenceEnd();
+        if (end == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return end + 1;
+    }
+
+    /**
+     * @return the last reference position inside this bubble, smaller than the
+     *         start if the reference takes an empty allele.
+     */
+    public long getReferenceEnd() {
+        return exit.getReferenceStart() - 1;
+    }
+
+    /**
+     * @return the alleles, mapped onto the sequences taking them.
+     */
+    public Map<List<SequenceSegment>, Set<Sequence>> getAlleles() {
+        return Collections.unmodifiableMap(alleles);
+    }
+
+    /**
+     * @param allele
+     *            The allele to get the frequency for.
+     * @return the fraction of the sequences passing through this bubble that
+     *         take the allele.
+     */
+    public double getFrequency(final List<SequenceSegment> allele) {
+        Set<Sequence> sequences = alleles.get(allele);
+        if (sequences == null || sequenceCount == 0) {
+            return 0;
+        }
+        return sequences.size() / (double) sequenceCount;
+    }
+
+}
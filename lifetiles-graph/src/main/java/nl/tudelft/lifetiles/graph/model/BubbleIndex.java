@@ -0,0 +1,369 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import nl.tudelft.lifetiles.core.util.IteratorUtils;
+import nl.tudelft.lifetiles.core.util.Timer;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * Index of the variant sites in a graph. The bubbles are found in a single
+ * sweep over a topological order of the graph: a bubble opens at a segment
+ * with multiple outgoing edges and closes at the first segment which every
+ * edge leaving the bubble points to, provided no edge enters the bubble from
+ * outside. Only the outermost bubbles are indexed.
+ *
+ * The bubbles can be looked up by unified or by reference coordinate. The
+ * reference coordinates are those of the reference the graph was mapped onto
+ * when the index was built.
+ *
+ * @author agent
+ *
+ */
+public class BubbleIndex {
+    /**
+     * The bubbles, in unified order.
+     */
+    private final List<Bubble> bubbles;
+    /**
+     * The unified end positions of the bubbles, in unified order.
+     */
+    private final long[] unifiedEnds;
+    /**
+     * The bubbles, in reference order.
+     */
+    private final List<Bubble> referenceBubbles;
+    /**
+     * The reference start positions of the bubbles, in reference order.
+     */
+    private final long[] referenceStarts;
+
+    /**
+     * Build the bubble index for a graph. The unified positions of the graph
+     * must have been computed.
+     *
+     * @param graph
+     *            The graph to index.
+     */
+    public BubbleIndex(final Graph<SequenceSegment> graph) {
+        Timer timer = Timer.getAndStart();
+
+        bubbles = findBubbles(graph);
+        bubbles.sort(Comparator.comparingLong(Bubble::getUnifiedStart));
+        unifiedEnds = new long[bubbles.size()];
+        for (int index = 0; index < unifiedEnds.length; index++) {
+            unifiedEnds[index] = bubbles.get(index).getUnifiedEnd();
+        }
+
+        referenceBubbles = new ArrayList<>(bubbles);
+        referenceBubbles.sort(Comparator
+                .comparingLong(Bubble::getReferenceStart));
+        referenceStarts = new long[referenceBubbles.size()];
+        for (int index = 0; index < referenceStarts.length; index++) {
+            referenceStarts[index] = referenceBubbles.get(index)
+                    .getReferenceStart();
+        }
+
+        collectAlleles(graph);
+
+        timer.stopAndLog("Indexing bubbles");
+    }
+
+    /**
+     * Finds the outermost bubbles in the graph. Bubbles which open inside
+     * another bubble are kept open alongside it, so the bubbles nested in an
+     * outer bubble which turns out not to close are still found.
+     *
+     * @param graph
+     *            The graph to search.
+     * @return the bubbles, in topological order.
+     */
+    private static List<Bubble> findBubbles(final Graph<SequenceSegment> graph) {
+        Iterator<SequenceSegment> iterator = new BreadthFirstIterator<>(graph);
+        List<SequenceSegment> order = new ArrayList<>();
+        Map<SequenceSegment, Integer> positions = new HashMap<>();
+        for (SequenceSegment vertex : IteratorUtils.toIterable(iterator)) {
+            positions.put(vertex, order.size());
+            order.add(vertex);
+        }
+
+        List<Bubble> found = new ArrayList<>();
+        Deque<OpenBubble> open = new ArrayDeque<>();
+        for (int index = 0; index < order.size(); index++) {
+            SequenceSegment vertex = order.get(index);
+            // an edge entering from before the entry aborts the bubble.
+            int firstParent = firstParent(graph, vertex, positions);
+            while (!open.isEmpty() && firstParent < open.peek().entry) {
+                close(open);
+            }
+            while (!open.isEmpty() && index == open.peek().reach) {
+                OpenBubble closing = close(open);
+                // only the outermost bubbles are indexed.
+                found.subList(closing.found, found.size()).clear();
+                // One object per bubble found, cannot be avoided.
+                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                Bubble bubble = new Bubble(order.get(closing.entry), vertex);
+                found.add(bubble);
+            }
+
+            int lastChild = lastChild(graph, vertex, positions, order.size());
+            if (lastChild == order.size()) {
+                // a dead end inside the bubbles, they can never close.
+                open.clear();
+            } else if (!open.isEmpty()) {
+                open.peek().extend(lastChild);
+            }
+            if (graph.getOutgoing(vertex).size() > 1) {
+                // One object per bubble opened, cannot be avoided.
+                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                OpenBubble opened = new OpenBubble(index, lastChild, found
+                        .size());
+                open.push(opened);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Removes the innermost open bubble. The segments inside it are inside
+     * the enclosing bubble as well, so the enclosing bubble reaches at least
+     * as far.
+     *
+     * @param open
+     *            The open bubbles, innermost first.
+     * @return the removed bubble.
+     */
+    private static OpenBubble close(final Deque<OpenBubble> open) {
+        OpenBubble closed = open.pop();
+        if (!open.isEmpty()) {
+            open.peek().extend(closed.reach);
+        }
+        return closed;
+    }
+
+    /**
+     * @param graph
+     *            The graph containing the vertex.
+     * @param vertex
+     *            The vertex to get the first parent for.
+     * @param positions
+     *            The topological positions of the vertices.
+     * @return the lowest topological position of the parents of the vertex,
+     *         or -1 if it has none.
+     */
+    private static int firstParent(final Graph<SequenceSegment> graph,
+            final SequenceSegment vertex,
+            final Map<SequenceSegment, Integer> positions) {
+        int first = Integer.MAX_VALUE;
+        for (Edge<SequenceSegment> edge : graph.getIncoming(vertex)) {
+            first = Math.min(first, positions.get(graph.getSource(edge)));
+        }
+        if (first == Integer.MAX_VALUE) {
+            return -1;
+        }
+        return first;
+    }
+
+    /**
+     * @param graph
+     *            The graph containing the vertex.
+     * @param vertex
+     *            The vertex to get the last child for.
+     * @param positions
+     *            The topological positions of the vertices.
+     * @param size
+     *            The number of vertices in the graph.
+     * @return the highest topological position of the children of the vertex,
+     *         or size if it has none.
+     */
+    private static int lastChild(final Graph<SequenceSegment> graph,
+            final SequenceSegment vertex,
+            final Map<SequenceSegment, Integer> positions, final int size) {
+        int last = -1;
+        for (Edge<SequenceSegment> edge : graph.getOutgoing(vertex)) {
+            last = Math.max(last, positions.get(graph.getDestination(edge)));
+        }
+        if (last < 0) {
+            return size;
+        }
+        return last;
+    }
+
+    /**
+     * Follows the path of every sequence through every bubble, registering the
+     * allele each sequence takes. Each segment inside a bubble is visited once
+     * per sequence passing through it.
+     *
+     * @param graph
+     *            The indexed graph.
+     */
+    private void collectAlleles(final Graph<SequenceSegment> graph) {
+        for (Bubble bubble : bubbles) {
+            for (Sequence sequence : bubble.getEntry().getSources()) {
+                // Every allele needs its own list.
+                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                List<SequenceSegment> allele = new ArrayList<>();
+                SequenceSegment next = nextOnPath(graph, bubble.getEntry(),
+                        sequence);
+                while (next != null && !next.equals(bubble.getExit())) {
+                    allele.add(next);
+                    next = nextOnPath(graph, next, sequence);
+                }
+                if (next != null) {
+                    bubble.addAllele(sequence, allele);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param graph
+     *            The graph containing the segment.
+     * @param segment
+     *            The current segment on the path.
+     * @param sequence
+     *            The sequence to follow.
+     * @return the next segment on the path of the sequence, or null if the
+     *         path ends.
+     */
+    private static SequenceSegment nextOnPath(
+            final Graph<SequenceSegment> graph, final SequenceSegment segment,
+            final Sequence sequence) {
+        for (Edge<SequenceSegment> edge : graph.getOutgoing(segment)) {
+            SequenceSegment destination = graph.getDestination(edge);
+            if (destination.getSources().contains(sequence)) {
+                return destination;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return all bubbles, in unified order.
+     */
+    public List<Bubble> getBubbles() {
+        return Collections.unmodifiableList(bubbles);
+    }
+
+    /**
+     * @param position
+     *            A unified position.
+     * @return the bubble containing the position, or null if there is none.
+     */
+    public Bubble getBubbleAtUnified(final long position) {
+        Bubble next = getNextBubble(position);
+        if (next == null || next.getUnifiedStart() > position) {
+            return null;
+        }
+        return next;
+    }
+
+    /**
+     * Used for navigating to the next variant site.
+     *
+     * @param position
+     *            A unified position.
+     * @return the first bubble which ends after the position, or null if there
+     *         is none.
+     */
+    public Bubble getNextBubble(final long position) {
+        int index = Arrays.binarySearch(unifiedEnds, position);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // the end is exclusive, skip all bubbles ending at the position.
+            while (index < unifiedEnds.length
+                    && unifiedEnds[index] == position) {
+                index++;
+            }
+        }
+        if (index >= bubbles.size()) {
+            return null;
+        }
+        return bubbles.get(index);
+    }
+
+    /**
+     * @param position
+     *            A position on the reference.
+     * @return the bubble containing the reference position, or null if there
+     *         is none.
+     */
+    public Bubble getBubbleAtReference(final long position) {
+        int index = Arrays.binarySearch(referenceStarts, position);
+        if (index < 0) {
+            index = -index - 2;
+        } else {
+            // take the last bubble starting at the position.
+            while (index + 1 < referenceStarts.length
+                    && referenceStarts[index + 1] == position) {
+                index++;
+            }
+        }
+        if (index < 0) {
+            return null;
+        }
+        Bubble bubble = referenceBubbles.get(index);
+        if (bubble.getReferenceEnd() < position) {
+            return null;
+        }
+        return bubble;
+    }
+
+    /**
+     * A bubble which has been opened but not yet closed during the sweep.
+     *
+     * @author agent
+     *
+     */
+    private static final class OpenBubble {
+        /**
+         * The topological position of the entry segment.
+         */
+        private final int entry;
+        /**
+         * The highest topological position reached by an edge leaving a
+         * segment inside the bubble.
+         */
+        private int reach;
+        /**
+         * The number of bubbles found when this bubble was opened, the
+         * bubbles found after it are nested inside it.
+         */
+        private final int found;
+
+        /**
+         * @param entry
+         *            The topological position of the entry segment.
+         * @param reach
+         *            The highest topological position reached by the entry
+         *            segment.
+         * @param found
+         *            The number of bubbles found so far.
+         */
+        OpenBubble(final int entry, final int reach, final int found) {
+            this.entry = entry;
+            this.reach = reach;
+            this.found = found;
+        }
+
+        /**
+         * @param position
+         *            A topological position reached from inside the bubble.
+         */
+        void extend(final int position) {
+            reach = Math.max(reach, position);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package nl.tudelft.lifetiles.graph.model;
 
 import java.util.SortedSet;
+import java.util.function.Consumer;
 
 /**
  * Interface for a generic graph.
@@ -47,6 +48,17 @@ public interface Graph<V> {
      */
     SortedSet<V> getAllVertices();
 
+    /**
+     * Perform an action for every vertex, without collecting the vertices in
+     * a new set. The graph must not be modified by the action.
+     *
+     * @param action
+     *            The action to perform for every vertex.
+     */
+    default void forEachVertex(final Consumer<? super V> action) {
+        getAllVertices().forEach(action);
+    }
+
     /**
      * @param edge
      *            The edge for which the destination is to be retrieved.
@@ -0,0 +1,283 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.core.util.Timer;
+import nl.tudelft.lifetiles.sequence.model.SegmentConcatenated;
+import nl.tudelft.lifetiles.sequence.model.SegmentContent;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * Merges non-branching chains of segments with identical sources into single
+ * segments. A chain consists of segments that each have exactly one successor,
+ * which in turn has exactly one predecessor and the same sources. The content
+ * of a merged segment is only concatenated when it is requested.
+ *
+ * The compactor keeps track of which original segments were merged into which
+ * compacted segment, so annotations and bookmarks referring to original
+ * segments can still be resolved.
+ *
+ * @author agent
+ *
+ */
+public class GraphCompactor {
+
+    /**
+     * The graph factory used to produce the compacted graph.
+     */
+    private final GraphFactory<SequenceSegment> factory;
+
+    /**
+     * Maps the identifier of an original segment to the compacted segment
+     * containing it.
+     */
+    private final Map<Integer, SequenceSegment> compactedSegments;
+
+    /**
+     * Maps the identifier of an original segment to its offset in the content
+     * of the compacted segment containing it.
+     */
+    private final Map<Integer, Long> offsets;
+
+    /**
+     * Maps a compacted segment to the identifiers of the original segments it
+     * contains, in order.
+     */
+    private final Map<SequenceSegment, List<Integer>> originalIdentifiers;
+
+    /**
+     * Creates a new graph compactor.
+     *
+     * @param factory
+     *            The graph factory to use to produce the compacted graph.
+     */
+    public GraphCompactor(final GraphFactory<SequenceSegment> factory) {
+        this.factory = factory;
+        compactedSegments = new HashMap<>();
+        offsets = new HashMap<>();
+        originalIdentifiers = new HashMap<>();
+    }
+
+    /**
+     * Compacts the graph by merging the non-branching chains. Segments that are
+     * not part of a chain are reused as is. The segment lists of the sequences
+     * are updated to refer to the compacted segments.
+     *
+     * @param graph
+     *            The graph to compact.
+     * @return a new graph containing the compacted segments.
+     */
+    public Graph<SequenceSegment> compact(final Graph<SequenceSegment> graph) {
+        Timer timer = Timer.getAndStart();
+
+        Map<SequenceSegment, List<SequenceSegment>> chains = new LinkedHashMap<>();
+        for (SequenceSegment vertex : graph.getAllVertices()) {
+            if (!continuesChain(graph, vertex)) {
+                chains.put(vertex, collectChain(graph, vertex));
+            }
+        }
+
+        Graph<SequenceSegment> compacted = factory.getGraph();
+        for (List<SequenceSegment> chain : chains.values()) {
+            compacted.addVertex(mergeChain(chain));
+        }
+        for (List<SequenceSegment> chain : chains.values()) {
+            SequenceSegment tail = chain.get(chain.size() - 1);
+            for (Edge<SequenceSegment> edge : graph.getOutgoing(tail)) {
+                compacted.addEdge(getCompacted(tail.getIdentifier()),
+                        getCompacted(graph.getDestination(edge)
+                                .getIdentifier()));
+            }
+        }
+        updateSequences(graph);
+
+        timer.stopAndLog("Graph compaction");
+        return compacted;
+    }
+
+    /**
+     * Checks whether the vertex continues the chain of its only predecessor.
+     *
+     * @param graph
+     *            The graph containing the vertex.
+     * @param vertex
+     *            The vertex to check.
+     * @return true iff the vertex can be merged into its predecessor.
+     */
+    private static boolean continuesChain(final Graph<SequenceSegment> graph,
+            final SequenceSegment vertex) {
+        Set<Edge<SequenceSegment>> incoming = graph.getIncoming(vertex);
+        if (incoming.size() != 1) {
+            return false;
+        }
+        SequenceSegment predecessor = graph.getSource(incoming.iterator()
+                .next());
+        return graph.getOutgoing(predecessor).size() == 1
+                && predecessor.getSources().equals(vertex.getSources());
+    }
+
+    /**
+     * Collects the chain starting at the given vertex.
+     *
+     * @param graph
+     *            The graph containing the chain.
+     * @param head
+     *            The first vertex of the chain.
+     * @return the vertices of the chain, in order.
+     */
+    private static List<SequenceSegment> collectChain(
+            final Graph<SequenceSegment> graph, final SequenceSegment head) {
+        List<SequenceSegment> chain = new ArrayList<>();
+        SequenceSegment current = head;
+        chain.add(current);
+        Set<Edge<SequenceSegment>> outgoing = graph.getOutgoing(current);
+        while (outgoing.size() == 1) {
+            SequenceSegment next = graph.getDestination(outgoing.iterator()
+                    .next());
+            if (!continuesChain(graph, next)) {
+                break;
+            }
+            current = next;
+            chain.add(current);
+            outgoing = graph.getOutgoing(current);
+        }
+        return chain;
+    }
+
+    /**
+     * Merges a chain into a single segment and records the mapping from the
+     * original segments.
+     *
+     * @param chain
+     *            The vertices of the chain, in order.
+     * @return the merged segment, or the only vertex if the chain has length
+     *         one.
+     */
+    private SequenceSegment mergeChain(final List<SequenceSegment> chain) {
+        SequenceSegment head = chain.get(0);
+        SequenceSegment merged;
+        if (chain.size() == 1) {
+            merged = head;
+        } else {
+            List<SegmentContent> contents = new ArrayList<>(chain.size());
+            for (SequenceSegment segment : chain) {
+                contents.add(segment.getContent());
+            }
+            merged = new SequenceSegment(head.getSources(), head.getStart(),
+                    chain.get(chain.size() - 1).getEnd(),
+                    new SegmentConcatenated(contents));
+        }
+
+        List<Integer> identifiers = new ArrayList<>(chain.size());
+        long offset = 0;
+        for (SequenceSegment segment : chain) {
+            identifiers.add(segment.getIdentifier());
+            compactedSegments.put(segment.getIdentifier(), merged);
+            offsets.put(segment.getIdentifier(), offset);
+            offset += segment.getContent().getLength();
+        }
+        originalIdentifiers.put(merged, identifiers);
+        return merged;
+    }
+
+    /**
+     * Replaces the original segments in the segment lists of the sequences by
+     * the compacted segments.
+     *
+     * @param graph
+     *            The original graph.
+     */
+    private void updateSequences(final Graph<SequenceSegment> graph) {
+        Set<Sequence> sequences = new HashSet<>();
+        for (SequenceSegment vertex : graph.getAllVertices()) {
+            sequences.addAll(vertex.getSources());
+        }
+        for (Sequence sequence : sequences) {
+            List<SequenceSegment> segments = sequence.getSegments();
+            List<SequenceSegment> updated = new ArrayList<>(segments.size());
+            for (SequenceSegment segment : segments) {
+                SequenceSegment merged = compactedSegments.getOrDefault(
+                        segment.getIdentifier(), segment);
+                if (updated.isEmpty()
+                        || !updated.get(updated.size() - 1).equals(merged)) {
+                    updated.add(merged);
+                }
+            }
+            // append through the sequence, so it rebuilds its path index.
+            segments.clear();
+            for (SequenceSegment segment : updated) {
+                sequence.appendSegment(segment);
+            }
+        }
+    }
+
+    /**
+     * @param originalIdentifier
+     *            The identifier of an original segment.
+     * @return the compacted segment containing the original segment, or null
+     *         if the segment is unknown.
+     */
+    public SequenceSegment getCompacted(final int originalIdentifier) {
+        return compactedSegments.get(originalIdentifier);
+    }
+
+    /**
+     * @param originalIdentifier
+     *            The identifier of an original segment.
+     * @return the offset of the original segment in the content of the
+     *         compacted segment containing it.
+     */
+    public long getOffset(final int originalIdentifier) {
+        return offsets.getOrDefault(originalIdentifier, 0L);
+    }
+
+    /**
+     * Finds the original segment containing an offset in the content of a
+     * compacted segment.
+     *
+     * @param compacted
+     *            A compacted segment.
+     * @param offset
+     *            The offset in the content of the compacted segment.
+     * @return the identifier of the original segment containing the offset,
+     *         or the identifier of the segment itself if it was not produced
+     *         by this compactor.
+     */
+    public int getOriginalIdentifier(final SequenceSegment compacted,
+            final long offset) {
+        List<Integer> identifiers = originalIdentifiers.get(compacted);
+        if (identifiers == null) {
+            return compacted.getIdentifier();
+        }
+        // last original segment starting at or before the offset
+        int low = 1;
+        int high = identifiers.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsets.get(identifiers.get(middle)) <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return identifiers.get(low - 1);
+    }
+
+    /**
+     * @param compacted
+     *            A compacted segment.
+     * @return the identifiers of the original segments merged into the
+     *         compacted segment, in order.
+     */
+    public List<Integer> getOriginalIdentifiers(final SequenceSegment compacted) {
+        return originalIdentifiers.get(compacted);
+    }
+
+}
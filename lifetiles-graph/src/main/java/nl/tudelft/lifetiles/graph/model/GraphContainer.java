@@ -1,15 +1,17 @@
 package nl.tudelft.lifetiles.graph.model;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
-import nl.tudelft.lifetiles.core.util.SetUtils;
 import nl.tudelft.lifetiles.core.util.Settings;
 import nl.tudelft.lifetiles.core.util.Timer;
 import nl.tudelft.lifetiles.graph.traverser.EmptySegmentTraverser;
 import nl.tudelft.lifetiles.graph.traverser.MutationIndicationTraverser;
 import nl.tudelft.lifetiles.graph.traverser.ReferencePositionTraverser;
 import nl.tudelft.lifetiles.graph.traverser.UnifiedPositionTraverser;
+import nl.tudelft.lifetiles.sequence.model.Liftover;
 import nl.tudelft.lifetiles.sequence.model.Sequence;
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
@@ -41,9 +43,9 @@ public class GraphContainer {
     private final BucketCache segmentBuckets;
 
     /**
-     * The set of currently visible sequencesegments.
+     * View on the graph containing the currently visible sequencesegments.
      */
-    private Set<SequenceSegment> visibles;
+    private SubGraphView<SequenceSegment> visibleGraph;
 
     /**
      * The set of visible sequences.
@@ -55,6 +57,23 @@ public class GraphContainer {
      */
     private MiniMap miniMap;
 
+    /**
+     * The mutation quantities per sequence and bucket.
+     */
+    private SequenceMutationCounts mutationCounts;
+
+    /**
+     * The compactor which produced the graph, or null if the graph was not
+     * compacted.
+     */
+    private final GraphCompactor compactor;
+
+    /**
+     * The segments by identifier, used to resolve original identifiers when
+     * the graph was not compacted.
+     */
+    private Map<Integer, SequenceSegment> segmentsByIdentifier;
+
     /**
      * The amount of vertices to be placed in one bucket.
      */
@@ -71,7 +90,24 @@ public class GraphContainer {
      */
     public GraphContainer(final Graph<SequenceSegment> graph,
             final Sequence reference) {
+        this(graph, reference, null);
+    }
+
+    /**
+     * create a new Tile for a compacted graph.
+     *
+     * @param graph
+     *            The initial graph
+     * @param reference
+     *            Reference currently active in the graph controller.
+     * @param compactor
+     *            The compactor which produced the graph, or null if the graph
+     *            was not compacted.
+     */
+    public GraphContainer(final Graph<SequenceSegment> graph,
+            final Sequence reference, final GraphCompactor compactor) {
         this.graph = graph;
+        this.compactor = compactor;
         for (SequenceSegment segment : this.graph.getAllVertices()) {
             segment.setReferenceStart(1);
             segment.setReferenceEnd(Long.MAX_VALUE);
@@ -84,7 +120,7 @@ public class GraphContainer {
         segmentBuckets = new BucketCache(Math.max(1, graph.getAllVertices()
                 .size() / VERTICES_BUCKET), this.graph);
 
-        visibles = graph.getAllVertices();
+        visibleGraph = SubGraphView.ofSequences(graph, null);
     }
 
     /**
@@ -97,6 +133,17 @@ public class GraphContainer {
         return miniMap;
     }
 
+    /**
+     * @return the mutation quantities per sequence and bucket, counted on
+     *         first use.
+     */
+    public final SequenceMutationCounts getMutationCounts() {
+        if (mutationCounts == null) {
+            mutationCounts = new SequenceMutationCounts(segmentBuckets);
+        }
+        return mutationCounts;
+    }
+
     /**
      * Aligns the graph by calculating the unified positions of the segments
      * and if set also generates the empty segments.
@@ -131,26 +178,102 @@ public class GraphContainer {
      */
     public void setVisible(final Set<Sequence> visibleSequences) {
         Timer timer = Timer.getAndStart();
-        // Find out which vertices are visible now
-        Set<SequenceSegment> vertices = new TreeSet<SequenceSegment>();
-
-        for (SequenceSegment segment : graph.getAllVertices()) {
-            int intersectionSize;
-            if (visibleSequences == null) {
-                intersectionSize = segment.getSources().size();
-            } else {
-                intersectionSize = SetUtils.intersectionSize(segment
-                        .getSources(), visibleSequences);
-            }
-            if (intersectionSize > 0) {
-                vertices.add(segment);
-            }
-        }
-        visibles = vertices;
+        visibleGraph = SubGraphView.ofSequences(graph, visibleSequences);
         this.visibleSequences = visibleSequences;
         timer.stopAndLog("Creating visible graph");
     }
 
+    /**
+     * Creates a liftover between two sequences in the graph. The unified
+     * positions are calculated when the container is created, so any pair of
+     * sequences can be lifted without changing the reference.
+     *
+     * @param source
+     *            The sequence to lift positions from.
+     * @param target
+     *            The sequence to lift positions to.
+     * @return the liftover from source to target.
+     */
+    public Liftover getLiftover(final Sequence source, final Sequence target) {
+        return new Liftover(source, target);
+    }
+
+    /**
+     * Resolves the identifier of a segment as it was parsed, before the graph
+     * was compacted.
+     *
+     * @param originalIdentifier
+     *            The identifier of the original segment.
+     * @return the segment in the graph containing the original segment, or
+     *         null if the identifier is unknown.
+     */
+    public SequenceSegment getSegment(final int originalIdentifier) {
+        if (compactor != null) {
+            return compactor.getCompacted(originalIdentifier);
+        }
+        if (segmentsByIdentifier == null) {
+            segmentsByIdentifier = new HashMap<>();
+            for (SequenceSegment segment : graph.getAllVertices()) {
+                segmentsByIdentifier.put(segment.getIdentifier(), segment);
+            }
+        }
+        return segmentsByIdentifier.get(originalIdentifier);
+    }
+
+    /**
+     * Finds the original segment containing an offset in the content of a
+     * segment in the graph.
+     *
+     * @param segment
+     *            The segment in the graph.
+     * @param offset
+     *            The offset in the content of the segment.
+     * @return the identifier of the original segment containing the offset.
+     */
+    public int getOriginalIdentifier(final SequenceSegment segment,
+            final long offset) {
+        if (compactor == null) {
+            return segment.getIdentifier();
+        }
+        return compactor.getOriginalIdentifier(segment, offset);
+    }
+
+    /**
+     * Converts a position in an original segment into a unified position.
+     *
+     * @param originalIdentifier
+     *            The identifier of the original segment.
+     * @param offset
+     *            The offset in the content of the original segment.
+     * @return the unified position, or -1 if the identifier is unknown.
+     */
+    public long getUnifiedPosition(final int originalIdentifier,
+            final long offset) {
+        SequenceSegment segment = getSegment(originalIdentifier);
+        if (segment == null) {
+            return -1;
+        }
+        long position = segment.getUnifiedStart() + offset;
+        if (compactor != null) {
+            position += compactor.getOffset(originalIdentifier);
+        }
+        return position;
+    }
+
+    /**
+     * @return the visible sequences, <code>null</code> if all are visible.
+     */
+    public Set<Sequence> getVisibleSequences() {
+        return visibleSequences;
+    }
+
+    /**
+     * @return a view on the graph containing only the visible segments.
+     */
+    public SubGraphView<SequenceSegment> getVisibleGraph() {
+        return visibleGraph;
+    }
+
     /**
      * Get the visible segments that this model is holding.
      *
@@ -169,7 +292,7 @@ public class GraphContainer {
             copy.add(newSegment);
         }
         // Keep only the sequencesegments that are visible
-        copy.retainAll(visibles);
+        copy.removeIf(segment -> !visibleGraph.containsVertex(segment));
         // Set the sources so they only contain the visible sequences
         if (visibleSequences != null) {
             for (SequenceSegment vertex : copy) {
@@ -1,6 +1,7 @@
 package nl.tudelft.lifetiles.graph.model;
 
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import nl.tudelft.lifetiles.graph.model.jgrapht.NotAJGraphTAdapterException;
 
@@ -52,4 +53,17 @@ public interface GraphFactory<V> {
      */
     Graph<V> deepcopy(Graph<V> graph);
 
+    /**
+     * Returns a new deepcopy of the graph, using the given function to copy
+     * the vertices.
+     *
+     * @param graph
+     *            graph to create a new deepcopy from
+     * @param copier
+     *            function which returns a copy of a vertex, must be safe to
+     *            call from multiple threads.
+     * @return a deep copy of the graph
+     */
+    Graph<V> deepcopy(Graph<V> graph, UnaryOperator<V> copier);
+
 }
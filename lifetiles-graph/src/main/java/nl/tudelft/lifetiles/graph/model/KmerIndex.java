@@ -0,0 +1,580 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import nl.tudelft.lifetiles.core.util.Timer;
+import nl.tudelft.lifetiles.sequence.model.SegmentContent;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * Index of all k-mers in the contents of the segments, used to find the
+ * occurrences of a motif in the graph. K-mers which start near the end of a
+ * segment continue into the segments after it, so occurrences spanning edges
+ * are found as well.
+ *
+ * The k-mers are encoded in two bits per nucleotide. Positions holding other
+ * characters, such as runs of N, are not indexed, and k-mers running into
+ * such a character are cut off before it. Every candidate is verified
+ * against the contents, ignoring case. The
+ * occurrences are stored in primitive arrays sorted by k-mer, with a table of
+ * offsets indexed by the k-mer code itself. All k-mers starting with a motif
+ * shorter than k are therefore a single range of the arrays.
+ *
+ * The continuations of a segment are only followed along the paths of the
+ * sequences passing through it, so a segment has at most one continuation
+ * per sequence, however many variant sites follow it.
+ *
+ * @author agent
+ *
+ */
+public final class KmerIndex {
+
+    /**
+     * The length of the indexed k-mers.
+     */
+    public static final int K = 10;
+
+    /**
+     * The number of distinct k-mers.
+     */
+    private static final int NUMBER_OF_CODES = 1 << 2 * K;
+
+    /**
+     * Number of segments handled by a single task when building in parallel.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    /**
+     * The motifs which can be searched for.
+     */
+    private static final Pattern MOTIF_PATTERN = Pattern.compile("[ACGT]+");
+
+    /**
+     * The indexed segments.
+     */
+    private final SequenceSegment[] segments;
+
+    /**
+     * The contents of the indexed segments, as they were when the index was
+     * built.
+     */
+    private final SegmentContent[] contents;
+
+    /**
+     * The sequences passing through every indexed segment, as bits.
+     */
+    private final BitSet[] sources;
+
+    /**
+     * The sequence of every bit in the sources.
+     */
+    private final Sequence[] sequences;
+
+    /**
+     * The indices of the successors of every segment.
+     */
+    private final int[][] successors;
+
+    /**
+     * The first occurrence of every k-mer code, the occurrences of code
+     * <code>c</code> are stored between <code>offsets[c]</code> and
+     * <code>offsets[c + 1]</code>.
+     */
+    private final int[] offsets;
+
+    /**
+     * The segment index of every occurrence.
+     */
+    private final int[] occurrenceSegments;
+
+    /**
+     * The offset in the segment content of every occurrence.
+     */
+    private final int[] occurrencePositions;
+
+    /**
+     * Build the index for a graph.
+     *
+     * @param graph
+     *            The graph to index.
+     */
+    public KmerIndex(final Graph<SequenceSegment> graph) {
+        this(new GraphSnapshot(graph));
+    }
+
+    /**
+     * Build the index from a snapshot of a graph.
+     *
+     * @param snapshot
+     *            The snapshot to index.
+     */
+    private KmerIndex(final GraphSnapshot snapshot) {
+        Timer timer = Timer.getAndStart();
+        segments = snapshot.segments;
+        contents = snapshot.contents;
+        sources = snapshot.sources;
+        sequences = snapshot.sequences;
+        successors = snapshot.successors;
+
+        long[][] kmers = new long[segments.length][];
+        chunked(segments.length).forEach(
+                index -> kmers[index] = segmentKmers(index));
+
+        offsets = new int[NUMBER_OF_CODES + 1];
+        int total = 0;
+        for (long[] segmentKmers : kmers) {
+            for (long kmer : segmentKmers) {
+                offsets[code(kmer) + 1]++;
+            }
+            total += segmentKmers.length;
+        }
+        for (int code = 0; code < NUMBER_OF_CODES; code++) {
+            offsets[code + 1] += offsets[code];
+        }
+        occurrenceSegments = new int[total];
+        occurrencePositions = new int[total];
+        int[] cursors = new int[NUMBER_OF_CODES];
+        System.arraycopy(offsets, 0, cursors, 0, NUMBER_OF_CODES);
+        for (int index = 0; index < kmers.length; index++) {
+            for (long kmer : kmers[index]) {
+                int slot = cursors[code(kmer)]++;
+                occurrenceSegments[slot] = index;
+                occurrencePositions[slot] = position(kmer);
+            }
+        }
+        timer.stopAndLog("Building k-mer index");
+    }
+
+    /**
+     * Build the index for a graph in the background. Only the structure of
+     * the graph is read on the calling thread, so it may be changed as soon
+     * as this method returns.
+     *
+     * @param graph
+     *            The graph to index.
+     * @return a future which completes with the index.
+     */
+    public static CompletableFuture<KmerIndex> buildAsync(
+            final Graph<SequenceSegment> graph) {
+        GraphSnapshot snapshot = new GraphSnapshot(graph);
+        return CompletableFuture.supplyAsync(() -> new KmerIndex(snapshot));
+    }
+
+    /**
+     * Creates a stream over the indices in [0, size), which is parallel when
+     * there are more indices than fit in a single chunk.
+     *
+     * @param size
+     *            the number of indices
+     * @return the index stream
+     */
+    private static IntStream chunked(final int size) {
+        IntStream indices = IntStream.range(0, size);
+        if (size > CHUNK_SIZE) {
+            return indices.parallel();
+        }
+        return indices;
+    }
+
+    /**
+     * @param kmer
+     *            A packed k-mer occurrence.
+     * @return the code of the k-mer.
+     */
+    private static int code(final long kmer) {
+        return (int) (kmer >>> Integer.SIZE);
+    }
+
+    /**
+     * @param kmer
+     *            A packed k-mer occurrence.
+     * @return the position of the k-mer in the segment content.
+     */
+    private static int position(final long kmer) {
+        return (int) kmer;
+    }
+
+    /**
+     * @param code
+     *            The code of a k-mer.
+     * @param position
+     *            The position of the k-mer in the segment content.
+     * @return the packed k-mer occurrence.
+     */
+    private static long pack(final int code, final int position) {
+        return (long) code << Integer.SIZE | position;
+    }
+
+    /**
+     * @param nucleotide
+     *            The nucleotide to encode.
+     * @return the two bit code of the nucleotide, or -1 for characters other
+     *         than A, C, G and T.
+     */
+    private static int encode(final char nucleotide) {
+        switch (nucleotide) {
+        case 'A':
+        case 'a':
+            return 0;
+        case 'C':
+        case 'c':
+            return 1;
+        case 'G':
+        case 'g':
+            return 2;
+        case 'T':
+        case 't':
+            return 3;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * @param text
+     *            The text to encode.
+     * @param length
+     *            The number of characters to encode.
+     * @return the code of the first characters of the text up to the first
+     *         character other than A, C, G and T, padded as if the text
+     *         continued with A's. -1 if the text starts with such a
+     *         character.
+     */
+    private static int encode(final CharSequence text, final int length) {
+        int code = 0;
+        boolean valid = true;
+        for (int index = 0; index < length; index++) {
+            code <<= 2;
+            if (valid && index < text.length()) {
+                int nucleotide = encode(text.charAt(index));
+                if (nucleotide < 0) {
+                    if (index == 0) {
+                        return -1;
+                    }
+                    valid = false;
+                } else {
+                    code |= nucleotide;
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Reads the content of a segment. Plain contents are returned without
+     * copying, so the index does not keep a second copy of the genomes.
+     *
+     * @param index
+     *            The index of the segment.
+     * @return the content of the segment, empty for empty segments.
+     */
+    private String content(final int index) {
+        if (contents[index].isEmpty()) {
+            return "";
+        }
+        return contents[index].toString();
+    }
+
+    /**
+     * Collects the k-mers starting in a segment. K-mers which run past the end
+     * of the graph or into a character other than A, C, G and T are padded,
+     * so every position has at least one k-mer, unless it holds such a
+     * character itself.
+     *
+     * @param index
+     *            The index of the segment.
+     * @return the packed k-mer occurrences of the segment.
+     */
+    private long[] segmentKmers(final int index) {
+        String content = content(index);
+        int length = content.length();
+        int first = Math.max(0, length - K + 1);
+        long[] kmers = new long[first];
+        int count = 0;
+
+        // k-mers which lie within the segment, with a rolling code. The
+        // k-mers overlapping the last invalid character are encoded apart.
+        int mask = NUMBER_OF_CODES - 1;
+        int code = 0;
+        int invalid = -1;
+        for (int position = 0; position < length; position++) {
+            int nucleotide = encode(content.charAt(position));
+            if (nucleotide < 0) {
+                invalid = position;
+                nucleotide = 0;
+            }
+            code = (code << 2 | nucleotide) & mask;
+            int start = position - K + 1;
+            if (start < 0) {
+                continue;
+            }
+            if (position - invalid >= K) {
+                kmers[count++] = pack(code, start);
+            } else {
+                int cut = encode(content.substring(start, position + 1), K);
+                if (cut >= 0) {
+                    kmers[count++] = pack(cut, start);
+                }
+            }
+        }
+
+        // k-mers which continue into the next segments.
+        if (first < length) {
+            Set<String> tails = new HashSet<>();
+            collectTails(index, new StringBuilder(), K - 1, sources[index],
+                    tails);
+            Set<Long> spanning = new HashSet<>();
+            for (String tail : tails) {
+                for (int position = first; position < length; position++) {
+                    int window = encode(content.substring(position) + tail,
+                            K);
+                    if (window >= 0) {
+                        spanning.add(pack(window, position));
+                    }
+                }
+            }
+            kmers = Arrays.copyOf(kmers, count + spanning.size());
+            for (long kmer : spanning) {
+                kmers[count++] = kmer;
+            }
+        }
+        return kmers;
+    }
+
+    /**
+     * Collects the contents which follow a segment in the sequences passing
+     * through it, up to a number of characters.
+     *
+     * @param index
+     *            The index of the segment.
+     * @param prefix
+     *            The characters collected so far.
+     * @param needed
+     *            The number of characters to collect.
+     * @param followed
+     *            The sequences containing all segments so far.
+     * @param tails
+     *            The set to add the collected contents to.
+     */
+    private void collectTails(final int index, final StringBuilder prefix,
+            final int needed, final BitSet followed, final Set<String> tails) {
+        if (prefix.length() >= needed) {
+            tails.add(prefix.toString());
+            return;
+        }
+        boolean continued = false;
+        for (int next : successors[index]) {
+            BitSet common = (BitSet) sources[next].clone();
+            common.and(followed);
+            if (!common.isEmpty()) {
+                continued = true;
+                int before = prefix.length();
+                String content = content(next);
+                prefix.append(content, 0,
+                        Math.min(content.length(), needed - before));
+                collectTails(next, prefix, needed, common, tails);
+                prefix.setLength(before);
+            }
+        }
+        if (!continued) {
+            tails.add(prefix.toString());
+        }
+    }
+
+    /**
+     * Finds all occurrences of a motif. The motif is looked up by its first
+     * k-mer, or by all k-mers starting with it if it is shorter, and verified
+     * along the edges of the graph.
+     *
+     * @param motif
+     *            The motif to find, consisting of A, C, G and T.
+     * @return the occurrences of the motif, ordered by k-mer and segment.
+     */
+    public List<MotifMatch> find(final String motif) {
+        if (motif.isEmpty()) {
+            throw new IllegalArgumentException("Motif is empty.");
+        }
+        String query = motif.toUpperCase(Locale.ROOT);
+        if (!MOTIF_PATTERN.matcher(query).matches()) {
+            return new ArrayList<>();
+        }
+        int seedLength = Math.min(K, query.length());
+        int seed = encode(query, seedLength);
+        // all k-mers starting with the seed form a single range.
+        int shift = 2 * (K - seedLength);
+        int first = offsets[seed << shift];
+        int last = offsets[seed + 1 << shift];
+
+        Map<Long, MotifMatch> matches = new LinkedHashMap<>();
+        for (int slot = first; slot < last; slot++) {
+            int segment = occurrenceSegments[slot];
+            int position = occurrencePositions[slot];
+            long key = pack(segment, position);
+            if (!matches.containsKey(key)) {
+                BitSet found = new BitSet(sequences.length);
+                verify(segment, position, query, 0, null, found);
+                if (!found.isEmpty()) {
+                    // one match object per occurrence is needed.
+                    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                    MotifMatch match = new MotifMatch(segments[segment],
+                            position, toSequences(found));
+                    matches.put(key, match);
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Verifies an occurrence of a motif by following the edges of the graph,
+     * and collects the sequences following a matching path.
+     *
+     * @param index
+     *            The index of the current segment.
+     * @param position
+     *            The position in the content of the current segment.
+     * @param motif
+     *            The motif to verify.
+     * @param matched
+     *            The number of characters of the motif matched so far.
+     * @param followed
+     *            The sequences containing all segments so far,
+     *            <code>null</code> at the first segment.
+     * @param found
+     *            The bits to set for the sequences of a matching path.
+     */
+    private void verify(final int index, final int position,
+            final String motif, final int matched, final BitSet followed,
+            final BitSet found) {
+        BitSet common = (BitSet) sources[index].clone();
+        if (followed != null) {
+            common.and(followed);
+        }
+        if (common.isEmpty()) {
+            return;
+        }
+        String content = content(index);
+        int done = matched;
+        for (int offset = position; offset < content.length()
+                && done < motif.length(); offset++) {
+            if (Character.toUpperCase(content.charAt(offset)) != motif
+                    .charAt(done)) {
+                return;
+            }
+            done++;
+        }
+        if (done == motif.length()) {
+            found.or(common);
+            return;
+        }
+        for (int next : successors[index]) {
+            verify(next, 0, motif, done, common, found);
+        }
+    }
+
+    /**
+     * @param bits
+     *            The bits of a set of sequences.
+     * @return the sequences.
+     */
+    private Set<Sequence> toSequences(final BitSet bits) {
+        Set<Sequence> set = new HashSet<>();
+        for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits
+                .nextSetBit(bit + 1)) {
+            set.add(sequences[bit]);
+        }
+        return set;
+    }
+
+    /**
+     * @return the number of indexed k-mer occurrences.
+     */
+    public int size() {
+        return occurrenceSegments.length;
+    }
+
+    /**
+     * The structure of a graph, taken at one moment so the index can be built
+     * while the graph itself is changed. Only references to the contents are
+     * kept, the contents themselves are read while building the index.
+     *
+     * @author agent
+     *
+     */
+    private static final class GraphSnapshot {
+        /**
+         * The segments of the graph.
+         */
+        private final SequenceSegment[] segments;
+        /**
+         * The contents of the segments.
+         */
+        private final SegmentContent[] contents;
+        /**
+         * The sequences passing through every segment, as bits.
+         */
+        private final BitSet[] sources;
+        /**
+         * The sequence of every bit in the sources.
+         */
+        private final Sequence[] sequences;
+        /**
+         * The indices of the successors of every segment.
+         */
+        private final int[][] successors;
+
+        /**
+         * @param graph
+         *            The graph to take the snapshot of.
+         */
+        GraphSnapshot(final Graph<SequenceSegment> graph) {
+            segments = graph.getAllVertices().toArray(new SequenceSegment[0]);
+            contents = new SegmentContent[segments.length];
+            sources = new BitSet[segments.length];
+            Map<SequenceSegment, Integer> indices = new HashMap<>();
+            Map<Sequence, Integer> bits = new LinkedHashMap<>();
+            for (int index = 0; index < segments.length; index++) {
+                indices.put(segments[index], index);
+                contents[index] = segments[index].getContent();
+                // every segment needs its own set of bits.
+                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                BitSet segmentSources = new BitSet();
+                for (Sequence sequence : segments[index].getSources()) {
+                    Integer bit = bits.get(sequence);
+                    if (bit == null) {
+                        bit = bits.size();
+                        bits.put(sequence, bit);
+                    }
+                    segmentSources.set(bit);
+                }
+                sources[index] = segmentSources;
+            }
+            sequences = bits.keySet().toArray(new Sequence[bits.size()]);
+            successors = new int[segments.length][];
+            for (int index = 0; index < segments.length; index++) {
+                Set<Edge<SequenceSegment>> outgoing = graph
+                        .getOutgoing(segments[index]);
+                successors[index] = new int[outgoing.size()];
+                int position = 0;
+                for (Edge<SequenceSegment> edge : outgoing) {
+                    successors[index][position++] = indices.get(graph
+                            .getDestination(edge));
+                }
+            }
+        }
+    }
+
+}
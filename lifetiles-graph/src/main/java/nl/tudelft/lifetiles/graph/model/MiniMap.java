@@ -1,16 +1,28 @@
 package nl.tudelft.lifetiles.graph.model;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import javafx.scene.paint.Color;
 import javafx.scene.paint.Stop;
+import nl.tudelft.lifetiles.core.util.LruCache;
+import nl.tudelft.lifetiles.core.util.Timer;
+import nl.tudelft.lifetiles.sequence.model.SegmentContent;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
- * The model for the minimap.
+ * The model for the minimap. The interestingness of every bucket is split into
+ * contributions per sequence, so the minimap for a set of visible sequences is
+ * a sum over their contributions. The contributions are computed in the
+ * background as soon as the minimap is created, the stops for the most recent
+ * filters are cached.
  *
  * @author Joren Hammudoglu
  *
@@ -29,46 +41,72 @@ public final class MiniMap {
     private static final int MAX_SCORES = 1024;
 
     /**
-     * The interestingness scores per bucket.
+     * The number of filters for which the stops are cached.
      */
-    private List<Double> scores;
+    private static final int CACHE_SIZE = 8;
 
     /**
-     * Construct a new minimap.
+     * The interestingness contributions per sequence, computed in the
+     * background.
+     */
+    private final CompletableFuture<Contributions> contributions;
+
+    /**
+     * The color stops of the most recently used filters, keyed by the mask of
+     * the visible sequences.
+     */
+    private final LruCache<BitSet, CompletableFuture<List<Stop>>> cache;
+
+    /**
+     * Construct a new minimap. Starts computing the contributions in the
+     * background.
      *
      * @param bucketCache
      *            the {@link BucketCache} to generate the minimap from.
      */
     public MiniMap(final BucketCache bucketCache) {
-        sumBuckets(bucketCache.getBuckets());
+        // the segments are read on the calling thread, they may be changed
+        // while the contributions are computed.
+        Contributions pending = new Contributions(bucketCache.getBuckets());
+        contributions = CompletableFuture.supplyAsync(pending::compute);
+        cache = new LruCache<>(CACHE_SIZE);
     }
 
     /**
-     * @param buckets
-     *            the buckets to sum
+     * Computes the stops for the visible sequences.
+     *
+     * @param contributions
+     *            the interestingness contributions per sequence
+     * @param mask
+     *            the indices of the visible sequences
+     * @return the color stops
      */
-    private void sumBuckets(final List<Bucket> buckets) {
-        scores = buckets.stream().map(bucket -> bucket.interestingness())
-                .collect(Collectors.toList());
-        reduceNumScores();
+    private static List<Stop> computeStops(final Contributions contributions,
+            final BitSet mask) {
+        Timer timer = Timer.getAndStart();
+        double[] scores = reduceNumScores(contributions.sum(mask));
+        List<Stop> result = createStops(getColors(scores));
+        timer.stopAndLog("Computing minimap");
+        return result;
     }
 
     /**
      * Keeps halfing the number of scores until small enough.
+     *
+     * @param scores
+     *            the scores to reduce
+     * @return the reduced scores
      */
-    private void reduceNumScores() {
-        while (scores.size() > MAX_SCORES) {
-            // not an issue since this will only loop a few times
-            @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-            List<Double> newScores = new ArrayList<>(scores.size() / 2);
-
-            for (int index = 0; index < scores.size(); index += 2) {
-                double newScore = scores.get(index) + scores.get(index + 1);
-                newScores.add(newScore);
+    private static double[] reduceNumScores(final double[] scores) {
+        double[] reduced = scores;
+        while (reduced.length > MAX_SCORES) {
+            double[] newScores = new double[reduced.length / 2];
+            for (int index = 0; index < newScores.length; index++) {
+                newScores[index] = reduced[2 * index] + reduced[2 * index + 1];
             }
-
-            scores = newScores;
+            reduced = newScores;
         }
+        return reduced;
     }
 
     /**
@@ -78,71 +116,121 @@ public final class MiniMap {
      *            the score
      * @return the color
      */
-    private Color colorFromScore(final double score) {
+    private static Color colorFromScore(final double score) {
         assert score >= 0 && score <= 1;
         return Color.gray(1.0 - score);
     }
 
     /**
-     * @param collection
-     *            the collection to take the median of
-     * @return the median of the scores
+     * @param values
+     *            the values to take the median of
+     * @return the median of the values, the value at the middle index when
+     *         sorted
      */
-    private static double median(final Collection<Double> collection) {
-        List<Double> sorted = new ArrayList<>(collection);
-        Collections.sort(sorted);
-        return sorted.get(sorted.size() / 2);
+    private static double median(final double[] values) {
+        return select(values.clone(), values.length / 2);
     }
 
     /**
-     * @return the median of absolute deviations (MAD) of the scores.
+     * Selects the k-th smallest value in linear expected time. The array is
+     * partially reordered.
+     *
+     * @param values
+     *            the values to select from
+     * @param rank
+     *            the index the value would have when sorted
+     * @return the k-th smallest value
      */
-    private double scoreMAD() {
-        double median = median(scores);
-        List<Double> deviations = scores.stream()
-                .map(score -> Math.abs(score - median))
-                .collect(Collectors.toList());
-        return median(deviations);
+    private static double select(final double[] values, final int rank) {
+        int left = 0;
+        int right = values.length - 1;
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int low = left;
+            int high = right;
+            while (low <= high) {
+                while (values[low] < pivot) {
+                    low++;
+                }
+                while (values[high] > pivot) {
+                    high--;
+                }
+                if (low <= high) {
+                    double swap = values[low];
+                    values[low] = values[high];
+                    values[high] = swap;
+                    low++;
+                    high--;
+                }
+            }
+            if (rank <= high) {
+                right = high;
+            } else if (rank >= low) {
+                left = low;
+            } else {
+                return values[rank];
+            }
+        }
+        return values[rank];
     }
 
     /**
-     * Correct the scores that are bigger than the MAX_SCORE.
-     *
-     * @return the list of scores without outliers.
+     * @param scores
+     *            the scores
+     * @param median
+     *            the median of the scores
+     * @return the median of absolute deviations (MAD) of the scores.
      */
-    private List<Double> correctScoreOutliers() {
-        double median = median(scores);
-        double delta = MAX_DEVIATION * scoreMAD();
-        double boundLeft = median - delta;
-        double boundRight = median + delta;
-        return scores.parallelStream()
-                .map(score -> Math.min(boundRight, Math.max(boundLeft, score)))
-                .collect(Collectors.toList());
+    private static double scoreMAD(final double[] scores, final double median) {
+        double[] deviations = new double[scores.length];
+        for (int index = 0; index < scores.length; index++) {
+            deviations[index] = Math.abs(scores[index] - median);
+        }
+        return select(deviations, deviations.length / 2);
     }
 
     /**
-     * Get the colors for buckets.
+     * Get the colors for buckets. Scores that deviate too much from the median
+     * are clamped first.
      *
+     * @param scores
+     *            the scores
      * @return a list of colors.
      */
-    private List<Color> getColors() {
-        List<Double> newScores = correctScoreOutliers();
-        double max = Collections.max(newScores);
-        return newScores.parallelStream()
-                .map(score -> colorFromScore(score / max))
-                .collect(Collectors.toList());
+    private static List<Color> getColors(final double[] scores) {
+        double median = median(scores);
+        double delta = MAX_DEVIATION * scoreMAD(scores, median);
+        double boundLeft = median - delta;
+        double boundRight = median + delta;
+
+        double[] corrected = new double[scores.length];
+        double max = 0;
+        for (int index = 0; index < scores.length; index++) {
+            corrected[index] = Math.min(boundRight,
+                    Math.max(boundLeft, scores[index]));
+            max = Math.max(max, corrected[index]);
+        }
+
+        List<Color> colors = new ArrayList<>(corrected.length);
+        for (double score : corrected) {
+            if (max > 0) {
+                colors.add(colorFromScore(score / max));
+            } else {
+                colors.add(colorFromScore(0));
+            }
+        }
+        return colors;
     }
 
     /**
-     * Get the color stops.
-     *
-     * @return an array of {@link Stop}
+     * @param colors
+     *            the colors of the buckets
+     * @return the color stops
      */
-    public List<Stop> getStops() {
-        List<Color> colors = getColors();
+    private static List<Stop> createStops(final List<Color> colors) {
         int numColors = colors.size();
 
-        List<Stop> stops = new ArrayList<>();
+        List<Stop> result = new ArrayList<>();
         for (int index = 0; index < colors.size(); index++) {
             double correction = (double) index / (double) numColors;
             double offset = (double) (index + correction) / (double) numColors;
@@ -151,10 +239,207 @@ public final class MiniMap {
             // case
             @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
             Stop stop = new Stop(offset, colors.get(index));
-            stops.add(stop);
+            result.add(stop);
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the color stops for all sequences, waiting for the background
+     * computation if it has not finished yet.
+     *
+     * @return an array of {@link Stop}
+     */
+    public List<Stop> getStops() {
+        return getStopsAsync((Set<Sequence>) null).join();
+    }
+
+    /**
+     * Get the color stops for the visible sequences without blocking.
+     *
+     * @param visibleSequences
+     *            the visible sequences, <code>null</code> if all are visible.
+     * @return a future which completes with the color stops.
+     */
+    public CompletableFuture<List<Stop>> getStopsAsync(
+            final Set<Sequence> visibleSequences) {
+        if (contributions.isDone()) {
+            return getStopsAsync(contributions.join().mask(visibleSequences));
+        }
+        return contributions.thenCompose(result -> getStopsAsync(result
+                .mask(visibleSequences)));
+    }
+
+    /**
+     * Get the color stops for an arbitrary mask of visible sequences without
+     * blocking. The stops are cached for the most recently used masks.
+     *
+     * @param mask
+     *            the indices of the visible sequences, in the order in which
+     *            the sequences were first encountered in the buckets.
+     * @return a future which completes with the color stops.
+     */
+    public CompletableFuture<List<Stop>> getStopsAsync(final BitSet mask) {
+        synchronized (cache) {
+            return cache.computeIfAbsent((BitSet) mask.clone(),
+                    key -> contributions.thenApplyAsync(result -> computeStops(
+                            result, key)));
+        }
+    }
+
+    /**
+     * The interestingness contributions of every sequence to every bucket.
+     * The interestingness of a segment is shared equally by its sources.
+     *
+     * @author agent
+     *
+     */
+    private static final class Contributions {
+        /**
+         * The index of the column of each sequence.
+         */
+        private final Map<Sequence, Integer> sequenceIndices;
+        /**
+         * The number of buckets.
+         */
+        private final int numberBuckets;
+        /**
+         * The indices of the segments in each bucket.
+         */
+        private final int[][] bucketIndices;
+        /**
+         * The indices of the sources of each segment.
+         */
+        private final int[][] segmentSources;
+        /**
+         * The content of each segment, as it was when the segments were read.
+         */
+        private final SegmentContent[] contents;
+        /**
+         * The contributions, one column per sequence. The contribution of
+         * sequence <code>s</code> to bucket <code>b</code> is stored at
+         * <code>s * numberBuckets + b</code>.
+         */
+        private final double[] values;
+
+        /**
+         * Reads the segments in the buckets. Only the indices of the sources
+         * and the contents of the segments are kept, so the contributions can
+         * be computed on another thread while the segments change.
+         *
+         * @param buckets
+         *            the buckets to compute the contributions for
+         */
+        Contributions(final List<Bucket> buckets) {
+            numberBuckets = buckets.size();
+            sequenceIndices = new HashMap<>();
+            Map<SequenceSegment, Integer> indices = new HashMap<>();
+            List<SequenceSegment> segments = new ArrayList<>();
+            bucketIndices = new int[numberBuckets][];
+            for (int bucket = 0; bucket < numberBuckets; bucket++) {
+                bucketIndices[bucket] = new int[buckets.get(bucket).size()];
+                int position = 0;
+                for (SequenceSegment segment : buckets.get(bucket)) {
+                    Integer index = indices.get(segment);
+                    if (index == null) {
+                        index = segments.size();
+                        indices.put(segment, index);
+                        segments.add(segment);
+                    }
+                    bucketIndices[bucket][position++] = index;
+                }
+            }
+
+            segmentSources = new int[segments.size()][];
+            contents = new SegmentContent[segments.size()];
+            for (int index = 0; index < segmentSources.length; index++) {
+                Set<Sequence> sources = segments.get(index).getSources();
+                segmentSources[index] = new int[sources.size()];
+                int position = 0;
+                for (Sequence sequence : sources) {
+                    sequenceIndices.putIfAbsent(sequence,
+                            sequenceIndices.size());
+                    segmentSources[index][position++] = sequenceIndices
+                            .get(sequence);
+                }
+                contents[index] = segments.get(index).getContent();
+            }
+            values = new double[sequenceIndices.size() * numberBuckets];
+        }
+
+        /**
+         * Computes the interestingness of every segment once and distributes
+         * it over the buckets and sources. Segments spanning multiple buckets
+         * are only scored once.
+         *
+         * @return these contributions, once computed.
+         */
+        Contributions compute() {
+            Timer timer = Timer.getAndStart();
+            double[] shares = new double[contents.length];
+            IntStream.range(0, shares.length).parallel().forEach(index -> {
+                int sources = segmentSources[index].length;
+                if (sources > 0) {
+                    shares[index] = SequenceSegment.interestingness(
+                            contents[index], sources) / sources;
+                }
+            });
+
+            // every bucket writes only to its own rows, so no locking is
+            // needed.
+            IntStream.range(0, numberBuckets).parallel().forEach(bucket -> {
+                for (int index : bucketIndices[bucket]) {
+                    for (int sequence : segmentSources[index]) {
+                        values[sequence * numberBuckets + bucket] +=
+                                shares[index];
+                    }
+                }
+            });
+            timer.stopAndLog("Computing minimap contributions");
+            return this;
         }
 
-        return stops;
+        /**
+         * @param visibleSequences
+         *            the visible sequences, <code>null</code> if all are
+         *            visible.
+         * @return the mask containing the indices of the visible sequences.
+         */
+        BitSet mask(final Set<Sequence> visibleSequences) {
+            BitSet mask = new BitSet(sequenceIndices.size());
+            if (visibleSequences == null) {
+                mask.set(0, sequenceIndices.size());
+            } else {
+                for (Sequence sequence : visibleSequences) {
+                    Integer index = sequenceIndices.get(sequence);
+                    if (index != null) {
+                        mask.set(index);
+                    }
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * @param mask
+         *            the indices of the visible sequences
+         * @return the interestingness scores per bucket of the visible
+         *         sequences.
+         */
+        double[] sum(final BitSet mask) {
+            int[] columns = mask.stream()
+                    .filter(index -> index < sequenceIndices.size()).toArray();
+            double[] scores = new double[numberBuckets];
+            IntStream.range(0, numberBuckets).parallel().forEach(bucket -> {
+                double sum = 0;
+                for (int column : columns) {
+                    sum += values[column * numberBuckets + bucket];
+                }
+                scores[bucket] = sum;
+            });
+            return scores;
+        }
     }
 
 }
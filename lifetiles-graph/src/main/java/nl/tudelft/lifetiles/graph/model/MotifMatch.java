@@ -0,0 +1,101 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * An occurrence of a motif in the graph. The occurrence starts in a segment
+ * and may continue into the segments after it.
+ *
+ * @author agent
+ *
+ */
+public final class MotifMatch {
+
+    /**
+     * The segment in which the occurrence starts.
+     */
+    private final SequenceSegment segment;
+
+    /**
+     * The offset of the occurrence in the content of the segment.
+     */
+    private final long offset;
+
+    /**
+     * The sequences containing the occurrence.
+     */
+    private final Set<Sequence> sequences;
+
+    /**
+     * Create a new motif match.
+     *
+     * @param segment
+     *            The segment in which the occurrence starts.
+     * @param offset
+     *            The offset of the occurrence in the content of the segment.
+     * @param sequences
+     *            The sequences containing the occurrence.
+     */
+    public MotifMatch(final SequenceSegment segment, final long offset,
+            final Set<Sequence> sequences) {
+        this.segment = segment;
+        this.offset = offset;
+        this.sequences = sequences;
+    }
+
+    /**
+     * @return the segment in which the occurrence starts.
+     */
+    public SequenceSegment getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return the offset of the occurrence in the content of the segment.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the sequences containing the occurrence.
+     */
+    public Set<Sequence> getSequences() {
+        return Collections.unmodifiableSet(sequences);
+    }
+
+    /**
+     * @return the sequence with the lowest identifier among the sequences
+     *         containing the occurrence.
+     */
+    public Sequence getFirstSequence() {
+        return Collections.min(sequences,
+                Comparator.comparing(Sequence::getIdentifier));
+    }
+
+    /**
+     * @param sequence
+     *            The sequence to find the position in.
+     * @return the position in the genome of the sequence at which the
+     *         occurrence starts, or -1 if the sequence does not contain it.
+     */
+    public long getGenomePosition(final Sequence sequence) {
+        if (!sequences.contains(sequence)) {
+            return -1;
+        }
+        return sequence.getPathIndex().toGenome(getUnifiedPosition());
+    }
+
+    /**
+     * @return the unified position at which the occurrence starts.
+     */
+    public long getUnifiedPosition() {
+        return segment.getUnifiedStart() + offset;
+    }
+
+}
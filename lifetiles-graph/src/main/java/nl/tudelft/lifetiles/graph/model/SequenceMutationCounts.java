@@ -0,0 +1,203 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import nl.tudelft.lifetiles.core.util.Timer;
+import nl.tudelft.lifetiles.sequence.Mutation;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * The mutation quantities of every bucket, counted per sequence. The counts
+ * are stored in one array with a contiguous column per sequence, so the
+ * quantities for any set of visible sequences are a sum over their columns
+ * and do not depend on the size of the graph.
+ *
+ * The counts depend on the mutations found for the current reference, so they
+ * must be recounted whenever the reference changes.
+ *
+ * @author agent
+ *
+ */
+public class SequenceMutationCounts {
+
+    /**
+     * The number of values counted per bucket.
+     */
+    static final int NUMBER_OF_VALUES = 4;
+
+    /**
+     * Mapping value of the insertion mutation.
+     */
+    static final int INSERTION_MAP = 1;
+
+    /**
+     * Mapping value of the deletion mutation.
+     */
+    static final int DELETION_MAP = 2;
+
+    /**
+     * Mapping value of the polymorphism mutation.
+     */
+    static final int POLYMORPHISM_MAP = 3;
+
+    /**
+     * Number of values handled by a single task when summing in parallel.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * The index of the column of each sequence.
+     */
+    private final Map<Sequence, Integer> sequenceIndices;
+
+    /**
+     * The length of a single column, the number of buckets times the number
+     * of values.
+     */
+    private final int columnLength;
+
+    /**
+     * The counts, one column per sequence. The count of value
+     * <code>v</code> in bucket <code>b</code> for sequence <code>s</code> is
+     * stored at <code>s * columnLength + b * NUMBER_OF_VALUES + v</code>. A
+     * count is at most the length of the genome of its sequence, so it fits
+     * in an int.
+     */
+    private final int[] counts;
+
+    /**
+     * Count the mutations in every bucket per sequence.
+     *
+     * @param buckets
+     *            The buckets to count.
+     */
+    public SequenceMutationCounts(final BucketCache buckets) {
+        Timer timer = Timer.getAndStart();
+        List<Bucket> bucketList = buckets.getBuckets();
+        sequenceIndices = new HashMap<>();
+        for (Bucket bucket : bucketList) {
+            for (SequenceSegment segment : bucket) {
+                for (Sequence sequence : segment.getSources()) {
+                    sequenceIndices.putIfAbsent(sequence,
+                            sequenceIndices.size());
+                }
+            }
+        }
+        columnLength = bucketList.size() * NUMBER_OF_VALUES;
+        counts = new int[sequenceIndices.size() * columnLength];
+
+        // every bucket writes only to its own rows, so no locking is needed.
+        chunked(bucketList.size()).forEach(
+                index -> countBucket(bucketList.get(index), index
+                        * NUMBER_OF_VALUES));
+        timer.stopAndLog("Counting mutations per sequence");
+    }
+
+    /**
+     * Counts the mutations in a single bucket.
+     *
+     * @param bucket
+     *            The bucket to count.
+     * @param offset
+     *            The offset of the bucket within each column.
+     */
+    private void countBucket(final Set<SequenceSegment> bucket,
+            final int offset) {
+        for (SequenceSegment segment : bucket) {
+            int length = (int) segment.getContent().getLength();
+            int index = mutationIndex(segment.getMutation());
+            for (Sequence sequence : segment.getSources()) {
+                int start = sequenceIndices.get(sequence) * columnLength
+                        + offset;
+                counts[start] += length;
+                if (index > 0) {
+                    counts[start + index] += length;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param mutation
+     *            The mutation to map.
+     * @return the index of the mutation within a bucket, or 0 if the mutation
+     *         is not counted separately.
+     */
+    private static int mutationIndex(final Mutation mutation) {
+        if (mutation == null) {
+            return 0;
+        }
+        switch (mutation) {
+        case INSERTION:
+            return INSERTION_MAP;
+        case DELETION:
+            return DELETION_MAP;
+        case POLYMORPHISM:
+            return POLYMORPHISM_MAP;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Sums the counts of the visible sequences.
+     *
+     * @param visibleSequences
+     *            The visible sequences, <code>null</code> if all are visible.
+     * @return the summed counts, {@link #NUMBER_OF_VALUES} values per bucket.
+     */
+    public long[] sum(final Set<Sequence> visibleSequences) {
+        int[] columns = visibleColumns(visibleSequences);
+        long[] sum = new long[columnLength];
+        chunked(columnLength).forEach(index -> {
+            long total = 0;
+            for (int column : columns) {
+                total += counts[column * columnLength + index];
+            }
+            sum[index] = total;
+        });
+        return sum;
+    }
+
+    /**
+     * @param visibleSequences
+     *            The visible sequences, <code>null</code> if all are visible.
+     * @return the indices of the columns of the visible sequences.
+     */
+    private int[] visibleColumns(final Set<Sequence> visibleSequences) {
+        if (visibleSequences == null) {
+            return IntStream.range(0, sequenceIndices.size()).toArray();
+        }
+        return visibleSequences.stream().filter(sequenceIndices::containsKey)
+                .mapToInt(sequenceIndices::get).toArray();
+    }
+
+    /**
+     * @return the number of buckets counted.
+     */
+    public int getNumberBuckets() {
+        return columnLength / NUMBER_OF_VALUES;
+    }
+
+    /**
+     * Creates a stream over the indices in [0, size), which is parallel when
+     * there are more indices than fit in a single chunk.
+     *
+     * @param size
+     *            the number of indices
+     * @return the index stream
+     */
+    private static IntStream chunked(final int size) {
+        IntStream indices = IntStream.range(0, size);
+        if (size > CHUNK_SIZE) {
+            return indices.parallel();
+        }
+        return indices;
+    }
+
+}
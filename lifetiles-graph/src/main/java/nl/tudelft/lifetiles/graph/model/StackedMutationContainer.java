@@ -1,20 +1,24 @@
 package nl.tudelft.lifetiles.graph.model;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
-import nl.tudelft.lifetiles.core.util.SetUtils;
-import nl.tudelft.lifetiles.sequence.Mutation;
+import nl.tudelft.lifetiles.core.util.Timer;
 import nl.tudelft.lifetiles.sequence.model.Sequence;
-import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 /**
  * Container including the stacks with the mutation quantity used for drawing
  * the stacked mutation quantity diagram.
  *
+ * The quantities of all levels are stored in one pyramid of flat arrays, level
+ * one holds a column per bucket and every next level merges pairs of columns
+ * of the level below. The containers of the different levels are views on the
+ * same pyramid.
+ *
  * @author Jos
  *
  */
@@ -23,25 +27,36 @@ public class StackedMutationContainer {
     /**
      * Mapping value of the insertion mutation.
      */
-    private static final Integer INSERTION_MAP = 1;
+    private static final int INSERTION_MAP =
+            SequenceMutationCounts.INSERTION_MAP;
 
     /**
      * Mapping value of the deletion mutation.
      */
-    private static final Integer DELETION_MAP = 2;
+    private static final int DELETION_MAP =
+            SequenceMutationCounts.DELETION_MAP;
 
     /**
      * Mapping value of the polymorphism mutation.
      */
-    private static final Integer POLYMORPHISM_MAP = 3;
+    private static final int POLYMORPHISM_MAP =
+            SequenceMutationCounts.POLYMORPHISM_MAP;
 
     /**
      * The number of values being counted by the stacked mutation container.
      */
-    private static final int NUMBER_OF_VALUES = 4;
+    private static final int NUMBER_OF_VALUES =
+            SequenceMutationCounts.NUMBER_OF_VALUES;
 
     /**
-     * List with the stacked quantity of mutations.
+     * Number of values handled by a single task when building in parallel.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Pyramid with the stacked quantity of mutations, indexed by level minus
+     * one. Each level is a flat array containing {@link #NUMBER_OF_VALUES}
+     * values per column:
      * <dl>
      * <dt>[0]</dt>
      * <dd>total bases.</dd>
@@ -53,19 +68,23 @@ public class StackedMutationContainer {
      * <dd>polymorphism bases.</dd>
      * </dl>
      */
-    private List<List<Long>> stackedMutations;
+    private final long[][] pyramid;
 
     /**
-     * Child StackedMutationContainer, one level below this stacked mutation
-     * container.
+     * The maximum number of mutations in one of the columns, per level.
      */
-    private StackedMutationContainer child;
+    private final long[] maxMutations;
 
     /**
      * Zoom/layer level of this stacked mutation container. Level corresponds to
      * number of columns inversed.
      */
-    private int level;
+    private final int level;
+
+    /**
+     * Map from level to stacked container, created on first use.
+     */
+    private Map<Integer, StackedMutationContainer> levels;
 
     /**
      * Public constructor for stacked mutation container. Will construct the
@@ -80,194 +99,235 @@ public class StackedMutationContainer {
      */
     public StackedMutationContainer(final BucketCache buckets,
             final Set<Sequence> visibleSequences) {
-        this.level = (int) Math.round(Math.log(buckets.getNumberBuckets())
-                / Math.log(2) + 1);
-        fillStackedMutationContainer(this.level, buckets, visibleSequences);
+        this(new SequenceMutationCounts(buckets), visibleSequences);
     }
 
     /**
-     * Private constructor for stacked mutation container. Will construct the
-     * stacked mutation container based on the given level by the parent stacked
-     * mutation container.
+     * Public constructor for stacked mutation container. Will construct the
+     * stacked mutation container from the precounted mutations of the visible
+     * sequences, which does not depend on the size of the graph.
      *
-     * @param level
-     *            The level of this stacked mutation container.
-     * @param buckets
-     *            The bucketCache to insert into this stackedMutationContainer.
+     * @param counts
+     *            The mutation quantities per sequence.
      * @param visibleSequences
      *            The visible sequences in the graph controller.
      */
-    private StackedMutationContainer(final int level,
-            final BucketCache buckets, final Set<Sequence> visibleSequences) {
-        this.level = level;
-        fillStackedMutationContainer(this.level, buckets, visibleSequences);
+    public StackedMutationContainer(final SequenceMutationCounts counts,
+            final Set<Sequence> visibleSequences) {
+        Timer timer = Timer.getAndStart();
+        this.level = (int) Math.round(Math.log(counts.getNumberBuckets())
+                / Math.log(2) + 1);
+        pyramid = new long[level][];
+        pyramid[0] = counts.sum(visibleSequences);
+        for (int index = 1; index < level; index++) {
+            pyramid[index] = mergeColumns(pyramid[index - 1]);
+        }
+        maxMutations = new long[level];
+        for (int index = 0; index < level; index++) {
+            maxMutations[index] = computeMaxMutations(pyramid[index]);
+        }
+        timer.stopAndLog("Building stacked mutation diagram");
     }
 
     /**
-     * Fills this stacked mutation container with the bucketCache or the child
-     * stacked mutation container based on the level given.
+     * Private constructor for stacked mutation container. Creates a view on
+     * the given level of the pyramid of the parent stacked mutation container.
      *
+     * @param pyramid
+     *            The pyramid shared by all levels.
+     * @param maxMutations
+     *            The maximum number of mutations per level.
      * @param level
-     *            Level of this stacked mutation container.
-     * @param buckets
-     *            BucketCache to be inserted into this stacked mutation
-     *            container.
-     * @param visibleSequences
-     *            The visible sequences in the graph.
+     *            The level of this stacked mutation container.
      */
-    private void fillStackedMutationContainer(final int level,
-            final BucketCache buckets, final Set<Sequence> visibleSequences) {
+    private StackedMutationContainer(final long[][] pyramid,
+            final long[] maxMutations, final int level) {
+        this.pyramid = pyramid;
+        this.maxMutations = maxMutations;
         this.level = level;
-        stackedMutations = new ArrayList<>();
-        if (this.level <= 1) {
-            child = null;
-            insertBuckets(buckets, visibleSequences);
-        } else {
-            child = new StackedMutationContainer(level - 1, buckets,
-                    visibleSequences);
-            insertStackedMutationContainers(child);
-        }
     }
 
     /**
-     * Insert the child stacked Mutation Container. Merges the layer of the
-     * child.
+     * Merges each pair of columns of a level into one column of the level
+     * above.
      *
-     * @param containers
-     *            The child stacked mutation container.
+     * @param below
+     *            The mutation quantities of the level below.
+     * @return the merged mutation quantities.
      */
-    private void insertStackedMutationContainers(
-            final StackedMutationContainer containers) {
-        for (int index = 0; index < containers.getStack().size() / 2; index++) {
-            stackedMutations.add(insertStackedContainer(containers.getStack()
-                    .get(2 * index), containers.getStack().get(2 * index + 1)));
-        }
+    private static long[] mergeColumns(final long[] below) {
+        int columns = below.length / NUMBER_OF_VALUES / 2;
+        long[] merged = new long[columns * NUMBER_OF_VALUES];
+        chunked(merged.length).forEach(index -> {
+            int left = index / NUMBER_OF_VALUES * 2 * NUMBER_OF_VALUES
+                    + index % NUMBER_OF_VALUES;
+            merged[index] = below[left] + below[left + NUMBER_OF_VALUES];
+        });
+        return merged;
     }
 
     /**
-     * Insert two sections of the child stacked Mutation Container into one
-     * section of the stacked Mutation Container.
+     * @param columns
+     *            The mutation quantities of a level.
+     * @return the maximum number of mutations in one of the columns.
+     */
+    private static long computeMaxMutations(final long[] columns) {
+        return chunked(columns.length / NUMBER_OF_VALUES).mapToLong(
+                column -> {
+                    int offset = column * NUMBER_OF_VALUES;
+                    return columns[offset + INSERTION_MAP]
+                            + columns[offset + DELETION_MAP]
+                            + columns[offset + POLYMORPHISM_MAP];
+                }).max().orElse(0);
+    }
+
+    /**
+     * Creates a stream over the indices in [0, size), which is parallel when
+     * there are more indices than fit in a single chunk.
      *
-     * @param left
-     *            Left section of the child stacked mutation container.
-     * @param right
-     *            Right section of the child stacked mutation container.
-     * @return merged section for this stacked mutation container.
+     * @param size
+     *            the number of indices
+     * @return the index stream
      */
-    private List<Long> insertStackedContainer(final List<Long> left,
-            final List<Long> right) {
-        List<Long> stack = new ArrayList<>(left.size());
-        for (int index = 0; index < left.size(); index++) {
-            stack.add(left.get(index) + right.get(index));
+    private static IntStream chunked(final int size) {
+        IntStream indices = IntStream.range(0, size);
+        if (size > CHUNK_SIZE) {
+            return indices.parallel();
         }
-        return stack;
+        return indices;
     }
 
     /**
-     * Returns all columns in the stacked mutation diagram.
+     * Returns all columns in the stacked mutation diagram. The columns are a
+     * read-only view on the underlying array.
      *
      * @return all columns in the stacked mutation diagram.
      */
     public List<List<Long>> getStack() {
-        return stackedMutations;
+        return new Columns(pyramid[level - 1]);
     }
 
     /**
-     * Insert the buckets into the mutation quantity list.
+     * Return the maximum number of mutations in one of the stacks.
      *
-     * @param buckets
-     *            BucketCache which needs to be added to the stacked mutation
-     *            container.
-     * @param visibleSequences
-     *            The visible sequences in the graph.
+     * @return the maximum number of mutations in one of the stacks.
      */
-    private void insertBuckets(final BucketCache buckets,
-            final Set<Sequence> visibleSequences) {
-        for (Set<SequenceSegment> bucket : buckets.getBuckets()) {
-            stackedMutations.add(insertBucket(bucket, visibleSequences));
-        }
+    public Long getMaxMutations() {
+        return maxMutations[level - 1];
     }
 
     /**
-     * Insert the bucket into the mutation quantity list.
+     * Returns a map from level to stacked container.
      *
-     * @param bucket
-     *            Bucket from bucketCache which needs to be added to the stacked
-     *            mutation container.
-     * @param visibleSequences
-     *            The visible sequences in the graph.
-     * @return stacked mutation quantity list for this bucket.
+     * @return map from level to stacked container.
      */
-    private List<Long> insertBucket(final Set<SequenceSegment> bucket,
-            final Set<Sequence> visibleSequences) {
-        List<Long> list = new ArrayList<>(NUMBER_OF_VALUES);
-        for (int index = 0; index < NUMBER_OF_VALUES; index++) {
-            list.add((long) 0);
-        }
-
-        Map<Mutation, Integer> mutations = new HashMap<>(
-                Mutation.values().length);
-        mutations.put(Mutation.INSERTION, INSERTION_MAP);
-        mutations.put(Mutation.DELETION, DELETION_MAP);
-        mutations.put(Mutation.POLYMORPHISM, POLYMORPHISM_MAP);
-
-        for (SequenceSegment segment : bucket) {
-            int sourceSize;
-            if (visibleSequences == null) {
-                sourceSize = segment.getSources().size();
-            } else {
-                sourceSize = SetUtils.intersectionSize(segment.getSources(),
-                        visibleSequences);
-            }
-
-            long size = segment.getContent().getLength() * sourceSize;
-            if (mutations.containsKey(segment.getMutation())) {
-                int index = mutations.get(segment.getMutation());
-                list.set(index, list.get(index) + size);
+    public Map<Integer, StackedMutationContainer> mapLevelStackedMutation() {
+        if (levels == null) {
+            levels = new HashMap<>();
+            for (int index = 1; index < level; index++) {
+                // Views are cheap, one per level.
+                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+                StackedMutationContainer view = new StackedMutationContainer(
+                        pyramid, maxMutations, index);
+                levels.put(index, view);
             }
-            list.set(0, list.get(0) + size);
+            levels.put(level, this);
         }
-        return list;
+        return levels;
     }
 
     /**
-     * Return the maximum number of mutations in one of the stacks.
-     *
-     * @return the maximum number of mutations in one of the stacks.
+     * @return the level
      */
-    public Long getMaxMutations() {
-        long max = 0;
-        for (List<Long> stack : stackedMutations) {
-            max = Math.max(
-                    max,
-                    stack.get(INSERTION_MAP) + stack.get(DELETION_MAP)
-                            + stack.get(POLYMORPHISM_MAP));
-        }
-        return max;
+    public int getLevel() {
+        return level;
     }
 
     /**
-     * Returns a map from level to stacked container.
+     * Read-only view on the columns of a level.
+     *
+     * @author agent
      *
-     * @return map from level to stacked container.
      */
-    public Map<Integer, StackedMutationContainer> mapLevelStackedMutation() {
-        Map<Integer, StackedMutationContainer> map;
-        if (child == null) {
-            map = new HashMap<>();
-        } else {
-            map = child.mapLevelStackedMutation();
+    private static final class Columns extends AbstractList<List<Long>> {
+        /**
+         * The mutation quantities of the level.
+         */
+        private final long[] columns;
+
+        /**
+         * @param columns
+         *            The mutation quantities of the level.
+         */
+        Columns(final long[] columns) {
+            this.columns = columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Long> get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Column: " + index);
+            }
+            return new Column(columns, index * NUMBER_OF_VALUES);
         }
-        map.put(getLevel(), this);
-        return map;
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return columns.length / NUMBER_OF_VALUES;
+        }
     }
 
     /**
-     * @return the level
+     * Read-only view on a single column of a level.
+     *
+     * @author agent
+     *
      */
-    public int getLevel() {
-        return level;
+    private static final class Column extends AbstractList<Long> {
+        /**
+         * The mutation quantities of the level.
+         */
+        private final long[] columns;
+        /**
+         * The offset of this column in the array.
+         */
+        private final int offset;
+
+        /**
+         * @param columns
+         *            The mutation quantities of the level.
+         * @param offset
+         *            The offset of this column in the array.
+         */
+        Column(final long[] columns, final int offset) {
+            this.columns = columns;
+            this.offset = offset;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Long get(final int index) {
+            if (index < 0 || index >= NUMBER_OF_VALUES) {
+                throw new IndexOutOfBoundsException("Value: " + index);
+            }
+            return columns[offset + index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return NUMBER_OF_VALUES;
+        }
     }
 
 }
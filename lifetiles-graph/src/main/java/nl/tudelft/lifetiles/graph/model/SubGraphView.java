@@ -0,0 +1,456 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+/**
+ * A read-only view on a subset of the vertices of a graph. The subset is
+ * defined by a bitmask over the vertex indices, adjacency queries are
+ * forwarded to the base graph and filtered by the mask. Nothing is copied, so
+ * creating a view is as cheap as creating the mask. The sets returned by a
+ * view are live, read-only views on the sets of the base graph, which are
+ * filtered while they are iterated.
+ *
+ * @author agent
+ *
+ * @param <V>
+ *            The type of vertex to use.
+ */
+public class SubGraphView<V> implements Graph<V> {
+    /**
+     * The graph this is a view on.
+     */
+    private final Graph<V> base;
+    /**
+     * Function which maps a vertex onto its index in the mask.
+     */
+    private final ToIntFunction<V> indexer;
+    /**
+     * The mask containing the indices of the visible vertices.
+     */
+    private final BitSet mask;
+    /**
+     * The visible vertices that have no visible incoming edges, computed on
+     * first use.
+     */
+    private SortedSet<V> sources;
+    /**
+     * The visible vertices that have no visible outgoing edges, computed on
+     * first use.
+     */
+    private SortedSet<V> sinks;
+
+    /**
+     * Create a new view on a graph.
+     *
+     * @param base
+     *            The graph to create a view on.
+     * @param indexer
+     *            Function which maps a vertex onto its index in the mask.
+     * @param mask
+     *            The mask containing the indices of the visible vertices.
+     */
+    public SubGraphView(final Graph<V> base, final ToIntFunction<V> indexer,
+            final BitSet mask) {
+        this.base = base;
+        this.indexer = indexer;
+        this.mask = mask;
+    }
+
+    /**
+     * Create a view containing only the segments that are part of at least one
+     * of the visible sequences.
+     *
+     * @param base
+     *            The graph to create a view on.
+     * @param visibleSequences
+     *            The visible sequences, <code>null</code> to include all
+     *            segments.
+     * @return a view on the segments of the visible sequences.
+     */
+    public static SubGraphView<SequenceSegment> ofSequences(
+            final Graph<SequenceSegment> base,
+            final Set<Sequence> visibleSequences) {
+        BitSet mask = new BitSet();
+        base.forEachVertex(segment -> {
+            if (isVisible(segment, visibleSequences)) {
+                mask.set(segment.getIdentifier());
+            }
+        });
+        return new SubGraphView<>(base, SequenceSegment::getIdentifier, mask);
+    }
+
+    /**
+     * @param segment
+     *            The segment to check.
+     * @param visibleSequences
+     *            The visible sequences, <code>null</code> if all are visible.
+     * @return true iff one of the sources of the segment is visible.
+     */
+    private static boolean isVisible(final SequenceSegment segment,
+            final Set<Sequence> visibleSequences) {
+        if (visibleSequences == null) {
+            return !segment.getSources().isEmpty();
+        }
+        for (Sequence sequence : segment.getSources()) {
+            if (visibleSequences.contains(sequence)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param vertex
+     *            The vertex to check.
+     * @return true iff the vertex is part of this view.
+     */
+    public boolean containsVertex(final V vertex) {
+        return mask.get(indexer.applyAsInt(vertex));
+    }
+
+    /**
+     * @return the graph this is a view on.
+     */
+    public Graph<V> getBase() {
+        return base;
+    }
+
+    /**
+     * Views are read-only.
+     *
+     * @param source
+     *            Id of the source vertex.
+     * @param destination
+     *            Id of the destination vertex.
+     */
+    @Override
+    public void addEdge(final int source, final int destination) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    /**
+     * Views are read-only.
+     *
+     * @param source
+     *            The source vertex.
+     * @param destination
+     *            The destination vertex.
+     * @return nothing, always throws.
+     */
+    @Override
+    public boolean addEdge(final V source, final V destination) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    /**
+     * Views are read-only.
+     *
+     * @param vertex
+     *            The object to use as vertex.
+     */
+    @Override
+    public void addVertex(final V vertex) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<Edge<V>> getAllEdges() {
+        return new FilteredSortedSet<>(base.getAllEdges(), this::containsEdge);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<V> getAllVertices() {
+        return new FilteredSortedSet<>(base.getAllVertices(),
+                this::containsVertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachVertex(final Consumer<? super V> action) {
+        base.forEachVertex(vertex -> {
+            if (containsVertex(vertex)) {
+                action.accept(vertex);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V getDestination(final Edge<V> edge) {
+        return base.getDestination(edge);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<Edge<V>> getIncoming(final V vertex) {
+        return new FilteredSortedSet<>(base.getIncoming(vertex),
+                edge -> containsVertex(base.getSource(edge)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<Edge<V>> getOutgoing(final V vertex) {
+        return new FilteredSortedSet<>(base.getOutgoing(vertex),
+                edge -> containsVertex(base.getDestination(edge)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<V> getSources() {
+        if (sources == null) {
+            SortedSet<V> found = new TreeSet<>();
+            forEachVertex(vertex -> {
+                if (getIncoming(vertex).isEmpty()) {
+                    found.add(vertex);
+                }
+            });
+            sources = found;
+        }
+        return sources;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V getSource(final Edge<V> edge) {
+        return base.getSource(edge);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SortedSet<V> getSinks() {
+        if (sinks == null) {
+            SortedSet<V> found = new TreeSet<>();
+            forEachVertex(vertex -> {
+                if (getOutgoing(vertex).isEmpty()) {
+                    found.add(vertex);
+                }
+            });
+            sinks = found;
+        }
+        return sinks;
+    }
+
+    /**
+     * Views are read-only.
+     *
+     * @param edge
+     *            Edge to be divided.
+     * @param vertex
+     *            Vertex to be inserted.
+     */
+    @Override
+    public void splitEdge(final Edge<V> edge, final V vertex) {
+        throw new UnsupportedOperationException("Graph views are read-only.");
+    }
+
+    /**
+     * @param edge
+     *            The edge to check.
+     * @return true iff both ends of the edge are part of this view.
+     */
+    private boolean containsEdge(final Edge<V> edge) {
+        return containsVertex(base.getSource(edge))
+                && containsVertex(base.getDestination(edge));
+    }
+
+    /**
+     * A read-only view on the elements of a sorted set which match a filter.
+     * Nothing is copied, the filter is applied while iterating.
+     *
+     * @author agent
+     *
+     * @param <E>
+     *            The type of element.
+     */
+    private static final class FilteredSortedSet<E> extends AbstractSet<E>
+            implements SortedSet<E> {
+        /**
+         * The set this is a view on.
+         */
+        private final SortedSet<E> source;
+        /**
+         * The filter the elements in the view match.
+         */
+        private final Predicate<? super E> filter;
+
+        /**
+         * @param source
+         *            The set this is a view on.
+         * @param filter
+         *            The filter the elements in the view match.
+         */
+        FilteredSortedSet(final SortedSet<E> source,
+                final Predicate<? super E> filter) {
+            super();
+            this.source = source;
+            this.filter = filter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<E> elements = source.iterator();
+            return new Iterator<E>() {
+                /**
+                 * The next matching element, if there is one.
+                 */
+                private E next;
+                /**
+                 * Whether {@link #next} holds the next matching element.
+                 */
+                private boolean found;
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public boolean hasNext() {
+                    while (!found && elements.hasNext()) {
+                        next = elements.next();
+                        found = filter.test(next);
+                    }
+                    return found;
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    found = false;
+                    return next;
+                }
+            };
+        }
+
+        /**
+         * Counts the matching elements, which takes linear time.
+         *
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            int size = 0;
+            Iterator<E> elements = iterator();
+            while (elements.hasNext()) {
+                elements.next();
+                size++;
+            }
+            return size;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean contains(final Object object) {
+            // the source only contains elements of type E.
+            @SuppressWarnings("unchecked")
+            boolean matches = source.contains(object)
+                    && filter.test((E) object);
+            return matches;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Comparator<? super E> comparator() {
+            return source.comparator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<E> subSet(final E fromElement, final E toElement) {
+            return new FilteredSortedSet<>(source.subSet(fromElement,
+                    toElement), filter);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<E> headSet(final E toElement) {
+            return new FilteredSortedSet<>(source.headSet(toElement), filter);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public SortedSet<E> tailSet(final E fromElement) {
+            return new FilteredSortedSet<>(source.tailSet(fromElement),
+                    filter);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E first() {
+            return iterator().next();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public E last() {
+            Iterator<E> elements = iterator();
+            E last = elements.next();
+            while (elements.hasNext()) {
+                last = elements.next();
+            }
+            return last;
+        }
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import nl.tudelft.lifetiles.graph.model.Edge;
 import nl.tudelft.lifetiles.graph.model.Graph;
@@ -76,6 +77,55 @@ public class JGraphTGraphAdapter<V extends Comparable<V>> implements Graph<V> {
         vertexIdentifiers = vertexIds;
     }
 
+    /**
+     * Creates a new Graph from id-indexed vertices and edges in bulk. Edge
+     * <code>i</code> runs from <code>vertices.get(edgeSources[i])</code> to
+     * <code>vertices.get(edgeDestinations[i])</code>. Sources and sinks are
+     * computed once from the degrees instead of being updated per edge.
+     *
+     * @param edgeFact
+     *            The edgefactory to use for this graph.
+     * @param vertices
+     *            The vertices, in identifier order.
+     * @param edgeSources
+     *            The identifiers of the edge sources.
+     * @param edgeDestinations
+     *            The identifiers of the edge destinations.
+     */
+    protected JGraphTGraphAdapter(final JGraphTEdgeFactory<V> edgeFact,
+            final List<V> vertices, final int[] edgeSources,
+            final int[] edgeDestinations) {
+        assert edgeSources.length == edgeDestinations.length;
+        internalGraph = new SimpleDirectedGraph<V, DefaultEdge>(
+                DefaultEdge.class);
+        this.edgeFact = edgeFact;
+        vertexIdentifiers = new ArrayList<>(vertices);
+
+        for (V vertex : vertexIdentifiers) {
+            internalGraph.addVertex(vertex);
+        }
+
+        boolean[] hasIncoming = new boolean[vertexIdentifiers.size()];
+        boolean[] hasOutgoing = new boolean[vertexIdentifiers.size()];
+        for (int index = 0; index < edgeSources.length; index++) {
+            internalGraph.addEdge(vertexIdentifiers.get(edgeSources[index]),
+                    vertexIdentifiers.get(edgeDestinations[index]));
+            hasOutgoing[edgeSources[index]] = true;
+            hasIncoming[edgeDestinations[index]] = true;
+        }
+
+        sources = new TreeSet<>();
+        sinks = new TreeSet<>();
+        for (int index = 0; index < vertexIdentifiers.size(); index++) {
+            if (!hasIncoming[index]) {
+                sources.add(vertexIdentifiers.get(index));
+            }
+            if (!hasOutgoing[index]) {
+                sinks.add(vertexIdentifiers.get(index));
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -161,6 +211,14 @@ public class JGraphTGraphAdapter<V extends Comparable<V>> implements Graph<V> {
         return new TreeSet<V>(internalGraph.vertexSet());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachVertex(final Consumer<? super V> action) {
+        internalGraph.vertexSet().forEach(action);
+    }
+
     /**
      * @param edge
      *            The edge to use.
@@ -200,7 +258,7 @@ public class JGraphTGraphAdapter<V extends Comparable<V>> implements Graph<V> {
             SortedSet<V> foundSources = new TreeSet<V>();
 
             for (V vertice : getAllVertices()) {
-                if (!getIncoming(vertice).isEmpty()) {
+                if (getIncoming(vertice).isEmpty()) {
                     foundSources.add(vertice);
                 }
             }
@@ -246,7 +304,7 @@ public class JGraphTGraphAdapter<V extends Comparable<V>> implements Graph<V> {
             SortedSet<V> foundSinks = new TreeSet<V>();
 
             for (V vertice : getAllVertices()) {
-                if (!getOutgoing(vertice).isEmpty()) {
+                if (getOutgoing(vertice).isEmpty()) {
                     foundSinks.add(vertice);
                 }
             }
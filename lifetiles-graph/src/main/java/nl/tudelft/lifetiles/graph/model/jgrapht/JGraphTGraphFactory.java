@@ -1,16 +1,23 @@
 package nl.tudelft.lifetiles.graph.model.jgrapht;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
-import nl.tudelft.lifetiles.core.util.Logging;
 import nl.tudelft.lifetiles.graph.model.Edge;
 import nl.tudelft.lifetiles.graph.model.Graph;
 import nl.tudelft.lifetiles.graph.model.GraphFactory;
 
+import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.DirectedSubgraph;
 
@@ -22,16 +29,28 @@ import org.jgrapht.graph.DirectedSubgraph;
  */
 public class JGraphTGraphFactory<V extends Comparable<V>> implements
         GraphFactory<V> {
+    /**
+     * Number of vertices or edges handled by a single task when copying in
+     * parallel.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
     /**
      * The edgefactory associated with this graph factory.
      */
     private final JGraphTEdgeFactory<V> edgeFact;
 
+    /**
+     * Copy constructors of the vertex classes, looked up once per class.
+     */
+    private final Map<Class<?>, MethodHandle> copyConstructors;
+
     /**
      * Create a new graph factory.
      */
     public JGraphTGraphFactory() {
         edgeFact = new JGraphTEdgeFactory<>();
+        copyConstructors = new ConcurrentHashMap<>();
     }
 
     /**
@@ -70,61 +89,157 @@ public class JGraphTGraphFactory<V extends Comparable<V>> implements
     }
 
     /**
+     * Deepcopy using the copy constructor of the vertex class. The
+     * constructor is looked up once per class, use
+     * {@link #deepcopy(Graph, UnaryOperator)} to avoid reflection altogether.
+     *
      * {@inheritDoc}
      */
     @Override
     public Graph<V> deepcopy(final Graph<V> graph) {
-        Graph<V> copygraph = new JGraphTGraphAdapter<V>(edgeFact);
-
-        Map<Object, Object> convertVertices = new HashMap<Object, Object>();
-
-        for (V vertex : graph.getAllVertices()) {
-            try {
-                Constructor<?> method = vertex.getClass().getConstructor(
-                        vertex.getClass());
-
-                Object copy = method.newInstance(vertex);
-                // can't not be a V, so no need to explicitly check.
-                @SuppressWarnings("unchecked")
-                V newVertex = (V) copy;
-                copygraph.addVertex(newVertex);
-                convertVertices.put(vertex, copy);
-            } catch (NoSuchMethodException | SecurityException
-                    | IllegalAccessException | IllegalArgumentException
-                    | InvocationTargetException | InstantiationException exception) {
-
-                Logging.exception(exception);
+        return deepcopy(graph, this::copyVertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Graph<V> deepcopy(final Graph<V> graph, final UnaryOperator<V> copier) {
+        return copyGraph(graph, copier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Graph<V> copy(final Graph<V> graph) {
+        return copyGraph(graph, UnaryOperator.identity());
+    }
+
+    /**
+     * Copies a graph by assigning each vertex an index, copying the vertices
+     * into an array and translating the edges into index pairs. The index of
+     * a vertex is its identifier in the original graph. The vertices are
+     * copied in parallel chunks for large graphs. The new graph is then built
+     * in one go.
+     *
+     * @param graph
+     *            graph to be copied
+     * @param copier
+     *            function to copy a single vertex
+     * @return copy of the graph.
+     */
+    private Graph<V> copyGraph(final Graph<V> graph,
+            final UnaryOperator<V> copier) {
+        DirectedGraph<V, DefaultEdge> internal = null;
+        List<V> originals;
+        if (graph instanceof JGraphTGraphAdapter) {
+            JGraphTGraphAdapter<V> adapter = (JGraphTGraphAdapter<V>) graph;
+            internal = adapter.getInternalGraph();
+            // copy in identifier order, so the copy keeps the vertex ids.
+            // subgraphs share the identifiers of their base graph.
+            Set<V> present = internal.vertexSet();
+            originals = new ArrayList<>(present.size());
+            for (V vertex : adapter.getVertexIdentifiers()) {
+                if (present.contains(vertex)) {
+                    originals.add(vertex);
+                }
             }
+        } else {
+            originals = new ArrayList<>(graph.getAllVertices());
         }
 
-        for (Edge<V> edge : graph.getAllEdges()) {
-            Object from = convertVertices.get(graph.getSource(edge));
-            Object destination = convertVertices
-                    .get(graph.getDestination(edge));
-            @SuppressWarnings("unchecked")
-            V fromVertex = (V) from;
-            @SuppressWarnings("unchecked")
-            V destinationVertex = (V) destination;
-            copygraph.addEdge(fromVertex, destinationVertex);
+        Map<V, Integer> identifiers = new HashMap<>(originals.size() * 2);
+        for (int index = 0; index < originals.size(); index++) {
+            identifiers.put(originals.get(index), index);
         }
 
-        return copygraph;
+        // setting distinct indices of an ArrayList is safe across threads.
+        List<V> copies = new ArrayList<>(Collections.nCopies(
+                originals.size(), null));
+        chunked(copies.size()).forEach(index -> {
+            copies.set(index, copier.apply(originals.get(index)));
+        });
+
+        int[] edgeSources;
+        int[] edgeDestinations;
+        int position = 0;
+        if (internal == null) {
+            Set<Edge<V>> edges = graph.getAllEdges();
+            edgeSources = new int[edges.size()];
+            edgeDestinations = new int[edges.size()];
+            for (Edge<V> edge : edges) {
+                edgeSources[position] = identifiers.get(graph.getSource(edge));
+                edgeDestinations[position++] = identifiers.get(graph
+                        .getDestination(edge));
+            }
+        } else {
+            Set<DefaultEdge> edges = internal.edgeSet();
+            edgeSources = new int[edges.size()];
+            edgeDestinations = new int[edges.size()];
+            for (DefaultEdge edge : edges) {
+                edgeSources[position] = identifiers.get(internal
+                        .getEdgeSource(edge));
+                edgeDestinations[position++] = identifiers.get(internal
+                        .getEdgeTarget(edge));
+            }
+        }
+
+        return new JGraphTGraphAdapter<V>(edgeFact, copies, edgeSources,
+                edgeDestinations);
     }
 
     /**
-     * {@inheritDoc}
+     * Creates a stream over the indices in [0, size), which is parallel when
+     * there are more indices than fit in a single chunk.
+     *
+     * @param size
+     *            the number of indices
+     * @return the index stream
      */
-    @Override
-    public Graph<V> copy(final Graph<V> graph) {
-        Graph<V> copyGraph = new JGraphTGraphAdapter<V>(edgeFact);
-        for (V vertex : graph.getAllVertices()) {
-            copyGraph.addVertex(vertex);
+    private static IntStream chunked(final int size) {
+        IntStream indices = IntStream.range(0, size);
+        if (size > CHUNK_SIZE) {
+            return indices.parallel();
         }
-        for (Edge<V> edge : graph.getAllEdges()) {
-            copyGraph
-                    .addEdge(graph.getSource(edge), graph.getDestination(edge));
+        return indices;
+    }
+
+    /**
+     * Copies a vertex using the copy constructor of its class.
+     *
+     * @param vertex
+     *            the vertex to copy
+     * @return the copy of the vertex
+     */
+    private V copyVertex(final V vertex) {
+        MethodHandle constructor = copyConstructors.computeIfAbsent(
+                vertex.getClass(), JGraphTGraphFactory::findCopyConstructor);
+        try {
+            // can't not be a V, so no need to explicitly check.
+            @SuppressWarnings("unchecked")
+            V copy = (V) constructor.invoke(vertex);
+            return copy;
+            // invoke is declared to throw Throwable.
+        } catch (Throwable exception) { // NOPMD
+            throw new IllegalArgumentException("Unable to copy " + vertex,
+                    exception);
+        }
+    }
+
+    /**
+     * @param type
+     *            the class to find the copy constructor for
+     * @return a handle to the copy constructor
+     */
+    private static MethodHandle findCopyConstructor(final Class<?> type) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(type,
+                    MethodType.methodType(void.class, type));
+        } catch (NoSuchMethodException | IllegalAccessException exception) {
+            throw new IllegalArgumentException(type
+                    + " has no public copy constructor.", exception);
         }
-        return copyGraph;
     }
 
 }
@@ -238,8 +238,7 @@ public class TileView {
 
         if (knownMutations != null) {
             for (KnownMutation knownMutation : knownMutations) {
-                long segmentPosition = knownMutation.getGenomePosition()
-                        - segment.getStart();
+                long segmentPosition = knownMutation.getMappingOffset();
                 // Loop is intended to create these..
                 @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
                 Bookmark bookmark = new Bookmark(vertex, knownMutation,
@@ -0,0 +1,159 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.graph.model.FactoryProducer;
+import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.graph.model.GraphCompactor;
+import nl.tudelft.lifetiles.graph.traverser.UnifiedPositionTraverser;
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationMappingTest {
+    Sequence reference, other;
+    Set<Sequence> s1, s2;
+    SequenceSegment v1, v2, v3;
+    Graph<SequenceSegment> gr;
+    KnownMutation r1, r2, r3;
+    GeneAnnotation g1, g2;
+
+    @Before
+    public void setUp() {
+        reference = new DefaultSequence("reference");
+        other = new DefaultSequence("other");
+        s1 = new HashSet<Sequence>(Arrays.asList(reference));
+        s2 = new HashSet<Sequence>(Arrays.asList(reference, other));
+
+        v1 = new SequenceSegment(s2, 1, 11, new SegmentString("AAAAAAAAAA"));
+        v2 = new SequenceSegment(s1, 11, 21, new SegmentString("AAAAAAAAAA"));
+        v3 = new SequenceSegment(s2, 21, 31, new SegmentString("AAAAAAAAAA"));
+        gr = FactoryProducer.<SequenceSegment> getFactory().getGraph();
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addEdge(v1, v2);
+        gr.addEdge(v2, v3);
+        UnifiedPositionTraverser.unifyGraph(gr);
+
+        r1 = new KnownMutation(null, null, null, null, 5, null);
+        r2 = new KnownMutation(null, null, null, null, 15, null);
+        r3 = new KnownMutation(null, null, null, null, 25, null);
+        g1 = new GeneAnnotation(5, 15, "g1");
+        g2 = new GeneAnnotation(22, 24, "g2");
+    }
+
+    @Test
+    public void mapInViewTest() {
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, Arrays.asList(r3, r2, r1));
+        Map<SequenceSegment, List<KnownMutation>> mapped = mapping.map(
+                reference, 11, 20);
+        assertEquals(1, mapped.size());
+        assertEquals(Arrays.asList(r2), mapped.get(v2));
+        assertEquals(1, mapping.countResolved(reference));
+    }
+
+    @Test
+    public void mapMemoisedTest() {
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, Arrays.asList(r1, r2, r3));
+        mapping.map(reference, 1, 10);
+        Map<SequenceSegment, List<KnownMutation>> mapped = mapping.map(
+                reference, 21, 30);
+        assertEquals(2, mapped.size());
+        assertEquals(2, mapping.countResolved(reference));
+        mapping.map(reference, 1, 30);
+        assertEquals(3, mapping.countResolved(reference));
+        assertEquals(1, mapping.map(reference, 1, 30).get(v1).size());
+        assertEquals(0, mapping.countResolved(other));
+    }
+
+    @Test
+    public void mapSwitchReferenceTest() {
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, Arrays.asList(r1, r2, r3));
+        mapping.map(reference, 1, 30);
+        assertEquals(15, r2.getUnifiedPosition());
+        // the other sequence skips v2, so its position 15 lies in v3.
+        mapping.map(other, 1, 30);
+        assertEquals(25, r2.getUnifiedPosition());
+        Map<SequenceSegment, List<KnownMutation>> mapped = mapping.map(
+                reference, 1, 30);
+        assertEquals(Arrays.asList(r2), mapped.get(v2));
+        assertEquals(15, r2.getUnifiedPosition());
+        assertEquals(4, r2.getMappingOffset());
+    }
+
+    @Test
+    public void mapGeneOverlapTest() {
+        AnnotationMapping<GeneAnnotation> mapping = AnnotationMapping
+                .ofGeneAnnotations(gr, Arrays.asList(g1, g2));
+        Map<SequenceSegment, List<GeneAnnotation>> mapped = mapping.map(
+                reference, 12, 13);
+        assertEquals(2, mapped.size());
+        assertEquals(Arrays.asList(g1), mapped.get(v1));
+        assertEquals(Arrays.asList(g1), mapped.get(v2));
+        assertEquals(1, mapping.countResolved(reference));
+    }
+
+    @Test
+    public void resolveTest() {
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, Arrays.asList(r1, r2, r3));
+        assertTrue(mapping.resolve(r3, reference));
+        assertEquals(25, r3.getUnifiedPosition());
+        // the other sequence skips v2, so its position 15 lies in v3.
+        assertTrue(mapping.resolve(r2, other));
+        assertEquals(25, r2.getUnifiedPosition());
+        assertFalse(mapping.resolve(r3, other));
+    }
+
+    @Test
+    public void resolveLocatesTest() {
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, Arrays.asList(r1, r2, r3));
+        assertFalse(r2.isLocated());
+        assertTrue(mapping.resolve(r2, reference));
+        assertEquals(v2.getIdentifier(), r2.getSegmentIdentifier());
+        assertEquals(4, r2.getSegmentOffset());
+    }
+
+    @Test
+    public void resolveCompactedTest() {
+        SequenceSegment w1 = new SequenceSegment(s1, 1, 11, new SegmentString(
+                "AAAAAAAAAA"));
+        SequenceSegment w2 = new SequenceSegment(s1, 11, 21,
+                new SegmentString("CCCCCCCCCC"));
+        gr = FactoryProducer.<SequenceSegment> getFactory().getGraph();
+        gr.addVertex(w1);
+        gr.addVertex(w2);
+        gr.addEdge(w1, w2);
+        GraphCompactor compactor = new GraphCompactor(FactoryProducer
+                .getFactory());
+        gr = compactor.compact(gr);
+        UnifiedPositionTraverser.unifyGraph(gr);
+
+        AnnotationMapping<KnownMutation> mapping = AnnotationMapping
+                .ofKnownMutations(gr, compactor, Arrays.asList(r1, r2));
+        assertTrue(mapping.resolve(r2, reference));
+        assertEquals(w2.getIdentifier(), r2.getSegmentIdentifier());
+        assertEquals(4, r2.getSegmentOffset());
+        assertTrue(mapping.resolve(r1, reference));
+        assertEquals(w1.getIdentifier(), r1.getSegmentIdentifier());
+        assertEquals(4, r1.getSegmentOffset());
+    }
+
+}
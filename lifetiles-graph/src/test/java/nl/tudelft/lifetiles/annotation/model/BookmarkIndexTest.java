@@ -0,0 +1,58 @@
+package nl.tudelft.lifetiles.annotation.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BookmarkIndexTest {
+    KnownMutation m1, m2, m3;
+    GeneAnnotation g1;
+    BookmarkIndex index;
+
+    @Before
+    public void setUp() {
+        m1 = new KnownMutation("rpoB", "SNP", "S450L", "PASS", 1,
+                "Rifampicin");
+        m2 = new KnownMutation("katG", "SNP", "S315T", "PASS", 2, "Isoniazid");
+        m3 = new KnownMutation("embB", "INS", "M306V", "PASS", 3,
+                "Ethambutol");
+        g1 = new GeneAnnotation(1, 10, "rpoB2");
+        index = new BookmarkIndex(Arrays.asList(m1, m2, m3, g1));
+    }
+
+    @Test
+    public void emptyQueryTest() {
+        assertEquals(Arrays.asList(m1, m2, m3, g1), index.search("  "));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void exactBeforePrefixTest() {
+        assertEquals(Arrays.asList(m1, g1), index.search("rpob"));
+        assertEquals(Arrays.asList(m1, g1), index.search("RPO"));
+    }
+
+    @Test
+    public void infixTest() {
+        assertEquals(Arrays.asList(m2), index.search("niazid"));
+        assertEquals(Arrays.asList(m1), index.search("ampicin"));
+    }
+
+    @Test
+    public void allWordsMatchTest() {
+        assertEquals(Arrays.asList(m1), index.search("snp rifampicin"));
+        assertEquals(Arrays.asList(m1, m2), index.search("snp"));
+        assertTrue(index.search("ins isoniazid").isEmpty());
+    }
+
+    @Test
+    public void noMatchTest() {
+        assertTrue(index.search("xyz").isEmpty());
+        assertTrue(index.search("zz").isEmpty());
+    }
+
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -44,11 +45,10 @@ public class GeneAnnotationMapperTest {
     @Before
     public void setUp() throws Exception {
         gf = FactoryProducer.getFactory("JGraphT");
-        v1 = new SequenceSegment(s1, 1, 10001, new SegmentString("AAAAAAAAAA"));
-        v2 = new SequenceSegment(s1, 10001, 20001, new SegmentString(
-                "AAAAAAAAAA"));
-        v3 = new SequenceSegment(s1, 20001, 30001, new SegmentString(
-                "AAAAAAAAAA"));
+        // the genome positions on the path follow from the content lengths.
+        v1 = new SequenceSegment(s1, 1, 10001, content(10000));
+        v2 = new SequenceSegment(s1, 10001, 20001, content(10000));
+        v3 = new SequenceSegment(s1, 20001, 30001, content(10000));
         gr = gf.getGraph();
 
         gr.addVertex(v1);
@@ -65,6 +65,12 @@ public class GeneAnnotationMapperTest {
         genomes = GeneAnnotationParser.parseGeneAnnotations(genomesFile);
     }
 
+    private static SegmentString content(final int length) {
+        char[] content = new char[length];
+        Arrays.fill(content, 'A');
+        return new SegmentString(new String(content));
+    }
+
     @Test
     public void mapAnnotationsTest() throws URISyntaxException, IOException {
         File genomeFile = new File(this.getClass()
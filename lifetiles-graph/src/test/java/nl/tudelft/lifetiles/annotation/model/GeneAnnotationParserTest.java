@@ -1,6 +1,8 @@
 package nl.tudelft.lifetiles.annotation.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.util.List;
@@ -11,6 +13,7 @@ import org.junit.Test;
 public class GeneAnnotationParserTest {
     static final String testGenomesFilename = "/data/test_annotations/simple_annotations.gff";
     static final String testGenomeFilename = "/data/test_annotations/simple_annotation.gff";
+    static final String testGffFilename = "/data/test_annotations/gff3_annotations.gff";
     private List<GeneAnnotation> genomes;
     private List<GeneAnnotation> genome;
 
@@ -37,4 +40,38 @@ public class GeneAnnotationParserTest {
         assertEquals(1, gene.getGenomePosition());
         assertEquals(1000, gene.getGenomeEndPosition());
     }
+
+    @Test
+    public void parseDirectivesTest() throws Exception {
+        File gffFile = new File(this.getClass().getResource(testGffFilename)
+                .toURI());
+        List<GffFeature> features = GeneAnnotationParser.parseFeatures(gffFile);
+        assertEquals(3, features.size());
+        assertEquals("CDS", features.get(1).getType());
+        assertEquals(300, features.get(2).getStart());
+        assertEquals(400, features.get(2).getEnd());
+        assertSame(features.get(0).getSeqid(), features.get(2).getSeqid());
+        assertSame(features.get(0).getType(), features.get(2).getType());
+    }
+
+    @Test
+    public void parseAttributesTest() throws Exception {
+        File gffFile = new File(this.getClass().getResource(testGffFilename)
+                .toURI());
+        List<GffFeature> features = GeneAnnotationParser.parseFeatures(gffFile);
+        assertEquals("abc;def", features.get(0).getAttribute("Name"));
+        assertEquals("gene1", features.get(1).getAttribute("Parent"));
+        assertNull(features.get(1).getAttribute("Name"));
+        assertNull(features.get(2).getAttribute("ID"));
+    }
+
+    @Test
+    public void parseUnnamedTest() throws Exception {
+        File gffFile = new File(this.getClass().getResource(testGffFilename)
+                .toURI());
+        List<GeneAnnotation> annotations = GeneAnnotationParser
+                .parseGeneAnnotations(gffFile);
+        assertEquals(3, annotations.size());
+        assertEquals("", annotations.get(2).getName());
+    }
 }
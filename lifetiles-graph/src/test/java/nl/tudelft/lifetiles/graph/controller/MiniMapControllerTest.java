@@ -51,6 +51,10 @@ public class MiniMapControllerTest {
         GraphContainer model = new GraphContainer(graph, new DefaultSequence(
                 "reference"));
 
+        // wait for the background computation so the minimap is drawn
+        // immediately.
+        model.getMiniMap().getStops();
+
         scrollPane = new ScrollPane();
         controller = new MiniMapController(scrollPane, model);
     }
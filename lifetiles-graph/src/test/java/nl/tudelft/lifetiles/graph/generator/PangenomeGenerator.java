@@ -0,0 +1,795 @@
+package nl.tudelft.lifetiles.graph.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates a data set of strains descending from a common phylogeny, in the
+ * files LifeTiles opens: a <code>.node.graph</code> and
+ * <code>.edge.graph</code>, a <code>.nwk</code> tree, a <code>.gff</code>
+ * with genes on the reference, a <code>.txt</code> with known mutations and
+ * a <code>.meta</code> with strain meta data.
+ *
+ * Every variant is carried by a clade of the phylogeny, so the graph agrees
+ * with the tree. Variants are single nucleotide polymorphisms or indels,
+ * separated by segments shared by all strains. Within the branch of a clade,
+ * a variant of a smaller clade can be nested, up to the nesting depth.
+ *
+ * The output is written while it is generated and only the phylogeny is kept
+ * in memory, so the size of a data set is limited by the disk. The same seed
+ * gives the same data set. Strain 0, named like
+ * {@link #sequenceName(int)}, is the reference.
+ *
+ * The start and end of a segment are positions in its first strain, which
+ * is the reference whenever the reference goes through the segment.
+ *
+ * @author agent
+ *
+ */
+public final class PangenomeGenerator {
+
+    /**
+     * The default seed of the data set.
+     */
+    public static final long SEED = 42;
+
+    /**
+     * The nucleotides of the generated content.
+     */
+    private static final char[] NUCLEOTIDES = "ACGT".toCharArray();
+
+    /**
+     * The shortest gene.
+     */
+    private static final int MIN_GENE_LENGTH = 300;
+
+    /**
+     * The longest gene.
+     */
+    private static final int MAX_GENE_LENGTH = 3000;
+
+    /**
+     * The longest distance between genes.
+     */
+    private static final int MAX_GENE_GAP = 500;
+
+    /**
+     * The chance a gene has a known mutation.
+     */
+    private static final double KNOWN_MUTATION_RATE = 0.2;
+
+    /**
+     * The drugs known mutations confer resistance to.
+     */
+    private static final String[] DRUGS = {
+            "isoniazid", "rifampicin", "streptomycin", "ethambutol"
+    };
+
+    /**
+     * The countries in the meta data.
+     */
+    private static final String[] COUNTRIES = {
+            "South Africa", "Peru", "Russia", "India", "China"
+    };
+
+    /**
+     * The number of lineages in the meta data.
+     */
+    private static final int LINEAGES = 7;
+
+    /**
+     * The first year in the meta data.
+     */
+    private static final int FIRST_YEAR = 1990;
+
+    /**
+     * The number of years in the meta data.
+     */
+    private static final int YEARS = 25;
+
+    /**
+     * The length of the reference genome.
+     */
+    private long genomeLength = 100000;
+
+    /**
+     * The number of strains.
+     */
+    private int strains = 10;
+
+    /**
+     * The chance of a single nucleotide polymorphism per position.
+     */
+    private double snpRate = 0.01;
+
+    /**
+     * The chance of an indel per position.
+     */
+    private double indelRate = 0.001;
+
+    /**
+     * The longest indel.
+     */
+    private int maxIndelLength = 10;
+
+    /**
+     * The largest number of variants nested in each other.
+     */
+    private int nestingDepth = 1;
+
+    /**
+     * The chance a variant contains a nested variant.
+     */
+    private double nestingRate = 0.1;
+
+    /**
+     * The shape of the phylogeny.
+     */
+    private TreeShape shape = TreeShape.BALANCED;
+
+    /**
+     * The seed of the data set.
+     */
+    private long seed = SEED;
+
+    /**
+     * @param index
+     *            the index of a strain.
+     * @return the name of the strain.
+     */
+    public static String sequenceName(final int index) {
+        return "S" + index;
+    }
+
+    /**
+     * @param genomeLength
+     *            the length of the reference genome, at least 1.
+     */
+    public void setGenomeLength(final long genomeLength) {
+        if (genomeLength < 1) {
+            throw new IllegalArgumentException(
+                    "The genome needs at least one nucleotide.");
+        }
+        this.genomeLength = genomeLength;
+    }
+
+    /**
+     * @param strains
+     *            the number of strains, at least 2.
+     */
+    public void setStrains(final int strains) {
+        if (strains < 2) {
+            throw new IllegalArgumentException(
+                    "A variant needs at least two strains.");
+        }
+        this.strains = strains;
+    }
+
+    /**
+     * @param snpRate
+     *            the chance of a single nucleotide polymorphism per position,
+     *            between 0 and 1.
+     */
+    public void setSnpRate(final double snpRate) {
+        this.snpRate = checkRate(snpRate, "SNP rate");
+    }
+
+    /**
+     * @param indelRate
+     *            the chance of an indel per position, between 0 and 1.
+     */
+    public void setIndelRate(final double indelRate) {
+        this.indelRate = checkRate(indelRate, "Indel rate");
+    }
+
+    /**
+     * @param maxIndelLength
+     *            the longest indel, at least 1.
+     */
+    public void setMaxIndelLength(final int maxIndelLength) {
+        if (maxIndelLength < 1) {
+            throw new IllegalArgumentException(
+                    "An indel needs at least one nucleotide.");
+        }
+        this.maxIndelLength = maxIndelLength;
+    }
+
+    /**
+     * @param nestingDepth
+     *            the largest number of variants nested in each other, 0 for
+     *            no nesting.
+     */
+    public void setNestingDepth(final int nestingDepth) {
+        if (nestingDepth < 0) {
+            throw new IllegalArgumentException(
+                    "The nesting depth can not be negative.");
+        }
+        this.nestingDepth = nestingDepth;
+    }
+
+    /**
+     * @param nestingRate
+     *            the chance a variant contains a nested variant, between 0
+     *            and 1.
+     */
+    public void setNestingRate(final double nestingRate) {
+        this.nestingRate = checkRate(nestingRate, "Nesting rate");
+    }
+
+    /**
+     * @param rate
+     *            the rate to check.
+     * @param name
+     *            the name of the rate, used in the error message.
+     * @return the rate, if it lies between 0 and 1.
+     */
+    private static double checkRate(final double rate, final String name) {
+        // also rejects NaN.
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException(name
+                    + " has to lie between 0 and 1.");
+        }
+        return rate;
+    }
+
+    /**
+     * @param shape
+     *            the shape of the phylogeny.
+     */
+    public void setShape(final TreeShape shape) {
+        if (shape == null) {
+            throw new IllegalArgumentException("The shape is missing.");
+        }
+        this.shape = shape;
+    }
+
+    /**
+     * @param seed
+     *            the seed of the data set.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generate a data set.
+     *
+     * @param directory
+     *            the directory to write the files to, which must exist.
+     * @param name
+     *            the name of the files, without extension.
+     * @throws IOException
+     *             when a file could not be written.
+     */
+    public void generate(final Path directory, final String name)
+            throws IOException {
+        Random random = new Random(seed);
+        StrainTree tree = new StrainTree(strains, shape, random);
+        try (Writer out = newWriter(directory.resolve(name + ".nwk"))) {
+            tree.writeNewick(out);
+        }
+        try (Writer out = newWriter(directory.resolve(name + ".meta"))) {
+            writeMeta(out, random);
+        }
+        long referenceLength;
+        try (Writer vertices = newWriter(directory.resolve(name
+                + ".node.graph"));
+                Writer edges = newWriter(directory.resolve(name
+                        + ".edge.graph"))) {
+            referenceLength = new GraphWriter(tree, random, vertices, edges)
+                    .write();
+        }
+        try (Writer genes = newWriter(directory.resolve(name + ".gff"));
+                Writer mutations = newWriter(directory.resolve(name
+                        + ".txt"))) {
+            writeAnnotations(genes, mutations, referenceLength, random);
+        }
+    }
+
+    /**
+     * @param file
+     *            the file.
+     * @return a buffered writer replacing the file.
+     * @throws IOException
+     *             when the file could not be opened.
+     */
+    private static BufferedWriter newWriter(final Path file)
+            throws IOException {
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the meta data of the strains. Lineages follow the order of the
+     * strains, which is the order of the leaves of the phylogeny.
+     *
+     * @param out
+     *            the meta data file.
+     * @param random
+     *            the source of the countries and years.
+     * @throws IOException
+     *             when the meta data could not be written.
+     */
+    private void writeMeta(final Writer out, final Random random)
+            throws IOException {
+        out.write("##ID\tLineage\tCountry\tYear\n");
+        for (int strain = 0; strain < strains; strain++) {
+            long lineage = 1 + (long) strain * LINEAGES / strains;
+            out.write(sequenceName(strain) + "\tLIN " + lineage
+                    + "\t" + COUNTRIES[random.nextInt(COUNTRIES.length)]
+                    + "\t" + (FIRST_YEAR + random.nextInt(YEARS)) + "\n");
+        }
+    }
+
+    /**
+     * Write genes on the reference, and known mutations in some of them.
+     *
+     * @param genes
+     *            the gene annotation file.
+     * @param mutations
+     *            the known mutation file.
+     * @param referenceLength
+     *            the length of the reference.
+     * @param random
+     *            the source of the genes and mutations.
+     * @throws IOException
+     *             when the annotations could not be written.
+     */
+    private static void writeAnnotations(final Writer genes,
+            final Writer mutations, final long referenceLength,
+            final Random random) throws IOException {
+        genes.write("##gff-version 3\n");
+        mutations.write("## geneName:typeOfMutation,change,filter,"
+                + "genomePosition\tdrug\n");
+        String reference = sequenceName(0);
+        long start = 1 + random.nextInt(MAX_GENE_GAP);
+        int gene = 1;
+        while (true) {
+            long end = start + MIN_GENE_LENGTH
+                    + random.nextInt(MAX_GENE_LENGTH - MIN_GENE_LENGTH);
+            if (end > referenceLength) {
+                return;
+            }
+            String name = "gene" + gene;
+            genes.write(reference + "\t.\tgene\t" + start + "\t" + end
+                    + "\t0.0\t+\t.\tName=" + name + "\n");
+            if (random.nextDouble() < KNOWN_MUTATION_RATE) {
+                long position = start + random.nextInt((int) (end - start));
+                mutations.write(name + ":SNP,"
+                        + NUCLEOTIDES[random.nextInt(NUCLEOTIDES.length)]
+                        + (position - start + 1)
+                        + NUCLEOTIDES[random.nextInt(NUCLEOTIDES.length)]
+                        + ",pass," + position + "\t"
+                        + DRUGS[random.nextInt(DRUGS.length)] + "\n");
+            }
+            start = end + 1 + random.nextInt(MAX_GENE_GAP);
+            gene++;
+        }
+    }
+
+    /**
+     * Writes the graph of a data set.
+     *
+     * @author agent
+     *
+     */
+    private final class GraphWriter {
+        /**
+         * The phylogeny carrying the variants.
+         */
+        private final StrainTree tree;
+        /**
+         * The source of the variants and content.
+         */
+        private final Random random;
+        /**
+         * The vertex file.
+         */
+        private final Writer vertices;
+        /**
+         * The edge file.
+         */
+        private final Writer edges;
+        /**
+         * The names of all strains, separated by commas.
+         */
+        private final String allStrains;
+        /**
+         * The length of the segments shared by all strains so far.
+         */
+        private long shared;
+        /**
+         * The length of the other segments so far, per strain.
+         */
+        private final long[] offsets;
+        /**
+         * The number of vertices written.
+         */
+        private int vertexCount;
+
+        /**
+         * @param tree
+         *            the phylogeny carrying the variants.
+         * @param random
+         *            the source of the variants and content.
+         * @param vertices
+         *            the vertex file.
+         * @param edges
+         *            the edge file.
+         */
+        GraphWriter(final StrainTree tree, final Random random,
+                final Writer vertices, final Writer edges) {
+            this.tree = tree;
+            this.random = random;
+            this.vertices = vertices;
+            this.edges = edges;
+            offsets = new long[strains];
+            StringBuilder names = new StringBuilder();
+            appendNames(names, 0, strains);
+            allStrains = names.toString();
+        }
+
+        /**
+         * Write the graph: shared segments alternating with variants.
+         *
+         * @return the length of the reference.
+         * @throws IOException
+         *             when the graph could not be written.
+         */
+        long write() throws IOException {
+            List<Integer> exits = Collections.singletonList(writeShared(
+                    Collections.emptyList()));
+            while (position(0) < genomeLength) {
+                int clade = tree.pick(random);
+                exits = writeVariant(exits, clade, new int[] {
+                        0, tree.getFirst(clade), tree.getEnd(clade), strains
+                }, 0);
+                exits = Collections.singletonList(writeShared(exits));
+            }
+            return position(0);
+        }
+
+        /**
+         * Write a variant carried by a clade.
+         *
+         * @param entries
+         *            the vertices before the variant.
+         * @param clade
+         *            the node of the clade carrying the variant.
+         * @param others
+         *            the ranges of the strains not carrying the variant.
+         * @param depth
+         *            the number of variants this variant is nested in.
+         * @return the vertices ending the paths through the variant.
+         * @throws IOException
+         *             when the variant could not be written.
+         */
+        private List<Integer> writeVariant(final List<Integer> entries,
+                final int clade, final int[] others, final int depth)
+                throws IOException {
+            int[] carriers = {
+                    tree.getFirst(clade), tree.getEnd(clade)
+            };
+            List<Integer> exits = new ArrayList<>();
+            if (random.nextDouble() * (snpRate + indelRate) < snpRate) {
+                int reference = random.nextInt(NUCLEOTIDES.length);
+                int alternative = (reference + 1 + random
+                        .nextInt(NUCLEOTIDES.length - 1))
+                        % NUCLEOTIDES.length;
+                exits.addAll(writeNested(writeSegment(entries, carriers, 1,
+                        NUCLEOTIDES[alternative]), clade, carriers, depth));
+                exits.add(writeSegment(entries, others, 1,
+                        NUCLEOTIDES[reference]));
+            } else {
+                int length = 1 + random.nextInt(maxIndelLength);
+                // an insertion in the clade or a deletion from it
+                if (random.nextBoolean()) {
+                    exits.addAll(writeNested(writeSegment(entries, carriers,
+                            length), clade, carriers, depth));
+                } else {
+                    exits.add(writeSegment(entries, others, length));
+                }
+                exits.addAll(entries);
+            }
+            return exits;
+        }
+
+        /**
+         * Possibly follow the segment of the strains carrying a variant by a
+         * nested variant and a segment shared by the clade.
+         *
+         * @param first
+         *            the vertex of the strains carrying the variant.
+         * @param clade
+         *            the node of the clade carrying the variant.
+         * @param carriers
+         *            the range of the clade.
+         * @param depth
+         *            the number of variants the variant is nested in.
+         * @return the vertices ending the paths through the clade.
+         * @throws IOException
+         *             when the nested variant could not be written.
+         */
+        private List<Integer> writeNested(final int first, final int clade,
+                final int[] carriers, final int depth) throws IOException {
+            List<Integer> exits = Collections.singletonList(first);
+            if (depth >= nestingDepth || random.nextDouble() >= nestingRate) {
+                return exits;
+            }
+            int nested = tree.pickDescendant(clade, random);
+            if (nested < 0) {
+                return exits;
+            }
+            exits = writeVariant(exits, nested, new int[] {
+                    carriers[0], tree.getFirst(nested), tree.getEnd(nested),
+                    carriers[1]
+            }, depth + 1);
+            return Collections.singletonList(writeSegment(exits, carriers,
+                    gap()));
+        }
+
+        /**
+         * @return the length of a segment between variants.
+         */
+        private int gap() {
+            double rate = snpRate + indelRate;
+            if (rate <= 0) {
+                return (int) Math.min(Integer.MAX_VALUE, genomeLength);
+            }
+            double length = Math.log(1 - random.nextDouble())
+                    / Math.log(1 - Math.min(rate, 1d / 2));
+            return 1 + (int) Math.min(Integer.MAX_VALUE - 1, length);
+        }
+
+        /**
+         * Write a segment shared by all strains.
+         *
+         * @param entries
+         *            the vertices before the segment.
+         * @return the vertex of the segment.
+         * @throws IOException
+         *             when the segment could not be written.
+         */
+        private int writeShared(final List<Integer> entries)
+                throws IOException {
+            int length = gap();
+            long start = position(0) + 1;
+            vertices.write(">" + vertexCount + " | " + allStrains + " | "
+                    + start + " | " + (start + length - 1) + "\n");
+            writeContent(length);
+            shared += length;
+            return connect(entries);
+        }
+
+        /**
+         * Write a segment of random content.
+         *
+         * @param entries
+         *            the vertices before the segment.
+         * @param ranges
+         *            the ranges of the strains going through the segment.
+         * @param length
+         *            the length of the segment.
+         * @return the vertex of the segment.
+         * @throws IOException
+         *             when the segment could not be written.
+         */
+        private int writeSegment(final List<Integer> entries,
+                final int[] ranges, final int length) throws IOException {
+            writeDescriptor(ranges, length);
+            writeContent(length);
+            return connect(entries);
+        }
+
+        /**
+         * Write a segment of a repeated nucleotide.
+         *
+         * @param entries
+         *            the vertices before the segment.
+         * @param ranges
+         *            the ranges of the strains going through the segment.
+         * @param length
+         *            the length of the segment.
+         * @param nucleotide
+         *            the content of the segment.
+         * @return the vertex of the segment.
+         * @throws IOException
+         *             when the segment could not be written.
+         */
+        private int writeSegment(final List<Integer> entries,
+                final int[] ranges, final int length, final char nucleotide)
+                throws IOException {
+            writeDescriptor(ranges, length);
+            for (int index = 0; index < length; index++) {
+                vertices.write(nucleotide);
+            }
+            vertices.write('\n');
+            return connect(entries);
+        }
+
+        /**
+         * Write the descriptor line of a segment and move the strains going
+         * through it along.
+         *
+         * @param ranges
+         *            the ranges of the strains going through the segment.
+         * @param length
+         *            the length of the segment.
+         * @throws IOException
+         *             when the descriptor could not be written.
+         */
+        private void writeDescriptor(final int[] ranges, final int length)
+                throws IOException {
+            StringBuilder names = new StringBuilder();
+            int firstStrain = -1;
+            for (int index = 0; index < ranges.length; index += 2) {
+                if (ranges[index] < ranges[index + 1]) {
+                    if (firstStrain < 0) {
+                        firstStrain = ranges[index];
+                    } else {
+                        names.append(',');
+                    }
+                    appendNames(names, ranges[index], ranges[index + 1]);
+                }
+            }
+            long start = position(firstStrain) + 1;
+            vertices.write(">" + vertexCount + " | " + names + " | " + start
+                    + " | " + (start + length - 1) + "\n");
+            for (int index = 0; index < ranges.length; index += 2) {
+                for (int strain = ranges[index]; strain < ranges[index + 1];
+                        strain++) {
+                    offsets[strain] += length;
+                }
+            }
+        }
+
+        /**
+         * Write random content.
+         *
+         * @param length
+         *            the length of the content.
+         * @throws IOException
+         *             when the content could not be written.
+         */
+        private void writeContent(final int length) throws IOException {
+            for (int index = 0; index < length; index++) {
+                vertices.write(NUCLEOTIDES[random.nextInt(NUCLEOTIDES.length)]);
+            }
+            vertices.write('\n');
+        }
+
+        /**
+         * Write the edges to the vertex which was written last.
+         *
+         * @param entries
+         *            the vertices before the vertex.
+         * @return the vertex.
+         * @throws IOException
+         *             when the edges could not be written.
+         */
+        private int connect(final List<Integer> entries) throws IOException {
+            for (int entry : entries) {
+                edges.write(entry + " " + vertexCount + "\n");
+            }
+            return vertexCount++;
+        }
+
+        /**
+         * @param strain
+         *            a strain.
+         * @return the number of nucleotides of the strain written so far.
+         */
+        private long position(final int strain) {
+            return shared + offsets[strain];
+        }
+
+        /**
+         * Append the names of a range of strains, separated by commas.
+         *
+         * @param names
+         *            the names to append to.
+         * @param first
+         *            the first strain.
+         * @param end
+         *            the strain after the last strain.
+         */
+        private void appendNames(final StringBuilder names, final int first,
+                final int end) {
+            for (int strain = first; strain < end; strain++) {
+                if (strain > first) {
+                    names.append(',');
+                }
+                names.append(sequenceName(strain));
+            }
+        }
+    }
+
+    /**
+     * Generate a data set from the command line. The options override the
+     * defaults: <code>length</code>, <code>strains</code>, <code>snp</code>,
+     * <code>indel</code>, <code>indel_length</code>, <code>depth</code>,
+     * <code>nesting</code>, <code>shape</code>, <code>seed</code> and
+     * <code>name</code>.
+     *
+     * @param args
+     *            the directory, followed by options like
+     *            <code>strains=300</code>.
+     * @throws IOException
+     *             when the data set could not be written.
+     */
+    public static void main(final String... args) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException(
+                    "Usage: PangenomeGenerator <directory> [option=value]...");
+        }
+        PangenomeGenerator generator = new PangenomeGenerator();
+        String name = "pangenome";
+        for (int index = 1; index < args.length; index++) {
+            String[] option = args[index].split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Not an option: "
+                        + args[index]);
+            }
+            if ("name".equals(option[0])) {
+                name = option[1];
+            } else {
+                generator.setOption(option[0], option[1]);
+            }
+        }
+        Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+        generator.generate(directory, name);
+    }
+
+    /**
+     * Set an option given on the command line.
+     *
+     * @param option
+     *            the name of the option.
+     * @param value
+     *            the value of the option.
+     */
+    private void setOption(final String option, final String value) {
+        switch (option) {
+        case "length":
+            setGenomeLength(Long.parseLong(value));
+            break;
+        case "strains":
+            setStrains(Integer.parseInt(value));
+            break;
+        case "snp":
+            setSnpRate(Double.parseDouble(value));
+            break;
+        case "indel":
+            setIndelRate(Double.parseDouble(value));
+            break;
+        case "indel_length":
+            setMaxIndelLength(Integer.parseInt(value));
+            break;
+        case "depth":
+            setNestingDepth(Integer.parseInt(value));
+            break;
+        case "nesting":
+            setNestingRate(Double.parseDouble(value));
+            break;
+        case "shape":
+            setShape(TreeShape.valueOf(value.toUpperCase(Locale.ENGLISH)));
+            break;
+        case "seed":
+            setSeed(Long.parseLong(value));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown option: " + option);
+        }
+    }
+
+}
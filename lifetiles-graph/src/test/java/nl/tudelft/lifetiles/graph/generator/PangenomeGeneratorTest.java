@@ -0,0 +1,200 @@
+package nl.tudelft.lifetiles.graph.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import nl.tudelft.lifetiles.annotation.model.GeneAnnotation;
+import nl.tudelft.lifetiles.annotation.model.GeneAnnotationParser;
+import nl.tudelft.lifetiles.annotation.model.KnownMutationParser;
+import nl.tudelft.lifetiles.graph.model.DefaultGraphParser;
+import nl.tudelft.lifetiles.graph.model.FactoryProducer;
+import nl.tudelft.lifetiles.graph.model.Graph;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceMetaParser;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PangenomeGeneratorTest {
+
+    private static final String[] EXTENSIONS = {
+            ".node.graph", ".edge.graph", ".nwk", ".gff", ".txt", ".meta"
+    };
+
+    private static final int STRAINS = 20;
+
+    private static final long LENGTH = 20000;
+
+    private PangenomeGenerator generator;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        generator = new PangenomeGenerator();
+        generator.setStrains(STRAINS);
+        generator.setGenomeLength(LENGTH);
+        generator.setNestingDepth(3);
+        generator.setNestingRate(0.5);
+        generator.setShape(TreeShape.RANDOM);
+        directory = Files.createTempDirectory("pangenome");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private File file(final String name, final String extension) {
+        return directory.resolve(name + extension).toFile();
+    }
+
+    @Test
+    public void testDeterministic() throws IOException {
+        generator.generate(directory, "first");
+        generator.generate(directory, "second");
+        for (String extension : EXTENSIONS) {
+            assertArrayEquals(extension,
+                    Files.readAllBytes(file("first", extension).toPath()),
+                    Files.readAllBytes(file("second", extension).toPath()));
+        }
+    }
+
+    @Test
+    public void testSeed() throws IOException {
+        generator.generate(directory, "first");
+        generator.setSeed(7);
+        generator.generate(directory, "second");
+        assertFalse(Arrays.equals(
+                Files.readAllBytes(file("first", ".node.graph").toPath()),
+                Files.readAllBytes(file("second", ".node.graph").toPath())));
+    }
+
+    @Test
+    public void testGraph() throws IOException {
+        generator.generate(directory, "test");
+        DefaultGraphParser parser = new DefaultGraphParser();
+        Graph<SequenceSegment> graph = parser.parseGraph(file("test",
+                ".node.graph"), file("test", ".edge.graph"), FactoryProducer
+                .getFactory());
+        Map<String, Sequence> sequences = parser.getSequences();
+        assertEquals(STRAINS, sequences.size());
+        assertEquals(1, graph.getSources().size());
+        assertEquals(1, graph.getSinks().size());
+
+        long position = 0;
+        for (SequenceSegment segment : sequences.get(
+                PangenomeGenerator.sequenceName(0)).getSegments()) {
+            assertEquals(position + 1, segment.getStart());
+            position = segment.getEnd();
+        }
+        assertTrue(position >= LENGTH);
+    }
+
+    @Test
+    public void testWithoutVariants() throws IOException {
+        generator.setSnpRate(0);
+        generator.setIndelRate(0);
+        generator.generate(directory, "test");
+        DefaultGraphParser parser = new DefaultGraphParser();
+        Graph<SequenceSegment> graph = parser.parseGraph(file("test",
+                ".node.graph"), file("test", ".edge.graph"), FactoryProducer
+                .getFactory());
+        assertEquals(1, graph.getAllVertices().size());
+        assertEquals(LENGTH, graph.getAllVertices().first().getEnd());
+    }
+
+    @Test
+    public void testTree() throws IOException {
+        generator.setShape(TreeShape.CATERPILLAR);
+        generator.generate(directory, "test");
+        PhylogeneticTreeItem tree = PhylogeneticTreeParser.parse(new String(
+                Files.readAllBytes(file("test", ".nwk").toPath())));
+        assertEquals(STRAINS, tree.numberLeaves());
+        assertEquals(STRAINS - 1, tree.maxDepth());
+    }
+
+    @Test
+    public void testAnnotations() throws IOException {
+        generator.generate(directory, "test");
+        List<GeneAnnotation> genes = GeneAnnotationParser
+                .parseGeneAnnotations(file("test", ".gff"));
+        assertFalse(genes.isEmpty());
+        for (GeneAnnotation gene : genes) {
+            assertTrue(gene.getGenomePosition() <= gene
+                    .getGenomeEndPosition());
+        }
+        KnownMutationParser.parseKnownMutations(file("test", ".txt"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewStrains() {
+        generator.setStrains(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyGenome() {
+        generator.setGenomeLength(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyIndel() {
+        generator.setMaxIndelLength(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeNestingDepth() {
+        generator.setNestingDepth(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSnpRate() {
+        generator.setSnpRate(-0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndelRateAboveOne() {
+        generator.setIndelRate(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownNestingRate() {
+        generator.setNestingRate(Double.NaN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingShape() {
+        generator.setShape(null);
+    }
+
+    @Test
+    public void testMeta() throws IOException {
+        generator.generate(directory, "test");
+        SequenceMetaParser parser = new SequenceMetaParser();
+        parser.parse(file("test", ".meta"));
+        assertEquals(STRAINS, parser.getData().size());
+        assertEquals("LIN 1", parser.getData()
+                .get(PangenomeGenerator.sequenceName(0)).get("Lineage"));
+    }
+
+}
@@ -0,0 +1,203 @@
+package nl.tudelft.lifetiles.graph.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * A generated binary phylogeny of strains. The leaves under every node are a
+ * consecutive range of strains, so a clade is stored as two numbers however
+ * large it is. Node 0 is the root.
+ *
+ * @author agent
+ *
+ */
+public final class StrainTree {
+
+    /**
+     * Marks a leaf in the child arrays.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The first strain under every node.
+     */
+    private final int[] first;
+
+    /**
+     * The strain after the last strain under every node.
+     */
+    private final int[] end;
+
+    /**
+     * The first child of every node.
+     */
+    private final int[] left;
+
+    /**
+     * The second child of every node.
+     */
+    private final int[] right;
+
+    /**
+     * The branch length of every node.
+     */
+    private final double[] length;
+
+    /**
+     * Generate a tree.
+     *
+     * @param strains
+     *            the number of strains, at least 2.
+     * @param shape
+     *            the shape of the tree.
+     * @param random
+     *            the source of the splits and branch lengths.
+     */
+    public StrainTree(final int strains, final TreeShape shape,
+            final Random random) {
+        int size = 2 * strains - 1;
+        first = new int[size];
+        end = new int[size];
+        left = new int[size];
+        right = new int[size];
+        length = new double[size];
+        end[0] = strains;
+        int created = 1;
+        for (int node = 0; node < size; node++) {
+            length[node] = random.nextDouble();
+            if (end[node] - first[node] == 1) {
+                left[node] = NONE;
+                right[node] = NONE;
+            } else {
+                int split = shape.split(first[node], end[node], random);
+                left[node] = created;
+                first[created] = first[node];
+                end[created] = split;
+                right[node] = created + 1;
+                first[created + 1] = split;
+                end[created + 1] = end[node];
+                created += 2;
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes.
+     */
+    int size() {
+        return first.length;
+    }
+
+    /**
+     * @param node
+     *            a node.
+     * @return the first strain under the node.
+     */
+    int getFirst(final int node) {
+        return first[node];
+    }
+
+    /**
+     * @param node
+     *            a node.
+     * @return the strain after the last strain under the node.
+     */
+    int getEnd(final int node) {
+        return end[node];
+    }
+
+    /**
+     * Pick a clade carrying a variant.
+     *
+     * @param random
+     *            the source of the choice.
+     * @return a uniformly chosen node other than the root.
+     */
+    int pick(final Random random) {
+        return 1 + random.nextInt(size() - 1);
+    }
+
+    /**
+     * Pick a clade within a clade, descending at least one level and then
+     * continuing down with probability one half per level.
+     *
+     * @param node
+     *            the clade.
+     * @param random
+     *            the source of the choice.
+     * @return a node under the clade, or -1 if the clade is a leaf.
+     */
+    int pickDescendant(final int node, final Random random) {
+        int current = node;
+        do {
+            if (left[current] == NONE) {
+                return current == node ? NONE : current;
+            }
+            if (random.nextBoolean()) {
+                current = left[current];
+            } else {
+                current = right[current];
+            }
+        } while (random.nextBoolean());
+        return current;
+    }
+
+    /**
+     * Write the tree in the Newick format. The tree is walked without
+     * recursion, so caterpillar trees of any size can be written.
+     *
+     * @param out
+     *            the writer to write to.
+     * @throws IOException
+     *             when the tree could not be written.
+     */
+    public void writeNewick(final Writer out) throws IOException {
+        // a node is pushed twice: negated to open it, positive to close it.
+        // the smallest integer separates the children.
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(-1);
+        while (!stack.isEmpty()) {
+            int entry = stack.pop();
+            if (entry == Integer.MIN_VALUE) {
+                out.write(',');
+            } else if (entry < 0) {
+                int node = -entry - 1;
+                if (left[node] == NONE) {
+                    out.write(PangenomeGenerator.sequenceName(first[node]));
+                    writeLength(out, node);
+                } else {
+                    out.write('(');
+                    stack.push(node);
+                    stack.push(-right[node] - 1);
+                    stack.push(Integer.MIN_VALUE);
+                    stack.push(-left[node] - 1);
+                }
+            } else {
+                out.write(')');
+                writeLength(out, entry);
+            }
+        }
+        out.write(";\n");
+    }
+
+    /**
+     * Write the branch length of a node, the root has none.
+     *
+     * @param out
+     *            the writer to write to.
+     * @param node
+     *            the node.
+     * @throws IOException
+     *             when the length could not be written.
+     */
+    private void writeLength(final Writer out, final int node)
+            throws IOException {
+        if (node != 0) {
+            out.write(':' + Double.toString(length[node]));
+        }
+    }
+
+}
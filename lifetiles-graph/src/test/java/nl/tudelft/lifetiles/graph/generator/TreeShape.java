@@ -0,0 +1,57 @@
+package nl.tudelft.lifetiles.graph.generator;
+
+import java.util.Random;
+
+/**
+ * The shape of a generated phylogeny. Every shape divides a range of
+ * strains into two consecutive clades.
+ *
+ * @author agent
+ *
+ */
+public enum TreeShape {
+
+    /**
+     * Every clade is split in halves, the tree has logarithmic depth.
+     */
+    BALANCED {
+        @Override
+        int split(final int first, final int end, final Random random) {
+            return (first + end) / 2;
+        }
+    },
+
+    /**
+     * Every clade splits off its last strain, the tree has linear depth.
+     */
+    CATERPILLAR {
+        @Override
+        int split(final int first, final int end, final Random random) {
+            return end - 1;
+        }
+    },
+
+    /**
+     * Every clade is split at a uniformly random point.
+     */
+    RANDOM {
+        @Override
+        int split(final int first, final int end, final Random random) {
+            return first + 1 + random.nextInt(end - first - 1);
+        }
+    };
+
+    /**
+     * Split a clade of at least two strains.
+     *
+     * @param first
+     *            the first strain in the clade.
+     * @param end
+     *            the strain after the last strain in the clade.
+     * @param random
+     *            the source of random splits.
+     * @return the first strain of the second clade.
+     */
+    abstract int split(int first, int end, Random random);
+
+}
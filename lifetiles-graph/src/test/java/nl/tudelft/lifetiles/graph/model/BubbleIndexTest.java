@@ -0,0 +1,151 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.graph.traverser.ReferencePositionTraverser;
+import nl.tudelft.lifetiles.graph.traverser.UnifiedPositionTraverser;
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BubbleIndexTest {
+    Set<Sequence> s1, s2, s3;
+    Sequence ss1, ss2, ss3;
+    SequenceSegment v1, v2, v3, v4, v5, v6;
+    Graph<SequenceSegment> gr;
+    BubbleIndex index;
+
+    @Before
+    public void setUp() {
+        ss1 = new DefaultSequence("reference");
+        ss2 = new DefaultSequence("mutation");
+        ss3 = new DefaultSequence("other");
+
+        s1 = new HashSet<Sequence>(Arrays.asList(ss1, ss2, ss3));
+        s2 = new HashSet<Sequence>(Arrays.asList(ss1, ss3));
+        s3 = new HashSet<Sequence>(Arrays.asList(ss2));
+
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        // v1 -> {v2 | v3} -> v4 -> {v5 | -} -> v6
+        v1 = new SequenceSegment(s1, 1, 3, new SegmentString("AA"));
+        v2 = new SequenceSegment(s2, 3, 4, new SegmentString("C"));
+        v3 = new SequenceSegment(s3, 3, 4, new SegmentString("G"));
+        v4 = new SequenceSegment(s1, 4, 6, new SegmentString("TT"));
+        v5 = new SequenceSegment(s3, 6, 9, new SegmentString("AAA"));
+        v6 = new SequenceSegment(s1, 9, 11, new SegmentString("CC"));
+        gr = gf.getGraph();
+        for (SequenceSegment vertex : Arrays.asList(v1, v2, v3, v4, v5, v6)) {
+            gr.addVertex(vertex);
+        }
+        gr.addEdge(v1, v2);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v4);
+        gr.addEdge(v3, v4);
+        gr.addEdge(v4, v5);
+        gr.addEdge(v4, v6);
+        gr.addEdge(v5, v6);
+
+        UnifiedPositionTraverser.unifyGraph(gr);
+        ReferencePositionTraverser.referenceMapGraph(gr, ss1);
+        index = new BubbleIndex(gr);
+    }
+
+    @Test
+    public void testBubbles() {
+        List<Bubble> bubbles = index.getBubbles();
+        assertEquals(2, bubbles.size());
+        assertEquals(v1, bubbles.get(0).getEntry());
+        assertEquals(v4, bubbles.get(0).getExit());
+        assertEquals(v4, bubbles.get(1).getEntry());
+        assertEquals(v6, bubbles.get(1).getExit());
+    }
+
+    @Test
+    public void testAlleles() {
+        Bubble bubble = index.getBubbles().get(0);
+        assertEquals(2, bubble.getAlleles().size());
+        assertEquals(s2, bubble.getAlleles().get(Collections.singletonList(v2)));
+        assertEquals(2 / 3.0, bubble.getFrequency(Collections
+                .singletonList(v2)), 1e-9);
+    }
+
+    @Test
+    public void testEmptyAllele() {
+        Bubble bubble = index.getBubbles().get(1);
+        assertTrue(bubble.getAlleles().containsKey(
+                Collections.<SequenceSegment> emptyList()));
+        assertEquals(s2, bubble.getAlleles().get(
+                Collections.<SequenceSegment> emptyList()));
+    }
+
+    @Test
+    public void testUnifiedLookup() {
+        assertEquals(index.getBubbles().get(0), index.getBubbleAtUnified(3));
+        assertNull(index.getBubbleAtUnified(4));
+        assertEquals(index.getBubbles().get(1), index.getNextBubble(4));
+        assertNull(index.getNextBubble(100));
+    }
+
+    @Test
+    public void testReferenceLookup() {
+        assertEquals(index.getBubbles().get(0), index.getBubbleAtReference(3));
+        assertNull(index.getBubbleAtReference(1));
+    }
+
+    @Test
+    public void testNestedInAbortedBubble() {
+        // y -> v6 enters the bubble opened at v0 from outside, the bubble
+        // v1 -> {v2 | v3} -> v4 nested inside it is still found.
+        SequenceSegment y = new SequenceSegment(s3, 0, 1, new SegmentString(
+                "G"));
+        SequenceSegment v0 = new SequenceSegment(s1, 0, 1, new SegmentString(
+                "T"));
+        gr = FactoryProducer.<SequenceSegment> getFactory().getGraph();
+        for (SequenceSegment vertex : Arrays.asList(y, v0, v1, v2, v3, v4, v6)) {
+            gr.addVertex(vertex);
+        }
+        gr.addEdge(v0, v1);
+        gr.addEdge(v0, v6);
+        gr.addEdge(v1, v2);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v4);
+        gr.addEdge(v3, v4);
+        gr.addEdge(v4, v6);
+        gr.addEdge(y, v6);
+        UnifiedPositionTraverser.unifyGraph(gr);
+
+        List<Bubble> bubbles = new BubbleIndex(gr).getBubbles();
+        assertEquals(1, bubbles.size());
+        assertEquals(v1, bubbles.get(0).getEntry());
+        assertEquals(v4, bubbles.get(0).getExit());
+    }
+
+    @Test
+    public void testReferenceStartWithoutReference() {
+        v1.setReferenceEnd(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, new Bubble(v1, v4).getReferenceStart());
+    }
+
+    @Test
+    public void testNoBubbles() {
+        gr = FactoryProducer.<SequenceSegment> getFactory().getGraph();
+        gr.addVertex(v1);
+        gr.addVertex(v4);
+        gr.addEdge(v1, v4);
+        UnifiedPositionTraverser.unifyGraph(gr);
+        assertTrue(new BubbleIndex(gr).getBubbles().isEmpty());
+    }
+
+}
@@ -0,0 +1,128 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphCompactorTest {
+    Set<Sequence> s1, s2, s3;
+    Sequence ss1, ss2;
+    SequenceSegment v1, v2, v3, v4, v5;
+    Graph<SequenceSegment> gr;
+    GraphCompactor compactor;
+
+    @Before
+    public void setUp() {
+        ss1 = new DefaultSequence("reference");
+        ss2 = new DefaultSequence("mutation");
+
+        s1 = new HashSet<Sequence>();
+        s1.add(ss1);
+        s1.add(ss2);
+
+        s2 = new HashSet<Sequence>();
+        s2.add(ss1);
+
+        s3 = new HashSet<Sequence>();
+        s3.add(ss2);
+
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        v1 = new SequenceSegment(s1, 1, 3, new SegmentString("AA"));
+        v2 = new SequenceSegment(s1, 3, 6, new SegmentString("CCC"));
+        v3 = new SequenceSegment(s2, 6, 7, new SegmentString("G"));
+        v4 = new SequenceSegment(s3, 6, 7, new SegmentString("T"));
+        v5 = new SequenceSegment(s1, 7, 9, new SegmentString("AA"));
+        gr = gf.getGraph();
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addVertex(v4);
+        gr.addVertex(v5);
+        gr.addEdge(v1, v2);
+        gr.addEdge(v2, v3);
+        gr.addEdge(v2, v4);
+        gr.addEdge(v3, v5);
+        gr.addEdge(v4, v5);
+
+        ss1.appendSegment(v1);
+        ss1.appendSegment(v2);
+        ss1.appendSegment(v3);
+        ss1.appendSegment(v5);
+        ss2.appendSegment(v1);
+        ss2.appendSegment(v2);
+        ss2.appendSegment(v4);
+        ss2.appendSegment(v5);
+
+        compactor = new GraphCompactor(gf);
+    }
+
+    @Test
+    public void testCompactVertices() {
+        Graph<SequenceSegment> compacted = compactor.compact(gr);
+        assertEquals(4, compacted.getAllVertices().size());
+        assertEquals(4, compacted.getAllEdges().size());
+    }
+
+    @Test
+    public void testCompactContent() {
+        compactor.compact(gr);
+        SequenceSegment merged = compactor.getCompacted(v1.getIdentifier());
+        assertEquals("AACCC", merged.getContent().toString());
+        assertEquals(1, merged.getStart());
+        assertEquals(6, merged.getEnd());
+    }
+
+    @Test
+    public void testMapping() {
+        compactor.compact(gr);
+        SequenceSegment merged = compactor.getCompacted(v2.getIdentifier());
+        assertSame(merged, compactor.getCompacted(v1.getIdentifier()));
+        assertEquals(2, compactor.getOffset(v2.getIdentifier()));
+        assertEquals(v1.getIdentifier(), (int) compactor
+                .getOriginalIdentifiers(merged).get(0));
+        assertSame(v3, compactor.getCompacted(v3.getIdentifier()));
+    }
+
+    @Test
+    public void testOriginalIdentifier() {
+        compactor.compact(gr);
+        SequenceSegment merged = compactor.getCompacted(v1.getIdentifier());
+        assertEquals(v1.getIdentifier(), compactor.getOriginalIdentifier(
+                merged, 1));
+        assertEquals(v2.getIdentifier(), compactor.getOriginalIdentifier(
+                merged, 2));
+        assertEquals(v2.getIdentifier(), compactor.getOriginalIdentifier(
+                merged, 4));
+        assertEquals(v3.getIdentifier(), compactor.getOriginalIdentifier(v3,
+                0));
+    }
+
+    @Test
+    public void testSequencesUpdated() {
+        compactor.compact(gr);
+        assertEquals(3, ss1.getSegments().size());
+        assertSame(compactor.getCompacted(v1.getIdentifier()), ss1
+                .getSegments().get(0));
+    }
+
+    @Test
+    public void testCompactDifferentSources() {
+        gr = FactoryProducer.<SequenceSegment> getFactory().getGraph();
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addEdge(v2, v3);
+        Graph<SequenceSegment> compacted = compactor.compact(gr);
+        assertEquals(2, compacted.getAllVertices().size());
+    }
+
+}
@@ -122,6 +122,34 @@ public class GraphContainerTest {
         assertEquals(3, gc.getVisibleSegments(0, 1).size());
     }
 
+    @Test
+    public void unifiedPositionTest() {
+        gc = new GraphContainer(gr, ss1);
+        assertEquals(v2, gc.getSegment(v2.getIdentifier()));
+        assertEquals(v2.getUnifiedStart() + 3, gc.getUnifiedPosition(v2
+                .getIdentifier(), 3));
+        assertEquals(-1, gc.getUnifiedPosition(-1, 0));
+    }
+
+    @Test
+    public void compactedUnifiedPositionTest() {
+        SequenceSegment v5 = new SequenceSegment(s2, 21, 31, new SegmentString(
+                "AAAAAAAAAA"));
+        gr = gf.getGraph();
+        gr.addVertex(v2);
+        gr.addVertex(v5);
+        gr.addEdge(v2, v5);
+        GraphCompactor compactor = new GraphCompactor(gf);
+        gr = compactor.compact(gr);
+        gc = new GraphContainer(gr, null, compactor);
+        SequenceSegment merged = gr.getAllVertices().first();
+        assertEquals(merged, gc.getSegment(v5.getIdentifier()));
+        assertEquals(v5.getIdentifier(), gc.getOriginalIdentifier(merged,
+                12));
+        assertEquals(merged.getUnifiedStart() + 12, gc.getUnifiedPosition(v5
+                .getIdentifier(), 2));
+    }
+
     @Test
     public void emptySubselectionVisibleSegmentsTest() {
         gc = new GraphContainer(gr, ss1);
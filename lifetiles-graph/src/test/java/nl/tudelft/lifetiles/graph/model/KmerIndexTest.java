@@ -0,0 +1,156 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class KmerIndexTest {
+    Set<Sequence> s1, s2, s3;
+    Sequence ss1, ss2;
+    SequenceSegment v1, v2, v3, v4;
+    Graph<SequenceSegment> gr;
+    KmerIndex index;
+
+    @Before
+    public void setUp() {
+        ss1 = new DefaultSequence("reference");
+        ss2 = new DefaultSequence("mutation");
+        s1 = new HashSet<Sequence>(Arrays.asList(ss1, ss2));
+        s2 = new HashSet<Sequence>(Arrays.asList(ss1));
+        s3 = new HashSet<Sequence>(Arrays.asList(ss2));
+
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        // v1 -> {v2 | v3} -> v4
+        v1 = new SequenceSegment(s1, 1, 13, new SegmentString("ACGTACGTTTGA"));
+        v2 = new SequenceSegment(s2, 13, 14, new SegmentString("C"));
+        v3 = new SequenceSegment(s3, 13, 14, new SegmentString("G"));
+        v4 = new SequenceSegment(s1, 14, 26, new SegmentString("CATCATCATNNA"));
+        gr = gf.getGraph();
+        for (SequenceSegment vertex : Arrays.asList(v1, v2, v3, v4)) {
+            vertex.setUnifiedStart(vertex.getStart());
+            vertex.setUnifiedEnd(vertex.getEnd());
+            gr.addVertex(vertex);
+        }
+        for (SequenceSegment vertex : Arrays.asList(v1, v2, v4)) {
+            ss1.appendSegment(vertex);
+        }
+        for (SequenceSegment vertex : Arrays.asList(v1, v3, v4)) {
+            ss2.appendSegment(vertex);
+        }
+        gr.addEdge(v1, v2);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v4);
+        gr.addEdge(v3, v4);
+        index = new KmerIndex(gr);
+    }
+
+    @Test
+    public void findWithinSegmentTest() {
+        List<MotifMatch> matches = index.find("CATCATCAT");
+        assertEquals(1, matches.size());
+        assertEquals(v4, matches.get(0).getSegment());
+        assertEquals(0, matches.get(0).getOffset());
+        assertEquals(s1, matches.get(0).getSequences());
+    }
+
+    @Test
+    public void findShortMotifTest() {
+        List<MotifMatch> matches = index.find("acgt");
+        assertEquals(2, matches.size());
+        assertEquals(0, matches.get(0).getOffset());
+        assertEquals(4, matches.get(1).getOffset());
+    }
+
+    @Test
+    public void findSpanningTest() {
+        List<MotifMatch> matches = index.find("TTTGAGCATCA");
+        assertEquals(1, matches.size());
+        assertEquals(v1, matches.get(0).getSegment());
+        assertEquals(7, matches.get(0).getOffset());
+        assertEquals(s3, matches.get(0).getSequences());
+        assertEquals(8, matches.get(0).getGenomePosition(ss2));
+        assertEquals(-1, matches.get(0).getGenomePosition(ss1));
+        assertEquals(ss2, matches.get(0).getFirstSequence());
+    }
+
+    @Test
+    public void findAfterManyVariantSitesTest() {
+        // ten adjacent variant sites, so many more paths than sequences.
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        Graph<SequenceSegment> sites = gf.getGraph();
+        SequenceSegment head = new SequenceSegment(s1, 1, 11,
+                new SegmentString("ACGTACGTTA"));
+        sites.addVertex(head);
+        List<SequenceSegment> previous = Arrays.asList(head);
+        for (int site = 0; site < 10; site++) {
+            List<SequenceSegment> alleles = Arrays.asList(
+                    new SequenceSegment(s2, 11 + site, 12 + site,
+                            new SegmentString("C")),
+                    new SequenceSegment(s3, 11 + site, 12 + site,
+                            new SegmentString("G")));
+            for (SequenceSegment allele : alleles) {
+                sites.addVertex(allele);
+                for (SequenceSegment before : previous) {
+                    sites.addEdge(before, allele);
+                }
+            }
+            previous = alleles;
+        }
+        KmerIndex sitesIndex = new KmerIndex(sites);
+        assertEquals(s2, sitesIndex.find("TACCCCCCCCC").get(0)
+                .getSequences());
+        assertEquals(s3, sitesIndex.find("TAGGGGGGGGG").get(0)
+                .getSequences());
+        assertTrue(sitesIndex.find("TACGCCCCCCC").isEmpty());
+    }
+
+    @Test
+    public void findBothAllelesTest() {
+        List<MotifMatch> matches = index.find("TTGA");
+        assertEquals(1, matches.size());
+        assertEquals(s1, matches.get(0).getSequences());
+    }
+
+    @Test
+    public void findMissingTest() {
+        assertTrue(index.find("GGGGGGGGGGGG").isEmpty());
+        assertTrue(index.find("CATNN").isEmpty());
+    }
+
+    @Test
+    public void skipUnknownNucleotidesTest() {
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        Graph<SequenceSegment> unknown = gf.getGraph();
+        unknown.addVertex(new SequenceSegment(s1, 1, 21, new SegmentString(
+                "NNNNNNNNNNNNNNNNacgt")));
+        KmerIndex unknownIndex = new KmerIndex(unknown);
+        // only the padded k-mers of the last four positions remain.
+        assertEquals(4, unknownIndex.size());
+        assertEquals(1, unknownIndex.find("ACGT").size());
+        assertTrue(unknownIndex.find("AAAA").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void findEmptyTest() {
+        index.find("");
+    }
+
+    @Test
+    public void buildAsyncTest() {
+        KmerIndex async = KmerIndex.buildAsync(gr).join();
+        assertEquals(index.size(), async.size());
+    }
+
+}
@@ -1,14 +1,21 @@
 package nl.tudelft.lifetiles.graph.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 import javafx.embed.swing.JFXPanel;
+import javafx.scene.paint.Stop;
 import nl.tudelft.lifetiles.core.util.Logging;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
 import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
 
 import org.junit.Before;
@@ -49,4 +56,28 @@ public class MiniMapTest {
         assertEquals(bucketCache.getNumberBuckets(), miniMap.getStops().size());
     }
 
+    @Test
+    public void getStopsFilteredTest() {
+        BitSet mask = new BitSet();
+        mask.set(0);
+        assertEquals(bucketCache.getNumberBuckets(), miniMap
+                .getStopsAsync(mask).join().size());
+        assertSame(miniMap.getStopsAsync(mask), miniMap.getStopsAsync(mask));
+    }
+
+    @Test
+    public void snapshotTest() {
+        List<Stop> expected = new MiniMap(bucketCache).getStops();
+        miniMap = new MiniMap(bucketCache);
+        for (SequenceSegment segment : bucketCache.getBuckets().get(0)) {
+            segment.setContent(new SegmentString(""));
+        }
+        assertEquals(expected, miniMap.getStops());
+    }
+
+    @Test
+    public void getStopsAsyncTest() {
+        assertEquals(miniMap.getStops(), miniMap.getStopsAsync((Set<Sequence>) null).join());
+    }
+
 }
@@ -172,4 +172,45 @@ public class StackedMutationContainerTest {
         assertEquals(stack, s.getStack().get(0));
     }
 
+    @Test
+    public void levelMaxMutationTest() {
+        v1.setMutation(Mutation.INSERTION);
+        v2.setMutation(Mutation.POLYMORPHISM);
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        BucketCache b = new BucketCache(2, gr);
+        StackedMutationContainer s = new StackedMutationContainer(b, null);
+        assertEquals(10, s.mapLevelStackedMutation().get(1).getMaxMutations()
+                .longValue());
+        assertEquals(20, s.getMaxMutations().longValue());
+        assertEquals(Long.valueOf(10), s.getStack().get(0).get(1));
+        assertEquals(Long.valueOf(10), s.getStack().get(0).get(3));
+    }
+
+    @Test
+    public void countsVisibleTest() {
+        Sequence other = new DefaultSequence("other");
+        Set<Sequence> s = new HashSet<Sequence>();
+        s.add(other);
+        SequenceSegment v3 = new SequenceSegment(s, 11, 21, new SegmentEmpty(
+                10));
+        v3.setUnifiedStart(11);
+        v3.setUnifiedEnd(21);
+        v3.setMutation(Mutation.DELETION);
+        gr.addVertex(v1);
+        gr.addVertex(v3);
+        SequenceMutationCounts counts = new SequenceMutationCounts(
+                new BucketCache(1, gr));
+
+        StackedMutationContainer all = new StackedMutationContainer(counts,
+                null);
+        assertEquals(Long.valueOf(20), all.getStack().get(0).get(0));
+        assertEquals(Long.valueOf(10), all.getStack().get(0).get(2));
+
+        StackedMutationContainer visible = new StackedMutationContainer(
+                counts, s);
+        assertEquals(Long.valueOf(10), visible.getStack().get(0).get(0));
+        assertEquals(Long.valueOf(10), visible.getStack().get(0).get(2));
+    }
+
 }
@@ -0,0 +1,125 @@
+package nl.tudelft.lifetiles.graph.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.SegmentString;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.sequence.model.SequenceSegment;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class SubGraphViewTest {
+    static Set<Sequence> s1, s2, s3;
+    SequenceSegment v1, v2, v3, v4;
+    Graph<SequenceSegment> gr;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @BeforeClass
+    public static void runOnce() {
+        Sequence ss1 = new DefaultSequence("reference");
+        Sequence ss2 = new DefaultSequence("mutation");
+
+        s1 = new HashSet<Sequence>();
+        s1.add(ss1);
+        s1.add(ss2);
+
+        s2 = new HashSet<Sequence>();
+        s2.add(ss1);
+
+        s3 = new HashSet<Sequence>();
+        s3.add(ss2);
+    }
+
+    @Before
+    public void setUp() {
+        GraphFactory<SequenceSegment> gf = FactoryProducer.getFactory();
+        v1 = new SequenceSegment(s2, 1, 11, new SegmentString("AAAAAAAAAA"));
+        v2 = new SequenceSegment(s3, 1, 11, new SegmentString("AAAAAAAAAA"));
+        v3 = new SequenceSegment(s1, 11, 21, new SegmentString("AAAAAAAAAA"));
+        v4 = new SequenceSegment(s3, 21, 31, new SegmentString("AAAAAAAAAA"));
+        gr = gf.getGraph();
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addVertex(v4);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v3);
+        gr.addEdge(v3, v4);
+    }
+
+    @Test
+    public void allVisibleTest() {
+        Graph<SequenceSegment> view = SubGraphView.ofSequences(gr, null);
+        assertEquals(4, view.getAllVertices().size());
+        assertEquals(3, view.getAllEdges().size());
+    }
+
+    @Test
+    public void filteredVerticesTest() {
+        SubGraphView<SequenceSegment> view = SubGraphView.ofSequences(gr, s2);
+        assertEquals(2, view.getAllVertices().size());
+        assertTrue(view.containsVertex(v1));
+        assertFalse(view.containsVertex(v2));
+    }
+
+    @Test
+    public void filteredEdgesTest() {
+        Graph<SequenceSegment> view = SubGraphView.ofSequences(gr, s2);
+        assertEquals(1, view.getAllEdges().size());
+        assertEquals(1, view.getIncoming(v3).size());
+        assertEquals(0, view.getOutgoing(v3).size());
+    }
+
+    @Test
+    public void sourcesSinksTest() {
+        Graph<SequenceSegment> view = SubGraphView.ofSequences(gr, s2);
+        assertEquals(1, view.getSources().size());
+        assertTrue(view.getSources().contains(v1));
+        assertEquals(1, view.getSinks().size());
+        assertTrue(view.getSinks().contains(v3));
+    }
+
+    @Test
+    public void sortedViewTest() {
+        Graph<SequenceSegment> view = SubGraphView.ofSequences(gr, s3);
+        assertEquals(v2, view.getAllVertices().first());
+        assertEquals(v4, view.getAllVertices().last());
+        assertTrue(view.getAllVertices().contains(v3));
+        assertFalse(view.getAllVertices().contains(v1));
+        assertEquals(1, view.getAllVertices().headSet(v3).size());
+    }
+
+    @Test
+    public void forEachVertexTest() {
+        Set<SequenceSegment> visited = new HashSet<>();
+        SubGraphView.ofSequences(gr, s2).forEachVertex(visited::add);
+        assertEquals(2, visited.size());
+        assertTrue(visited.contains(v1));
+        assertTrue(visited.contains(v3));
+    }
+
+    @Test
+    public void readOnlySetTest() {
+        thrown.expect(UnsupportedOperationException.class);
+        SubGraphView.ofSequences(gr, s2).getAllVertices().removeIf(
+                vertex -> true);
+    }
+
+    @Test
+    public void readOnlyTest() {
+        thrown.expect(UnsupportedOperationException.class);
+        SubGraphView.ofSequences(gr, s2).addVertex(v2);
+    }
+}
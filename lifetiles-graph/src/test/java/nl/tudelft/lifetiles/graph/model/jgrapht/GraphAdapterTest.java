@@ -168,6 +168,23 @@ public class GraphAdapterTest {
         assertEquals(1, copy.getAllEdges().size());
     }
 
+    @Test
+    public void testCopyKeepsIdentifiers() throws NotAJGraphTAdapterException {
+        gr.addVertex(v3);
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+
+        subgr = gf.getSubGraph(gr, new TreeSet<>(gr.getAllVertices()));
+        Graph<SequenceSegment> copy = gf.copy(subgr);
+        copy.addEdge(0, 1);
+        copy.addEdge(1, 2);
+
+        Edge<SequenceSegment> edge = copy.getOutgoing(v3).first();
+        assertEquals(v1, copy.getDestination(edge));
+        edge = copy.getOutgoing(v1).first();
+        assertEquals(v2, copy.getDestination(edge));
+    }
+
     @Test
     public void testSubGraphCreation() throws NotAJGraphTAdapterException {
         subgr = gf.getSubGraph(gr, null);
@@ -291,4 +308,53 @@ public class GraphAdapterTest {
 
     }
 
+    @Test
+    public void testDeepCopyWithCopier() {
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v3);
+
+        Graph<SequenceSegment> copy = gf.deepcopy(gr, SequenceSegment::new);
+
+        assertEquals(3, copy.getAllVertices().size());
+        assertEquals(2, copy.getAllEdges().size());
+        assertEquals(2, copy.getIncoming(v3).size());
+        assertFalse(copy.getSinks().iterator().next() == v3);
+    }
+
+    @Test
+    public void testCopySourcesSinks() {
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addEdge(v1, v3);
+        gr.addEdge(v2, v3);
+
+        Graph<SequenceSegment> copy = gf.copy(gr);
+
+        assertEquals(gr.getSources(), copy.getSources());
+        assertEquals(gr.getSinks(), copy.getSinks());
+    }
+
+    @Test
+    public void testSubGraphSources() throws NotAJGraphTAdapterException {
+        gr.addVertex(v1);
+        gr.addVertex(v2);
+        gr.addVertex(v3);
+        gr.addEdge(v1, v2);
+        gr.addEdge(v2, v3);
+
+        Set<SequenceSegment> cpy = new TreeSet<SequenceSegment>();
+        cpy.add(v2);
+        cpy.add(v3);
+
+        subgr = gf.getSubGraph(gr, cpy);
+        assertEquals(1, subgr.getSources().size());
+        assertTrue(subgr.getSources().contains(v2));
+        assertEquals(1, subgr.getSinks().size());
+        assertTrue(subgr.getSinks().contains(v3));
+    }
+
 }
@@ -10,6 +10,7 @@ import javafx.scene.Scene;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import nl.tudelft.lifetiles.core.metrics.MetricsRegistry;
 import nl.tudelft.lifetiles.core.util.Logging;
 
 /**
@@ -60,6 +61,7 @@ public class Launcher extends Application {
      */
     @Override
     public void start(final Stage stage) {
+        MetricsRegistry.getInstance().start();
         loadFonts();
         stage.initStyle(StageStyle.UNDECORATED);
 
@@ -272,7 +272,9 @@ public class SequenceController extends AbstractController {
             listener = (value, previous, current) -> {
                 if (previous != current) {
                     updateVisible(entry, current);
-                    shout(Message.FILTERED, "", visibleSequences);
+                    // listeners may keep the set, so it must not change.
+                    shout(Message.FILTERED, "", new HashSet<>(
+                            visibleSequences));
                 }
             };
             visibleListeners.put(entry, listener);
@@ -355,7 +357,8 @@ public class SequenceController extends AbstractController {
             addVisibilityListener(entry);
         }
 
-        visibleSequences = visibles;
+        // the set is changed by the checkboxes, so the shouted set is copied.
+        visibleSequences = new HashSet<>(visibles);
     }
 
 }
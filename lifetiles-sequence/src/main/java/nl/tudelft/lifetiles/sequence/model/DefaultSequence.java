@@ -17,6 +17,10 @@ public class DefaultSequence implements Sequence {
      * List of sequence segments related to this sequence.
      */
     private final List<SequenceSegment> sequenceList;
+    /**
+     * Index over the path of this sequence, built on first use.
+     */
+    private SequencePathIndex pathIndex;
 
     /**
      * @param identifier
@@ -33,6 +37,7 @@ public class DefaultSequence implements Sequence {
     @Override
     public void appendSegment(final SequenceSegment segment) {
         sequenceList.add(segment);
+        pathIndex = null;
     }
 
     /**
@@ -51,6 +56,17 @@ public class DefaultSequence implements Sequence {
         return sequenceList;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SequencePathIndex getPathIndex() {
+        if (pathIndex == null) {
+            pathIndex = new SequencePathIndex(sequenceList);
+        }
+        return pathIndex;
+    }
+
     /**
      * {@inheritDoc}
      */
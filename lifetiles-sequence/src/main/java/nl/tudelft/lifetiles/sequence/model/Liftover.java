@@ -0,0 +1,167 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Maps genome positions of one sequence onto the genome positions of another
+ * sequence. Positions are lifted through the unified coordinates of the graph:
+ * two positions correspond when their unified positions are equal. This is the
+ * same offset in a shared segment, or the same offset in two alternative
+ * segments of a variant site.
+ *
+ * The genome positions of a sequence are counted along its own path, so they
+ * differ from the start and end positions stored in the segments for every
+ * sequence but the first one through them.
+ *
+ * The unified positions of the graph must have been calculated before lifting.
+ * Any pair of sequences can be lifted, independent of the current reference.
+ *
+ * @author agent
+ *
+ */
+public final class Liftover {
+
+    /**
+     * Number of positions lifted by a single task when lifting in parallel.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The path of the sequence to lift from.
+     */
+    private final SequencePathIndex source;
+
+    /**
+     * The path of the sequence to lift to.
+     */
+    private final SequencePathIndex target;
+
+    /**
+     * Create a new liftover between two sequences.
+     *
+     * @param source
+     *            The sequence to lift positions from.
+     * @param target
+     *            The sequence to lift positions to.
+     */
+    public Liftover(final Sequence source, final Sequence target) {
+        this(source.getPathIndex(), target.getPathIndex());
+    }
+
+    /**
+     * Create a new liftover between two paths.
+     *
+     * @param source
+     *            The path to lift positions from.
+     * @param target
+     *            The path to lift positions to.
+     */
+    public Liftover(final SequencePathIndex source,
+            final SequencePathIndex target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Lifts a single genome position.
+     *
+     * @param position
+     *            The genome position in the source sequence.
+     * @return the corresponding genome position in the target sequence, or -1
+     *         if the target has no position at the same unified position.
+     */
+    public long lift(final long position) {
+        long unified = source.toUnified(position);
+        if (unified < 0) {
+            return -1;
+        }
+        return target.toGenome(unified);
+    }
+
+    /**
+     * Lifts a batch of genome positions, in parallel for large batches.
+     *
+     * @param positions
+     *            The genome positions in the source sequence.
+     * @return the corresponding genome positions in the target sequence, -1
+     *         for every position which could not be lifted.
+     */
+    public long[] lift(final long[] positions) {
+        long[] lifted = new long[positions.length];
+        chunked(positions.length).forEach(
+                index -> lifted[index] = lift(positions[index]));
+        return lifted;
+    }
+
+    /**
+     * Lifts an interval of genome positions. The ends of the interval do not
+     * have to be shared, the lifted interval is the part of the target
+     * sequence between the unified positions of the ends.
+     *
+     * @param start
+     *            The first genome position of the interval in the source.
+     * @param end
+     *            The last genome position of the interval in the source.
+     * @return the first and last genome position of the lifted interval, or
+     *         null if the target sequence has no positions in the interval or
+     *         an end is not on the source path.
+     */
+    public long[] liftInterval(final long start, final long end) {
+        long unifiedStart = source.toUnified(start);
+        long unifiedEnd = source.toUnified(end);
+        if (unifiedStart < 0 || unifiedEnd < 0) {
+            return null;
+        }
+        long liftedStart = target.toGenomeCeiling(unifiedStart);
+        long liftedEnd = target.toGenomeFloor(unifiedEnd);
+        if (liftedStart < 0 || liftedEnd < liftedStart) {
+            return null;
+        }
+        return new long[] {liftedStart, liftedEnd };
+    }
+
+    /**
+     * Lifts a batch of intervals, in parallel for large batches.
+     *
+     * @param starts
+     *            The first genome positions of the intervals in the source.
+     * @param ends
+     *            The last genome positions of the intervals in the source.
+     * @return the lifted intervals, as in {@link #liftInterval(long, long)}.
+     */
+    public long[][] liftIntervals(final long[] starts, final long[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException(
+                    "Number of interval starts and ends differ.");
+        }
+        long[][] lifted = new long[starts.length][];
+        chunked(starts.length).forEach(
+                index -> lifted[index] = liftInterval(starts[index],
+                        ends[index]));
+        return lifted;
+    }
+
+    /**
+     * @return a liftover in the opposite direction.
+     */
+    public Liftover reverse() {
+        return new Liftover(target, source);
+    }
+
+    /**
+     * Creates a stream over the indices in [0, size), which is parallel when
+     * there are more indices than fit in a single chunk.
+     *
+     * @param size
+     *            the number of indices
+     * @return the index stream
+     */
+    private static IntStream chunked(final int size) {
+        IntStream indices = IntStream.range(0, size);
+        if (size > CHUNK_SIZE) {
+            return indices.parallel();
+        }
+        return indices;
+    }
+
+}
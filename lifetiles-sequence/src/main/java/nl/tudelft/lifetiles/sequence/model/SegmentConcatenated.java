@@ -0,0 +1,90 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Segment content consisting of the contents of multiple consecutive segments.
+ * The contents are only concatenated when the string representation is
+ * requested.
+ *
+ * @author agent
+ *
+ */
+public class SegmentConcatenated implements SegmentContent {
+
+    /**
+     * The parts making up this content, in order.
+     */
+    private final List<SegmentContent> parts;
+
+    /**
+     * The total length of the parts.
+     */
+    private final long length;
+
+    /**
+     * Constructs a concatenation of segment contents.
+     *
+     * @param parts
+     *            The contents to concatenate, in order.
+     */
+    public SegmentConcatenated(final List<SegmentContent> parts) {
+        this.parts = new ArrayList<>(parts);
+        long total = 0;
+        for (SegmentContent part : parts) {
+            total += part.getLength();
+        }
+        this.length = total;
+    }
+
+    /**
+     * @return the parts making up this content, in order.
+     */
+    public List<SegmentContent> getParts() {
+        return Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * @return the total length of the parts.
+     */
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the concatenated string representation of the parts.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder((int) length);
+        for (SegmentContent part : parts) {
+            builder.append(part.toString());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return whether all parts are empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        for (SegmentContent part : parts) {
+            if (!part.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the segment has been collapsed.
+     */
+    @Override
+    public boolean isCollapsed() {
+        return false;
+    }
+
+}
@@ -13,6 +13,17 @@ public interface SegmentContent {
      */
     long getLength();
 
+    /**
+     * @return number of nucleotides of the genome covered by the content, this
+     *         differs from the length for empty and collapsed content.
+     */
+    default long getGenomeLength() {
+        if (isEmpty()) {
+            return 0;
+        }
+        return getLength();
+    }
+
     /**
      * @return string representation of the segment content.
      */
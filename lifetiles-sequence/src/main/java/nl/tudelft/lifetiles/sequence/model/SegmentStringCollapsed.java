@@ -44,6 +44,15 @@ public class SegmentStringCollapsed implements SegmentContent {
         return length;
     }
 
+    /**
+     * @return number of nucleotides of the genome covered by the actual
+     *         content.
+     */
+    @Override
+    public long getGenomeLength() {
+        return content.getGenomeLength();
+    }
+
     /**
      * @return string representation of the collapsed segment.
      */
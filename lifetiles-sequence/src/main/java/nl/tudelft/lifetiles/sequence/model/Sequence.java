@@ -27,4 +27,12 @@ public interface Sequence {
      * @return A list of sequence segments.
      */
     List<SequenceSegment> getSegments();
+
+    /**
+     * Return the index over the path of this sequence, used to look up the
+     * segment at a genome position.
+     *
+     * @return The path index of this sequence.
+     */
+    SequencePathIndex getPathIndex();
 }
@@ -0,0 +1,313 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index over the path of a sequence through the graph. The segments are kept
+ * in path order together with their genome start and end positions, so the
+ * segment at a genome position is found by binary search instead of a scan
+ * over all segments.
+ *
+ * The start and end positions stored in the segments are those of the first
+ * sequence passing through them, so the genome positions of this sequence are
+ * computed by summing the lengths of the contents along its own path. The path
+ * order is the unified order, so the index must be built after the graph has
+ * been unified.
+ *
+ * @author agent
+ *
+ */
+public final class SequencePathIndex {
+
+    /**
+     * Orders segments along the path, by unified start and end position and
+     * then by their natural order.
+     */
+    private static final Comparator<SequenceSegment> PATH_ORDER = Comparator
+            .comparingLong(SequenceSegment::getUnifiedStart)
+            .thenComparingLong(SequenceSegment::getUnifiedEnd)
+            .thenComparing(Comparator.naturalOrder());
+
+    /**
+     * The segments in path order.
+     */
+    private final SequenceSegment[] segments;
+
+    /**
+     * The identifiers of the segments, in path order.
+     */
+    private final int[] identifiers;
+
+    /**
+     * The genome start positions of the segments on this path, in path order.
+     */
+    private final long[] starts;
+
+    /**
+     * The genome end positions of the segments on this path, in path order.
+     */
+    private final long[] ends;
+
+    /**
+     * Create a new path index.
+     *
+     * @param path
+     *            The segments on the path, in any order. The genome positions
+     *            of the path start at the start position of the first
+     *            segment, which the sequences entering it share.
+     */
+    public SequencePathIndex(final Collection<SequenceSegment> path) {
+        segments = path.toArray(new SequenceSegment[path.size()]);
+        Arrays.sort(segments, PATH_ORDER);
+        identifiers = new int[segments.length];
+        starts = new long[segments.length];
+        ends = new long[segments.length];
+        long position = 0;
+        if (segments.length > 0) {
+            position = segments[0].getStart();
+        }
+        for (int index = 0; index < segments.length; index++) {
+            identifiers[index] = segments[index].getIdentifier();
+            starts[index] = position;
+            position += segments[index].getContent().getGenomeLength();
+            ends[index] = position;
+        }
+    }
+
+    /**
+     * @return the number of segments on the path.
+     */
+    public int size() {
+        return segments.length;
+    }
+
+    /**
+     * @return the segments in path order.
+     */
+    public List<SequenceSegment> getSegments() {
+        return Collections.unmodifiableList(Arrays.asList(segments));
+    }
+
+    /**
+     * @param index
+     *            The index of the segment on the path.
+     * @return the identifier of the segment.
+     */
+    public int getIdentifier(final int index) {
+        return identifiers[index];
+    }
+
+    /**
+     * @param index
+     *            The index of the segment on the path.
+     * @return the segment.
+     */
+    public SequenceSegment getSegment(final int index) {
+        return segments[index];
+    }
+
+    /**
+     * @param index
+     *            The index of the segment on the path.
+     * @return the genome position at which the segment starts.
+     */
+    public long getStart(final int index) {
+        return starts[index];
+    }
+
+    /**
+     * Finds the index of the last segment starting at or before a genome
+     * position.
+     *
+     * @param position
+     *            The genome position.
+     * @return the index of the segment, or -1 if all segments start after the
+     *         position.
+     */
+    private int floorIndex(final long position) {
+        int index = Arrays.binarySearch(starts, position);
+        if (index < 0) {
+            return -index - 2;
+        }
+        // several empty segments may start at the same position, take the
+        // last one.
+        while (index + 1 < starts.length && starts[index + 1] == position) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the index of the segment containing a genome position.
+     *
+     * @param position
+     *            The genome position.
+     * @return the index of the segment on the path, or -1 if no segment
+     *         contains the position.
+     */
+    public int indexAt(final long position) {
+        int index = floorIndex(position);
+        if (index < 0 || ends[index] <= position) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the index of the segment containing a genome position, or of the
+     * first segment after it if no segment contains it.
+     *
+     * @param position
+     *            The genome position.
+     * @return the index of the segment on the path, or -1 if the path ends
+     *         before the position.
+     */
+    public int ceilingIndex(final long position) {
+        int index = Math.max(0, floorIndex(position));
+        while (index < segments.length && ends[index] <= position) {
+            index++;
+        }
+        if (index == segments.length) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * @param position
+     *            The genome position.
+     * @return the segment containing the genome position, or null if no
+     *         segment contains it.
+     */
+    public SequenceSegment segmentAt(final long position) {
+        int index = indexAt(position);
+        if (index < 0) {
+            return null;
+        }
+        return segments[index];
+    }
+
+    /**
+     * Finds all segments overlapping a range of genome positions.
+     *
+     * @param start
+     *            The first genome position of the range.
+     * @param end
+     *            The last genome position of the range.
+     * @return the overlapping segments, in path order.
+     */
+    public List<SequenceSegment> segmentsBetween(final long start,
+            final long end) {
+        List<SequenceSegment> result = new ArrayList<>();
+        int index = Math.max(0, floorIndex(start));
+        while (index < segments.length && starts[index] <= end) {
+            if (ends[index] > start) {
+                result.add(segments[index]);
+            }
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Converts a genome position into a unified position.
+     *
+     * @param position
+     *            The genome position.
+     * @return the unified position, or -1 if no segment contains the genome
+     *         position.
+     */
+    public long toUnified(final long position) {
+        int index = indexAt(position);
+        if (index < 0) {
+            return -1;
+        }
+        return segments[index].getUnifiedStart() + position - starts[index];
+    }
+
+    /**
+     * Converts a unified position into a genome position. Unified positions
+     * increase along the path, so this is a binary search as well.
+     *
+     * @param unified
+     *            The unified position.
+     * @return the genome position, or -1 if the path does not cover the
+     *         unified position.
+     */
+    public long toGenome(final long unified) {
+        long position = toGenomeCeiling(unified);
+        int index = indexAt(position);
+        if (index < 0 || segments[index].getUnifiedStart() + position
+                - starts[index] != unified) {
+            return -1;
+        }
+        return position;
+    }
+
+    /**
+     * Finds the first genome position on the path at or after a unified
+     * position.
+     *
+     * @param unified
+     *            The unified position.
+     * @return the genome position, or -1 if the path ends before the unified
+     *         position.
+     */
+    public long toGenomeCeiling(final long unified) {
+        // first segment that ends after the unified position
+        int low = 0;
+        int high = segments.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segments[middle].getUnifiedEnd() <= unified) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int index = low; index < segments.length; index++) {
+            long offset = Math.max(0, unified
+                    - segments[index].getUnifiedStart());
+            if (starts[index] + offset < ends[index]) {
+                return starts[index] + offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the last genome position on the path at or before a unified
+     * position.
+     *
+     * @param unified
+     *            The unified position.
+     * @return the genome position, or -1 if the path starts after the unified
+     *         position.
+     */
+    public long toGenomeFloor(final long unified) {
+        // last segment that starts at or before the unified position
+        int low = 0;
+        int high = segments.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segments[middle].getUnifiedStart() <= unified) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int index = low - 1; index >= 0; index--) {
+            if (ends[index] > starts[index]) {
+                long offset = unified - segments[index].getUnifiedStart();
+                return Math.min(ends[index] - 1, starts[index] + offset);
+            }
+        }
+        return -1;
+    }
+
+}
@@ -1,12 +1,8 @@
 package nl.tudelft.lifetiles.sequence.model;
 
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.ToIntBiFunction;
 
 import nl.tudelft.lifetiles.sequence.Mutation;
 
@@ -61,32 +57,6 @@ public class SequenceSegment implements Comparable<SequenceSegment> {
      */
     private Mutation mutation;
 
-    /**
-     * Used for compareTo.
-     */
-    private static final List<ToIntBiFunction<SequenceSegment, SequenceSegment>> COMPARATORS = Arrays
-            .asList((left, right) -> {
-                return Long.compare(left.getUnifiedStart(),
-                        right.getUnifiedStart());
-            },
-                    (left, right) -> {
-                        return Long.compare(left.getStart(), right.getStart());
-                    },
-                    (left, right) -> {
-                        return Long.compare(left.getUnifiedEnd(),
-                                right.getUnifiedEnd());
-                    },
-                    (left, right) -> {
-                        return Long.compare(left.getEnd(), right.getEnd());
-                    },
-                    (left, right) -> {
-                        return left.getContent().toString()
-                                .compareTo(right.getContent().toString());
-                    }, (left, right) -> {
-                        return left.getSources().size()
-                                - right.getSources().size();
-                    });
-
     /**
      * @param sources
      *            The sources containing this segment.
@@ -233,33 +203,29 @@ public class SequenceSegment implements Comparable<SequenceSegment> {
     }
 
     /**
-     * Compares two segments, first by start positions, then end positions, then
-     * content, then sources.
+     * Compares two segments, first by unified start position, then start
+     * position, then unified end position, then end position and finally by
+     * identifier. Only primitive fields are compared, so no content strings
+     * or source sets are touched while sorting.
      *
      * @param other
      *            Sequence segment which needs to be compared.
-     * @return the compare value of the start positions.
+     * @return the compare value of the positions and identifiers.
      */
     @Override
     public int compareTo(final SequenceSegment other) {
-        for (ToIntBiFunction<SequenceSegment, SequenceSegment> comp : COMPARATORS) {
-            int result = comp.applyAsInt(this, other);
-            if (result != 0) {
-                return result;
-            }
+        int candidateComp = Long.compare(unifiedStart, other.unifiedStart);
+        if (candidateComp == 0) {
+            candidateComp = Long.compare(start, other.start);
         }
-        int candidateComp = 0;
-        Iterator<Sequence> thisIt = this.getSources().iterator();
-        Iterator<Sequence> otherIt = other.getSources().iterator();
-        while (thisIt.hasNext()) {
-            candidateComp = thisIt.next().getIdentifier()
-                    .compareTo(otherIt.next().getIdentifier());
-            if (candidateComp != 0) {
-                return candidateComp;
-            }
+        if (candidateComp == 0) {
+            candidateComp = Long.compare(unifiedEnd, other.unifiedEnd);
         }
-        if (this.getIdentifier() == other.getIdentifier()) {
-            candidateComp = 0;
+        if (candidateComp == 0) {
+            candidateComp = Long.compare(end, other.end);
+        }
+        if (candidateComp == 0) {
+            candidateComp = Integer.compare(identifier, other.identifier);
         }
         return candidateComp;
     }
@@ -364,17 +330,39 @@ public class SequenceSegment implements Comparable<SequenceSegment> {
      * @return the interestingness score
      */
     public double interestingness() {
+        return interestingness(content, sources.size());
+    }
+
+    /**
+     * Calculate the contextless interestingness of a segment from a snapshot
+     * of its content and number of sources, so it can be calculated while the
+     * segment itself changes.
+     *
+     * @param content
+     *            the content of the segment
+     * @param sources
+     *            the number of sources of the segment
+     * @return the interestingness score
+     */
+    public static double interestingness(final SegmentContent content,
+            final int sources) {
         if (content.isEmpty()) {
             return 0;
         }
 
-        final String uninteresting = "N";
+        final char uninteresting = 'N';
 
         final String rawContent = content.toString();
-        final String cleanContent = rawContent.replace(uninteresting, "");
+        int unknown = 0;
+        for (int index = 0; index < rawContent.length(); index++) {
+            if (rawContent.charAt(index) == uninteresting) {
+                unknown++;
+            }
+        }
 
-        double contentScore = (rawContent.length() + cleanContent.length()) / 2.0;
+        // average of the length with and without the unknown nucleotides
+        double contentScore = rawContent.length() - unknown / 2.0;
 
-        return contentScore / sources.size();
+        return contentScore / sources;
     }
 }
@@ -0,0 +1,112 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LiftoverTest {
+    Sequence seq1, seq2;
+    SequenceSegment shared1, private1, private2, shared2;
+    Liftover liftover;
+
+    private static SequenceSegment segment(final Set<Sequence> sources,
+            final long start, final long unifiedStart, final String content) {
+        SequenceSegment segment = new SequenceSegment(sources, start, start
+                + content.length(), new SegmentString(content));
+        segment.setUnifiedStart(unifiedStart);
+        segment.setUnifiedEnd(unifiedStart + content.length());
+        for (Sequence sequence : sources) {
+            sequence.appendSegment(segment);
+        }
+        return segment;
+    }
+
+    @Before
+    public void setUp() {
+        seq1 = new DefaultSequence("seq1");
+        seq2 = new DefaultSequence("seq2");
+        Set<Sequence> both = new HashSet<>(Arrays.asList(seq1, seq2));
+        // shared1 -> {private1 | private2} -> shared2
+        shared1 = segment(both, 1, 1, "AAAA");
+        private1 = segment(new HashSet<>(Arrays.asList(seq1)), 5, 5, "CC");
+        private2 = segment(new HashSet<>(Arrays.asList(seq2)), 5, 5, "G");
+        shared2 = segment(both, 7, 7, "TTT");
+        liftover = new Liftover(seq1, seq2);
+    }
+
+    @Test
+    public void liftSharedTest() {
+        assertEquals(3, liftover.lift(3));
+        // seq2 skips a position in the variant site before shared2.
+        assertEquals(7, liftover.lift(8));
+    }
+
+    @Test
+    public void liftReverseTest() {
+        Liftover reverse = liftover.reverse();
+        assertEquals(8, reverse.lift(7));
+        assertEquals(5, reverse.lift(5));
+        assertArrayEquals(new long[] {7, 9 }, reverse.liftInterval(6, 8));
+    }
+
+    @Test
+    public void liftBetweenLaterSequencesTest() {
+        // neither sequence is the first one through the segments.
+        Sequence seq3 = new DefaultSequence("seq3");
+        seq3.appendSegment(shared1);
+        seq3.appendSegment(shared2);
+        shared1.getSources().add(seq3);
+        shared2.getSources().add(seq3);
+        Liftover lift = new Liftover(seq2, seq3);
+        assertEquals(5, lift.lift(6));
+        assertEquals(-1, lift.lift(5));
+        assertEquals(6, lift.reverse().lift(5));
+    }
+
+    @Test
+    public void liftPrivateTest() {
+        assertEquals(5, liftover.lift(5));
+        assertEquals(-1, liftover.lift(6));
+        assertEquals(-1, liftover.lift(100));
+    }
+
+    @Test
+    public void liftBatchTest() {
+        long[] positions = new long[10000];
+        for (int index = 0; index < positions.length; index++) {
+            positions[index] = index % 10;
+        }
+        long[] lifted = liftover.lift(positions);
+        for (int index = 0; index < positions.length; index++) {
+            assertEquals(liftover.lift(positions[index]), lifted[index]);
+        }
+    }
+
+    @Test
+    public void liftIntervalTest() {
+        assertArrayEquals(new long[] {2, 8 }, liftover.liftInterval(2, 9));
+        assertArrayEquals(new long[] {5, 5 }, liftover.liftInterval(5, 6));
+        assertNull(liftover.reverse().liftInterval(0, 1));
+    }
+
+    @Test
+    public void liftIntervalsTest() {
+        long[][] lifted = liftover.liftIntervals(new long[] {1, 6 },
+                new long[] {4, 6 });
+        assertArrayEquals(new long[] {1, 4 }, lifted[0]);
+        assertNull(lifted[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void liftIntervalsLengthTest() {
+        liftover.liftIntervals(new long[] {1 }, new long[0]);
+    }
+
+}
@@ -0,0 +1,49 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SegmentConcatenatedTest {
+
+    private SegmentConcatenated s;
+
+    @Before
+    public void setup() {
+        s = new SegmentConcatenated(Arrays.asList(new SegmentString("ATCG"),
+                new SegmentString("GG")));
+    }
+
+    @Test
+    public void segmentLengthTest() {
+        assertEquals(6, s.getLength());
+    }
+
+    @Test
+    public void segmentEmptyTest() {
+        assertFalse(s.isEmpty());
+    }
+
+    @Test
+    public void segmentAllEmptyTest() {
+        s = new SegmentConcatenated(Arrays.asList(new SegmentEmpty(2),
+                new SegmentEmpty(3)));
+        assertTrue(s.isEmpty());
+    }
+
+    @Test
+    public void segmentToStringTest() {
+        assertEquals("ATCGGG", s.toString());
+    }
+
+    @Test
+    public void segmentPartsTest() {
+        assertEquals(2, s.getParts().size());
+    }
+
+}
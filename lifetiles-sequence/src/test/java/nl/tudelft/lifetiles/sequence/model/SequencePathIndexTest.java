@@ -0,0 +1,116 @@
+package nl.tudelft.lifetiles.sequence.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SequencePathIndexTest {
+    Sequence sequence;
+    SequenceSegment ss1, ss2, ss3;
+    SequencePathIndex index;
+
+    @Before
+    public void setUp() {
+        sequence = new DefaultSequence("s1");
+        ss1 = new SequenceSegment(new HashSet<Sequence>(), 1, 4,
+                new SegmentString("AAA"));
+        ss2 = new SequenceSegment(new HashSet<Sequence>(), 4, 6,
+                new SegmentString("CC"));
+        ss3 = new SequenceSegment(new HashSet<Sequence>(), 8, 10,
+                new SegmentString("GG"));
+        ss1.setUnifiedStart(1);
+        ss1.setUnifiedEnd(4);
+        ss2.setUnifiedStart(5);
+        ss2.setUnifiedEnd(7);
+        ss3.setUnifiedStart(10);
+        ss3.setUnifiedEnd(12);
+        // appended out of path order on purpose
+        sequence.appendSegment(ss3);
+        sequence.appendSegment(ss1);
+        sequence.appendSegment(ss2);
+        index = sequence.getPathIndex();
+    }
+
+    @Test
+    public void pathOrderTest() {
+        assertEquals(Arrays.asList(ss1, ss2, ss3), index.getSegments());
+        assertEquals(ss2.getIdentifier(), index.getIdentifier(1));
+    }
+
+    @Test
+    public void segmentAtTest() {
+        assertSame(ss1, index.segmentAt(1));
+        assertSame(ss1, index.segmentAt(3));
+        assertSame(ss2, index.segmentAt(4));
+        assertSame(ss3, index.segmentAt(7));
+        assertNull(index.segmentAt(0));
+        assertNull(index.segmentAt(8));
+    }
+
+    @Test
+    public void segmentsBetweenTest() {
+        List<SequenceSegment> segments = index.segmentsBetween(3, 6);
+        assertEquals(Arrays.asList(ss1, ss2, ss3), segments);
+        assertEquals(Arrays.asList(ss2), index.segmentsBetween(4, 5));
+    }
+
+    @Test
+    public void unifiedTest() {
+        assertEquals(6, index.toUnified(5));
+        assertEquals(11, index.toUnified(7));
+        assertEquals(-1, index.toUnified(8));
+        assertEquals(5, index.toGenome(6));
+        assertEquals(-1, index.toGenome(8));
+        assertEquals(7, index.toGenome(11));
+    }
+
+    @Test
+    public void invalidateTest() {
+        SequenceSegment ss4 = new SequenceSegment(new HashSet<Sequence>(), 10,
+                11, new SegmentString("T"));
+        ss4.setUnifiedStart(12);
+        ss4.setUnifiedEnd(13);
+        sequence.appendSegment(ss4);
+        assertEquals(4, sequence.getPathIndex().size());
+        assertSame(ss4, sequence.getPathIndex().segmentAt(8));
+    }
+
+    @Test
+    public void skippedSegmentTest() {
+        // the other sequence skips ss2, the positions in the headers are
+        // those of the first sequence.
+        Sequence other = new DefaultSequence("s2");
+        other.appendSegment(ss1);
+        other.appendSegment(ss3);
+        SequencePathIndex otherIndex = other.getPathIndex();
+        assertEquals(4, otherIndex.getStart(1));
+        assertSame(ss3, otherIndex.segmentAt(4));
+        assertSame(ss3, otherIndex.segmentAt(5));
+        assertNull(otherIndex.segmentAt(6));
+        assertEquals(11, otherIndex.toUnified(5));
+        assertEquals(5, otherIndex.toGenome(11));
+        assertEquals(-1, otherIndex.toGenome(6));
+        assertEquals(4, otherIndex.toGenomeCeiling(6));
+    }
+
+    @Test
+    public void collapsedTest() {
+        // collapsed and empty content keep their length on the genome.
+        ss2.setContent(new SegmentStringCollapsed(ss2.getContent()));
+        SequenceSegment empty = new SequenceSegment(new HashSet<Sequence>(),
+                6, 6, new SegmentEmpty(3));
+        empty.setUnifiedStart(7);
+        empty.setUnifiedEnd(10);
+        sequence.appendSegment(empty);
+        assertSame(ss2, sequence.getPathIndex().segmentAt(5));
+        assertSame(ss3, sequence.getPathIndex().segmentAt(6));
+    }
+
+}
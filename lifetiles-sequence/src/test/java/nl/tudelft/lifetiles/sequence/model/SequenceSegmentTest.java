@@ -81,6 +81,17 @@ public class SequenceSegmentTest {
         assertEquals(0, v1.compareTo(v1));
     }
 
+    @Test
+    public void testCompareSamePositions() {
+        SequenceSegment other = new SequenceSegment(v1.getSources(), 1, 10,
+                new SegmentString("AAAAAAAAAA"));
+        other.setUnifiedStart(1);
+        other.setUnifiedEnd(10);
+        assertTrue(v1.compareTo(other) < 0);
+        assertTrue(other.compareTo(v1) > 0);
+        assertEquals(2, new TreeSet<>(Arrays.asList(v1, other)).size());
+    }
+
     @Test
     public void testCompareModify() {
         Set<SequenceSegment> segments = new HashSet<>();
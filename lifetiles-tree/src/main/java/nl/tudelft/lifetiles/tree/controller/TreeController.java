@@ -1,11 +1,14 @@
 package nl.tudelft.lifetiles.tree.controller;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Scanner;
 import java.util.Set;
 
 import javafx.fxml.FXML;
@@ -16,6 +19,7 @@ import nl.tudelft.lifetiles.core.util.Logging;
 import nl.tudelft.lifetiles.core.util.Message;
 import nl.tudelft.lifetiles.core.util.Timer;
 import nl.tudelft.lifetiles.sequence.model.Sequence;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeIndex;
 import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
 import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeParser;
 import nl.tudelft.lifetiles.tree.view.SunburstView;
@@ -45,6 +49,11 @@ public class TreeController extends AbstractController {
      */
     private PhylogeneticTreeItem tree;
 
+    /**
+     * The index used to filter the tree model.
+     */
+    private PhylogeneticTreeIndex treeIndex;
+
     /**
      * The visible tree model.
      */
@@ -73,7 +82,7 @@ public class TreeController extends AbstractController {
             assert args[0] instanceof File;
             try {
                 loadTree((File) args[0]);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 Logging.exception(e);
             }
         });
@@ -87,6 +96,9 @@ public class TreeController extends AbstractController {
                     @SuppressWarnings("unchecked")
                     Map<String, Sequence> newSequences = (Map<String, Sequence>) args[0];
                     sequences = newSequences;
+                    if (tree != null) {
+                        indexTree();
+                    }
                     repaint();
                 });
 
@@ -115,32 +127,36 @@ public class TreeController extends AbstractController {
      *
      * @param file
      *            The .nwk file
-     * @throws FileNotFoundException
-     *             when the file is not found
+     * @throws IOException
+     *             when the file can not be read
      */
     // simple files, so default encoding is fine. Better to keep things
     // flexible with respect to what files can be parsed.
     @SuppressFBWarnings("DM_DEFAULT_ENCODING")
-    private void loadTree(final File file) throws FileNotFoundException {
-        // convert the file to a single string
-        String fileString = null;
-        Scanner scanner = new Scanner(file);
-        scanner.useDelimiter("\\Z");
-
-        fileString = scanner.next();
-        scanner.close();
-
-        // parse the string into a tree
-        tree = PhylogeneticTreeParser.parse(fileString);
-        linkSequence(sequences, tree);
-        tree.populateChildSequences();
-        visibleTree = tree;
+    private void loadTree(final File file) throws IOException {
+        Timer timer = Timer.getAndStart();
+        // parse the file into a tree, without reading it into memory first
+        try (Reader reader = new FileReader(file)) {
+            tree = PhylogeneticTreeParser.parse(reader);
+        }
+        timer.stopAndLog("Parsing tree");
+        indexTree();
 
         repaint();
 
         shout(Message.LOADED, "tree", tree);
     }
 
+    /**
+     * Links the sequences to the tree and rebuilds the index used to filter
+     * it, which shows the whole tree again.
+     */
+    private void indexTree() {
+        linkSequence(sequences, tree);
+        treeIndex = new PhylogeneticTreeIndex(tree);
+        visibleTree = tree;
+    }
+
     /**
      * Repaints the view.
      */
@@ -161,12 +177,18 @@ public class TreeController extends AbstractController {
      */
     private void linkSequence(final Map<String, Sequence> sequences,
             final PhylogeneticTreeItem node) {
-        String ident = node.getName();
-        Sequence sequence = sequences.get(ident);
-        node.setSequence(sequence);
-
-        for (PhylogeneticTreeItem child : node.getChildren()) {
-            linkSequence(sequences, child);
+        // walk the tree without recursion, trees can be very deep.
+        Deque<PhylogeneticTreeItem> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            PhylogeneticTreeItem current = stack.pop();
+            String ident = current.getName();
+            Sequence sequence = sequences.get(ident);
+            current.setSequence(sequence);
+
+            for (PhylogeneticTreeItem child : current.getChildren()) {
+                stack.push(child);
+            }
         }
     }
 
@@ -179,10 +201,8 @@ public class TreeController extends AbstractController {
      */
     private void setVisible(final Set<Sequence> visible) {
         Timer timer = Timer.getAndStart();
-        visibleTree = tree.subTree(visible);
-
-        linkSequence(sequences, visibleTree);
-        visibleTree.populateChildSequences();
+        // the index copies the sequences into the subtree.
+        visibleTree = treeIndex.subTree(visible);
 
         timer.stopAndLog("creating subtree");
         repaint();
@@ -0,0 +1,100 @@
+package nl.tudelft.lifetiles.tree.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares the structure of two trees. Tree nodes are only equal to
+ * themselves, this comparator is used where two separately built trees have
+ * to be compared, mostly in tests. Two trees compare as equal when their
+ * nodes have the same:
+ *
+ * <ol>
+ * <li>name or both have no name</li>
+ * <li>distance</li>
+ * <li>children, order does not matter</li>
+ * </ol>
+ *
+ * Comparing sorts the children of every node, so it is not meant for large
+ * trees.
+ *
+ * @author agent
+ *
+ */
+public final class PhylogeneticTreeComparator implements
+        Comparator<PhylogeneticTreeItem>, Serializable {
+
+    /**
+     * Version of the serialized form.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(final PhylogeneticTreeItem left,
+            final PhylogeneticTreeItem right) {
+        if (left == right) {
+            return 0;
+        }
+        int result = Double.compare(left.getDistance(), right.getDistance());
+        if (result != 0) {
+            return result;
+        }
+        result = compareNames(left.getName(), right.getName());
+        if (result != 0) {
+            return result;
+        }
+        result = Integer.compare(left.getChildren().size(), right
+                .getChildren().size());
+        if (result != 0) {
+            return result;
+        }
+        List<PhylogeneticTreeItem> leftChildren = sortedChildren(left);
+        List<PhylogeneticTreeItem> rightChildren = sortedChildren(right);
+        for (int index = 0; index < leftChildren.size(); index++) {
+            result = compare(leftChildren.get(index), rightChildren.get(index));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param node
+     *            the node to sort the children of.
+     * @return the children of the node, sorted by this comparator.
+     */
+    private List<PhylogeneticTreeItem> sortedChildren(
+            final PhylogeneticTreeItem node) {
+        List<PhylogeneticTreeItem> children = new ArrayList<>(
+                node.getChildren());
+        children.sort(this);
+        return children;
+    }
+
+    /**
+     * @param left
+     *            the first name, may be null.
+     * @param right
+     *            the second name, may be null.
+     * @return the order of the names, nodes without a name first.
+     */
+    private static int compareNames(final String left, final String right) {
+        if (left == null) {
+            if (right == null) {
+                return 0;
+            }
+            return -1;
+        }
+        if (right == null) {
+            return 1;
+        }
+        return left.compareTo(right);
+    }
+
+}
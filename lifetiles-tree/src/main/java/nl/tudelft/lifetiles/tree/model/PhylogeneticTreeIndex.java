@@ -0,0 +1,188 @@
+package nl.tudelft.lifetiles.tree.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+
+/**
+ * Index over a phylogenetic tree which is used to filter it. Every sequence in
+ * the tree gets a bit, and every node the set of bits of the sequences below
+ * it. The index is built once, after that the visible subtree is extracted in
+ * a single pass over the nodes without copying any sets of sequences.
+ *
+ * @author agent
+ *
+ */
+public final class PhylogeneticTreeIndex {
+
+    /**
+     * The nodes of the tree in pre-order, the root first.
+     */
+    private final PhylogeneticTreeItem[] nodes;
+
+    /**
+     * The indices of the children of every node.
+     */
+    private final int[][] children;
+
+    /**
+     * The bits of the sequences below every node, including its own.
+     */
+    private final BitSet[] sequenceBits;
+
+    /**
+     * The bit of every sequence in the tree.
+     */
+    private final Map<Sequence, Integer> bits;
+
+    /**
+     * Builds the index over the tree below a node. The sequences should
+     * already have been added to the tree.
+     *
+     * @param root
+     *            the root of the tree to index.
+     */
+    public PhylogeneticTreeIndex(final PhylogeneticTreeItem root) {
+        List<PhylogeneticTreeItem> order = new ArrayList<>();
+        Map<PhylogeneticTreeItem, Integer> indices = new IdentityHashMap<>();
+        Deque<PhylogeneticTreeItem> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            PhylogeneticTreeItem node = stack.pop();
+            indices.put(node, order.size());
+            order.add(node);
+            for (PhylogeneticTreeItem child : node.getChildren()) {
+                stack.push(child);
+            }
+        }
+        nodes = order.toArray(new PhylogeneticTreeItem[order.size()]);
+        children = new int[nodes.length][];
+        bits = new HashMap<>();
+        for (int index = 0; index < nodes.length; index++) {
+            List<PhylogeneticTreeItem> nodeChildren = nodes[index]
+                    .getChildren();
+            children[index] = new int[nodeChildren.size()];
+            for (int child = 0; child < children[index].length; child++) {
+                children[index][child] = indices.get(nodeChildren.get(child));
+            }
+            Sequence sequence = nodes[index].getSequence();
+            if (sequence != null && !bits.containsKey(sequence)) {
+                bits.put(sequence, bits.size());
+            }
+        }
+
+        sequenceBits = new BitSet[nodes.length];
+        // children come after their parent in pre-order.
+        for (int index = nodes.length - 1; index >= 0; index--) {
+            // every node needs its own set of bits.
+            @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+            BitSet nodeBits = new BitSet(bits.size());
+            Sequence sequence = nodes[index].getSequence();
+            if (sequence != null) {
+                nodeBits.set(bits.get(sequence));
+            }
+            for (int child : children[index]) {
+                nodeBits.or(sequenceBits[child]);
+            }
+            sequenceBits[index] = nodeBits;
+        }
+    }
+
+    /**
+     * @param sequences
+     *            the sequences to convert.
+     * @return the bits of the sequences, sequences which are not in the tree
+     *         are ignored.
+     */
+    public BitSet toBits(final Set<Sequence> sequences) {
+        BitSet result = new BitSet(bits.size());
+        for (Sequence sequence : sequences) {
+            Integer bit = bits.get(sequence);
+            if (bit != null) {
+                result.set(bit);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new tree that only contains the visible nodes. When a node has
+     * only one child, it is removed from the tree and its child is used
+     * instead. Nodes without visible sequences below them are removed.
+     *
+     * @param visibleSequences
+     *            the sequences that need to be in this tree.
+     * @return the root of the new tree, or null if no sequence is visible.
+     */
+    public PhylogeneticTreeItem subTree(final Set<Sequence> visibleSequences) {
+        BitSet visible = toBits(visibleSequences);
+        PhylogeneticTreeItem[] copies = new PhylogeneticTreeItem[nodes.length];
+        // children come after their parent in pre-order.
+        for (int index = nodes.length - 1; index >= 0; index--) {
+            if (sequenceBits[index].intersects(visible)) {
+                copies[index] = copy(index, visible, copies);
+            }
+        }
+        return copies[0];
+    }
+
+    /**
+     * Copies a node into the visible tree.
+     *
+     * @param index
+     *            the index of the node to copy.
+     * @param visible
+     *            the bits of the visible sequences.
+     * @param copies
+     *            the copies of the nodes made so far, including the children
+     *            of the node.
+     * @return the copy of the node, its only visible child, or null if the
+     *         node is not needed.
+     */
+    private PhylogeneticTreeItem copy(final int index, final BitSet visible,
+            final PhylogeneticTreeItem[] copies) {
+        PhylogeneticTreeItem node = nodes[index];
+        List<PhylogeneticTreeItem> visibleChildren = new ArrayList<>();
+        for (int child : children[index]) {
+            if (copies[child] != null) {
+                visibleChildren.add(copies[child]);
+            }
+        }
+        Sequence sequence = node.getSequence();
+        boolean selfVisible = sequence != null
+                && visible.get(bits.get(sequence));
+        // nodes with a single child can be removed from the subtree
+        if (visibleChildren.size() == 1) {
+            return visibleChildren.get(0);
+        }
+        if (visibleChildren.isEmpty() && !selfVisible) {
+            return null;
+        }
+        PhylogeneticTreeItem result = new PhylogeneticTreeItem();
+        result.setDistance(node.getDistance());
+        if (selfVisible) {
+            result.setName(node.getName());
+            result.setSequence(sequence);
+        }
+        for (PhylogeneticTreeItem child : visibleChildren) {
+            child.setParent(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of nodes in the tree.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+}
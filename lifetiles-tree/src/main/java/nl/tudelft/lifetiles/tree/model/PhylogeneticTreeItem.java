@@ -1,26 +1,49 @@
 package nl.tudelft.lifetiles.tree.model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import nl.tudelft.lifetiles.core.util.SetUtils;
 import nl.tudelft.lifetiles.sequence.model.Sequence;
 
 /**
- * A tree to store the relation between samples.
+ * A tree to store the relation between samples. Statistics of the subtree
+ * below a node are computed in a single post-order pass when first requested
+ * and cached on the nodes, changing the tree invalidates the cached
+ * statistics of the changed node and its ancestors. Nodes have a unique id
+ * and are only equal to themselves.
  *
  * @author Albert Smit
  * @author Rutger van den Berg
  *
  */
 public class PhylogeneticTreeItem {
+    /**
+     * The id of the next node that is created.
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    /**
+     * The unique id of this node.
+     */
+    private final int id;
     /**
      * The list of children of this node.
      */
-    private final Set<PhylogeneticTreeItem> children;
+    private final List<PhylogeneticTreeItem> children;
+    /**
+     * Unmodifiable view on the list of children of this node.
+     */
+    private final List<PhylogeneticTreeItem> childrenView;
+    /**
+     * The support value of the branch to this node. This is an optional
+     * field, NaN when absent.
+     */
+    private double support = Double.NaN;
     /**
      * The distance between samples. This is an optional field.
      */
@@ -42,13 +65,31 @@ public class PhylogeneticTreeItem {
      * The sequences this nodes descendants are associated with.
      */
     private Set<Sequence> childSequences;
+    /**
+     * The cached amount of descendant nodes.
+     */
+    private int descendants;
+    /**
+     * The cached amount of layers below this node.
+     */
+    private int depth;
+    /**
+     * The cached amount of leaves below this node.
+     */
+    private int leaves;
+    /**
+     * Whether the cached statistics of this node are up to date.
+     */
+    private boolean statisticsValid;
 
     /**
      * Creates a new PhylogeneticTreeItem. Will initialize the ArrayList storing
      * the children and assign a new and unique id to the node.
      */
     public PhylogeneticTreeItem() {
-        children = new CopyOnWriteArraySet<PhylogeneticTreeItem>();
+        id = NEXT_ID.getAndIncrement();
+        children = new ArrayList<PhylogeneticTreeItem>();
+        childrenView = Collections.unmodifiableList(children);
     }
 
     /**
@@ -57,12 +98,8 @@ public class PhylogeneticTreeItem {
      * @return the amount of descendant nodes
      */
     public int numberDescendants() {
-        int result = 0;
-        for (PhylogeneticTreeItem child : children) {
-            result += child.numberDescendants() + 1;
-        }
-
-        return result;
+        updateStatistics();
+        return descendants;
     }
 
     /**
@@ -71,12 +108,19 @@ public class PhylogeneticTreeItem {
      * @return the amount of layers
      */
     public int maxDepth() {
-        int result = 0;
-        for (PhylogeneticTreeItem child : children) {
-            result = Math.max(result, child.maxDepth() + 1);
-        }
+        updateStatistics();
+        return depth;
+    }
 
-        return result;
+    /**
+     * Method to determine the amount of leaves below this node. A node without
+     * children is a leaf itself.
+     *
+     * @return the amount of leaves
+     */
+    public int numberLeaves() {
+        updateStatistics();
+        return leaves;
     }
 
     /**
@@ -86,14 +130,71 @@ public class PhylogeneticTreeItem {
      * @return a set with all sequences that descend from this node.
      */
     public Set<Sequence> getSequences() {
-        Set<Sequence> result = new HashSet<Sequence>();
+        updateStatistics();
+        return new HashSet<Sequence>(childSequences);
+    }
+
+    /**
+     * Computes the statistics of all nodes below this node whose statistics
+     * are outdated, children before their parents. The tree is walked
+     * iteratively so deep trees do not overflow the stack.
+     */
+    private void updateStatistics() {
+        if (statisticsValid) {
+            return;
+        }
+        // pre-order over the outdated nodes, reversed it is a post-order.
+        Deque<PhylogeneticTreeItem> outdated = new ArrayDeque<>();
+        Deque<PhylogeneticTreeItem> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            PhylogeneticTreeItem node = stack.pop();
+            outdated.push(node);
+            for (PhylogeneticTreeItem child : node.children) {
+                if (!child.statisticsValid) {
+                    stack.push(child);
+                }
+            }
+        }
+        for (PhylogeneticTreeItem node : outdated) {
+            node.computeStatistics();
+        }
+    }
+
+    /**
+     * Computes the statistics of this node from the statistics of its
+     * children, which have to be up to date.
+     */
+    private void computeStatistics() {
+        descendants = 0;
+        depth = 0;
+        leaves = 0;
+        childSequences = new HashSet<Sequence>();
         if (sequence != null) {
-            result.add(sequence);
+            childSequences.add(sequence);
         }
         for (PhylogeneticTreeItem child : children) {
-            result.addAll(child.getSequences());
+            descendants += child.descendants + 1;
+            depth = Math.max(depth, child.depth + 1);
+            leaves += child.leaves;
+            childSequences.addAll(child.childSequences);
+        }
+        if (children.isEmpty()) {
+            leaves = 1;
+        }
+        statisticsValid = true;
+    }
+
+    /**
+     * Marks the cached statistics of this node and its ancestors as outdated.
+     */
+    private void invalidateStatistics() {
+        PhylogeneticTreeItem node = this;
+        // ancestors of an outdated node are outdated as well.
+        while (node != null && node.statisticsValid) {
+            node.statisticsValid = false;
+            node = node.parent;
         }
-        return result;
     }
 
     /**
@@ -106,13 +207,15 @@ public class PhylogeneticTreeItem {
      */
     public void addChild(final PhylogeneticTreeItem child) {
         children.add(child);
+        invalidateStatistics();
     }
 
     /**
      * Creates a new tree that only contains the visible nodes. When a node has
      * only one child, it is removed from the tree and its child is returned
      * instead. When a node has no children, and is not visible, null is
-     * returned.
+     * returned. Trees which are filtered repeatedly should be indexed with a
+     * {@link PhylogeneticTreeIndex} once instead.
      *
      * @param visibleSequences
      *            the sequences that need to be in this tree.
@@ -120,33 +223,7 @@ public class PhylogeneticTreeItem {
      */
     public PhylogeneticTreeItem subTree(
             final Set<Sequence> visibleSequences) {
-        // copy the node
-        PhylogeneticTreeItem result = new PhylogeneticTreeItem();
-        result.setDistance(distance);
-        if (visibleSequences.contains(sequence)) {
-            result.setName(name);
-        } else if (children.isEmpty()) {
-            return null;
-        }
-        // copy the children when they are needed
-        for (PhylogeneticTreeItem child : children) {
-            // check if this child is needed
-            if (SetUtils.intersectionSize(childSequences, visibleSequences) > 0) {
-                PhylogeneticTreeItem subtree = child.subTree(visibleSequences);
-                if (subtree != null) {
-                    subtree.setParent(result);
-                }
-            }
-        }
-        // remove useless nodes(nodes with a single child can be removed from
-        // the subtree)
-        if (result.getChildren().isEmpty() && result.getName() == null) {
-            return null;
-        }
-        if (result.getChildren().size() == 1) {
-            result = result.getChildren().get(0);
-        }
-        return result;
+        return new PhylogeneticTreeIndex(this).subTree(visibleSequences);
     }
 
     /**
@@ -154,19 +231,16 @@ public class PhylogeneticTreeItem {
      * sequences should already have been added to the tree.
      */
     public void populateChildSequences() {
-        for (PhylogeneticTreeItem child : children) {
-            child.populateChildSequences();
-        }
-        setChildSequences();
+        updateStatistics();
     }
 
     /**
-     * Returns the ArrayList of children.
+     * Returns the list of children. The list can not be modified.
      *
-     * @return the ArrayList containing all children of this node
+     * @return the list containing all children of this node
      */
     public List<PhylogeneticTreeItem> getChildren() {
-        return new ArrayList<PhylogeneticTreeItem>(children);
+        return childrenView;
     }
 
     /**
@@ -179,6 +253,16 @@ public class PhylogeneticTreeItem {
         return distance;
     }
 
+    /**
+     * Returns the support value of the branch to this node. support is an
+     * optional property, so the support can be NaN.
+     *
+     * @return the support of this node
+     */
+    public double getSupport() {
+        return support;
+    }
+
     /**
      * Returns the name stored in this node. name is an optional property, so
      * this method can return null.
@@ -198,23 +282,22 @@ public class PhylogeneticTreeItem {
         return parent;
     }
 
+    /**
+     * Returns the unique id of this node. Ids are assigned in order of
+     * creation.
+     *
+     * @return the id of this node
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-
-        result = prime * result + children.hashCode();
-        long temp;
-        temp = Double.doubleToLongBits(distance);
-        result = prime * result + (int) (temp ^ (temp >>> prime + 1));
-        result = prime * result;
-        if (name != null) {
-            result += name.hashCode();
-        }
-        return result;
+        return id;
     }
 
     /**
@@ -227,6 +310,16 @@ public class PhylogeneticTreeItem {
         this.distance = distance;
     }
 
+    /**
+     * Sets this nodes support value to the passed double.
+     *
+     * @param support
+     *            the support of the branch to this node
+     */
+    public void setSupport(final double support) {
+        this.support = support;
+    }
+
     /**
      * Set this nodes name to the passed String.
      *
@@ -238,44 +331,17 @@ public class PhylogeneticTreeItem {
     }
 
     /**
-     * Compares this with another Object. returns true when both are the same.
-     * two PhylogeneticTreeItems are considered the same when both have the
-     * same:
-     *
-     * <ol>
-     * <li>name or both have no name</li>
-     * <li>distance</li>
-     * <li>children, order does not matter</li>
-     * </ol>
+     * Compares this with another Object. A node is only equal to itself, use
+     * a {@link PhylogeneticTreeComparator} to compare the structure of trees.
      *
-     * @param other
+     * @param obj
      *            the object to compare with
      *
-     * @return true if both are the same, otherwise false
+     * @return true if both are the same node, otherwise false
      */
     @Override
     public boolean equals(final Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (obj == null) {
-            return false;
-        }
-        if (!(obj instanceof PhylogeneticTreeItem)) {
-            return false;
-        }
-        PhylogeneticTreeItem other = (PhylogeneticTreeItem) obj;
-        if (!Double.valueOf(this.distance).equals(other.distance)) {
-            return false;
-        }
-        if (name == null) {
-            if (other.name != null) {
-                return false;
-            }
-        } else if (!name.equals(other.name)) {
-            return false;
-        }
-        return children.equals(other.children);
+        return this == obj;
     }
 
     /**
@@ -304,6 +370,7 @@ public class PhylogeneticTreeItem {
      */
     public void setSequence(final Sequence seq) {
         this.sequence = seq;
+        invalidateStatistics();
     }
 
     /**
@@ -342,17 +409,19 @@ public class PhylogeneticTreeItem {
     }
 
     /**
-     * @return returns the list of child sequences stored in this node
+     * @return returns the set of child sequences stored in this node, which
+     *         must not be modified.
      */
     public Set<Sequence> getChildSequences() {
+        updateStatistics();
         return childSequences;
     }
 
     /**
-     * Sets this nodes childSequences field to the set returned by getSequences.
+     * Brings this nodes childSequences field up to date.
      */
     public void setChildSequences() {
-        this.childSequences = this.getSequences();
+        updateStatistics();
     }
 
 }
@@ -1,10 +1,17 @@
 package nl.tudelft.lifetiles.tree.model;
 
-import java.util.StringTokenizer;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 
 /**
  * A simple parser that will parse a single tree in newick format
- * to a simple tree.
+ * to a simple tree. The tree is read character by character, so it does
+ * not have to be loaded in memory as a whole, and built without recursion,
+ * so deep trees do not overflow the stack.
+ *
+ * Quoted labels, comments in square brackets and support values on internal
+ * nodes are supported.
  *
  * @author Albert Smit
  *
@@ -13,73 +20,280 @@ import java.util.StringTokenizer;
 public final class PhylogeneticTreeParser {
 
     /**
-     * Uninstantiable class.
+     * The size of the buffer characters are read into.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The message of the exception thrown on unbalanced parentheses.
+     */
+    private static final String UNBALANCED = "Unbalanced parentheses in tree";
+
+    /**
+     * The reader to parse the tree from.
+     */
+    private final Reader reader;
+
+    /**
+     * The buffer characters are read into.
+     */
+    private final char[] buffer;
+
+    /**
+     * The position of the next character in the buffer.
+     */
+    private int position;
+
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * The text of the label being read.
+     */
+    private final StringBuilder label;
+
+    /**
+     * Creates a parser reading from a reader.
+     *
+     * @param reader
+     *            The reader to parse the tree from.
      */
-    private PhylogeneticTreeParser() {
-        // do nothing
+    private PhylogeneticTreeParser(final Reader reader) {
+        this.reader = reader;
+        buffer = new char[BUFFER_SIZE];
+        label = new StringBuilder();
     }
 
     /**
      * parses the String the parser has been given.
-     * the String is first tokenized,
-     * after which the method iterates over all tokens.
      *
      * @param tree
      *            The string describing the tree
      * @return The parsed tree.
      */
-
     public static PhylogeneticTreeItem parse(final String tree) {
-        PhylogeneticTreeItem root = new PhylogeneticTreeItem();
+        try {
+            return parse(new StringReader(tree));
+        } catch (IOException e) {
+            // a string reader does not throw.
+            throw new IllegalStateException(e);
+        }
+    }
 
-        // split the string into tokens, and keep the delimiters in the list so
-        // we have
-        // information about the next token.
-        StringTokenizer tokenizer = new StringTokenizer(tree, "(:,);", true);
+    /**
+     * parses the first tree read from the reader. Reading stops at the end of
+     * the tree, the reader is not closed.
+     *
+     * @param reader
+     *            The reader describing the tree
+     * @return The parsed tree.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    public static PhylogeneticTreeItem parse(final Reader reader)
+            throws IOException {
+        return new PhylogeneticTreeParser(reader).parseTree();
+    }
 
+    /**
+     * Parses the tree, one character at a time.
+     *
+     * @return The parsed tree.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private PhylogeneticTreeItem parseTree() throws IOException {
+        PhylogeneticTreeItem root = new PhylogeneticTreeItem();
         PhylogeneticTreeItem currentNode = root;
-        // loop over all tokens
-        while (tokenizer.hasMoreTokens()) {
-            String currentToken = tokenizer.nextToken();
-            // this starts a list of child nodes, add a child node and make it
-            // our current node
-            if ("(".equals(currentToken)) {
-                // parser needs to instantiate objects.
-                @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-                PhylogeneticTreeItem newChild = new PhylogeneticTreeItem();
-                newChild.setParent(currentNode);
-                currentNode = newChild;
-            } else if (":".equals(currentToken)) {
-                // next token is a distance, add it to the current node
-                String distanceToken = tokenizer.nextToken();
-                double distance = Double.parseDouble(distanceToken);
-                currentNode.setDistance(distance);
-            } else if (",".equals(currentToken)) {
-                // next token is another child, add a new child to the list and
-                // make it the current node
-                currentNode = currentNode.getParent();
+        // whether the children of the current node have been closed, labels
+        // of closed nodes may be support values.
+        boolean closed = false;
+        int character = read();
+        while (character >= 0 && character != ';') {
+            if (character == '(' || character == ',') {
+                if (character == ',') {
+                    // another child, go up 1 level to add a sibling
+                    currentNode = parentOf(currentNode);
+                }
                 // parser needs to instantiate objects.
                 @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
                 PhylogeneticTreeItem newChild = new PhylogeneticTreeItem();
                 newChild.setParent(currentNode);
                 currentNode = newChild;
+                closed = false;
+            } else if (character == ')') {
+                // list of children ends, go up 1 level so we can add a name
+                // and distance to this node if they are specified
+                currentNode = parentOf(currentNode);
+                closed = true;
+            } else if (character == ':') {
+                currentNode.setDistance(Double.parseDouble(readLabel(
+                        skipWhitespace())));
+            } else if (character == '[') {
+                skipComment();
+            } else if (character == '\'') {
+                currentNode.setName(readQuotedLabel());
+            } else if (!Character.isWhitespace(character)) {
+                setLabel(currentNode, readLabel(character), closed);
+            }
+            character = read();
+        }
+        if (currentNode != root) {
+            throw new IllegalArgumentException(UNBALANCED);
+        }
+        return root;
+    }
 
-            } else if (")".equals(currentToken)) {
-                // list of children ends, go up 1 level so we can add a name and
-                // distance to this node
-                // if they are specified
-                currentNode = currentNode.getParent();
-            } else if (";".equals(currentToken)) {
-                // tree is done, nothing special needs to be done
-                break;
-            } else {
-                // final case, the current token is text,
-                // so the current token is a name.
-
-                currentNode.setName(currentToken);
+    /**
+     * @param node
+     *            The node to go up from.
+     * @return The parent of the node.
+     */
+    private static PhylogeneticTreeItem parentOf(
+            final PhylogeneticTreeItem node) {
+        PhylogeneticTreeItem parent = node.getParent();
+        if (parent == null) {
+            throw new IllegalArgumentException(UNBALANCED);
+        }
+        return parent;
+    }
+
+    /**
+     * Sets an unquoted label as the name of a node, or as its support value
+     * if the node is internal and the label is a number.
+     *
+     * @param node
+     *            The node the label belongs to.
+     * @param text
+     *            The label.
+     * @param internal
+     *            Whether the node is internal.
+     */
+    private static void setLabel(final PhylogeneticTreeItem node,
+            final String text, final boolean internal) {
+        if (internal) {
+            try {
+                node.setSupport(Double.parseDouble(text));
+                return;
+            } catch (NumberFormatException e) {
+                // not a support value, so it is a name
+                node.setName(text);
+                return;
             }
         }
+        node.setName(text);
+    }
 
-        return root;
+    /**
+     * Reads an unquoted label, up to the next delimiter.
+     *
+     * @param first
+     *            The first character of the label.
+     * @return The label.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private String readLabel(final int first) throws IOException {
+        label.setLength(0);
+        int character = first;
+        while (character >= 0 && !isDelimiter(character)) {
+            label.append((char) character);
+            character = read();
+        }
+        unread(character);
+        return label.toString();
+    }
+
+    /**
+     * Reads a quoted label, up to the closing quote. Two quotes in a row are
+     * read as a single quote.
+     *
+     * @return The label.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private String readQuotedLabel() throws IOException {
+        label.setLength(0);
+        int character = read();
+        while (character >= 0) {
+            if (character == '\'') {
+                character = read();
+                if (character != '\'') {
+                    unread(character);
+                    return label.toString();
+                }
+            }
+            label.append((char) character);
+            character = read();
+        }
+        throw new IllegalArgumentException("Unterminated quoted label in tree");
+    }
+
+    /**
+     * @return The next character which is not whitespace, or -1 at the end
+     *         of the input.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private int skipWhitespace() throws IOException {
+        int character = read();
+        while (character >= 0 && Character.isWhitespace(character)) {
+            character = read();
+        }
+        return character;
+    }
+
+    /**
+     * Skips a comment, up to the closing bracket.
+     *
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private void skipComment() throws IOException {
+        int character = read();
+        while (character >= 0 && character != ']') {
+            character = read();
+        }
+    }
+
+    /**
+     * @param character
+     *            The character to check.
+     * @return Whether the character ends an unquoted label.
+     */
+    private static boolean isDelimiter(final int character) {
+        return "(),:;[".indexOf(character) >= 0
+                || Character.isWhitespace(character);
+    }
+
+    /**
+     * @return The next character, or -1 at the end of the input.
+     * @throws IOException
+     *             When there is an error reading the tree.
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Puts the last read character back, so it is read again.
+     *
+     * @param character
+     *            The last read character, or -1 at the end of the input.
+     */
+    private void unread(final int character) {
+        if (character >= 0) {
+            position--;
+        }
     }
 }
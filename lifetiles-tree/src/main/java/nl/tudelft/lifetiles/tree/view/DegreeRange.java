@@ -50,7 +50,7 @@ public class DegreeRange {
         double result = 0;
 
         if (startAngle > endAngle) {
-            result = AbstractSunburstNode.CIRCLEDEGREES - (startAngle - endAngle);
+            result = SunburstLayout.CIRCLEDEGREES - (startAngle - endAngle);
 
         } else if (endAngle  > startAngle) {
             result = endAngle - startAngle;
@@ -0,0 +1,329 @@
+package nl.tudelft.lifetiles.tree.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
+
+/**
+ * The positions of the segments of a sunburst diagram. The segments of every
+ * ring are stored in arrays sorted by angle, so the segment under a point can
+ * be found with a binary search. Segments which would be smaller than a pixel
+ * are merged with their small neighbours and not expanded further.
+ *
+ * Angles are in degrees, clockwise from the top of the circle.
+ *
+ * @author agent
+ *
+ */
+public final class SunburstLayout {
+
+    /**
+     * The radius of the circle that will represent the center node.
+     */
+    static final double CENTER_RADIUS = 50.0d;
+
+    /**
+     * The width of a single ring.
+     */
+    static final double RING_WIDTH = 25.0d;
+
+    /**
+     * the number of degrees in a circle.
+     */
+    static final double CIRCLEDEGREES = 360.0d;
+
+    /**
+     * The smallest length in pixels of the outer arc of a segment which is
+     * drawn on its own.
+     */
+    private static final double MIN_ARC_LENGTH = 1d;
+
+    /**
+     * The node in the center of the diagram.
+     */
+    private final PhylogeneticTreeItem center;
+
+    /**
+     * The scaling factor of the diagram.
+     */
+    private final double scale;
+
+    /**
+     * The nodes of the segments in every ring, null for merged segments.
+     */
+    private final PhylogeneticTreeItem[][] nodes;
+
+    /**
+     * The start angles of the segments in every ring, ascending.
+     */
+    private final double[][] startAngles;
+
+    /**
+     * The end angles of the segments in every ring.
+     */
+    private final double[][] endAngles;
+
+    /**
+     * Lays out the rings around a node.
+     *
+     * @param center
+     *            the node in the center of the diagram.
+     * @param scale
+     *            the scaling factor of the diagram.
+     */
+    public SunburstLayout(final PhylogeneticTreeItem center,
+            final double scale) {
+        this.center = center;
+        this.scale = scale;
+        List<Ring> rings = new ArrayList<>();
+        Ring ring = new Ring();
+        addChildren(ring, center, 0, CIRCLEDEGREES,
+                outerRadius(0));
+        while (ring.size() > 0) {
+            rings.add(ring);
+            Ring next = new Ring();
+            double radius = outerRadius(rings.size());
+            // level order, so the segments of every ring are sorted by angle
+            for (int index = 0; index < ring.size(); index++) {
+                PhylogeneticTreeItem node = ring.nodes.get(index);
+                if (node != null) {
+                    addChildren(next, node, ring.starts.get(index),
+                            ring.ends.get(index), radius);
+                }
+            }
+            ring = next;
+        }
+        nodes = new PhylogeneticTreeItem[rings.size()][];
+        startAngles = new double[rings.size()][];
+        endAngles = new double[rings.size()][];
+        for (int index = 0; index < nodes.length; index++) {
+            Ring current = rings.get(index);
+            nodes[index] = current.nodes
+                    .toArray(new PhylogeneticTreeItem[current.size()]);
+            startAngles[index] = toArray(current.starts);
+            endAngles[index] = toArray(current.ends);
+        }
+    }
+
+    /**
+     * Adds the children of a node to a ring, dividing the angle of the node
+     * by the number of descendants of each child. Consecutive children which
+     * are too small to draw are merged into a single segment.
+     *
+     * @param ring
+     *            the ring to add the children to.
+     * @param node
+     *            the node to add the children of.
+     * @param start
+     *            the start angle of the node.
+     * @param end
+     *            the end angle of the node.
+     * @param radius
+     *            the outer radius of the ring in pixels.
+     */
+    private static void addChildren(final Ring ring,
+            final PhylogeneticTreeItem node, final double start,
+            final double end, final double radius) {
+        double totalDescendants = node.numberDescendants();
+        double childStart = start;
+        double mergedStart = Double.NaN;
+        for (PhylogeneticTreeItem child : node.getChildren()) {
+            double childEnd = childStart + (end - start)
+                    * (child.numberDescendants() + 1) / totalDescendants;
+            double arcLength = Math.toRadians(childEnd - childStart) * radius;
+            if (arcLength < MIN_ARC_LENGTH) {
+                if (Double.isNaN(mergedStart)) {
+                    mergedStart = childStart;
+                }
+            } else {
+                if (!Double.isNaN(mergedStart)) {
+                    ring.add(null, mergedStart, childStart);
+                    mergedStart = Double.NaN;
+                }
+                ring.add(child, childStart, childEnd);
+            }
+            childStart = childEnd;
+        }
+        if (!Double.isNaN(mergedStart)) {
+            ring.add(null, mergedStart, end);
+        }
+    }
+
+    /**
+     * @param values
+     *            the values to convert.
+     * @return the values as a primitive array.
+     */
+    private static double[] toArray(final List<Double> values) {
+        double[] result = new double[values.size()];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = values.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * @return the node in the center of the diagram.
+     */
+    public PhylogeneticTreeItem getCenter() {
+        return center;
+    }
+
+    /**
+     * @return the radius of the center circle in pixels.
+     */
+    public double centerRadius() {
+        return scale * CENTER_RADIUS;
+    }
+
+    /**
+     * @param ring
+     *            the ring, the first ring is ring 0.
+     * @return the inner radius of the ring in pixels.
+     */
+    public double innerRadius(final int ring) {
+        return scale
+                * (CENTER_RADIUS + ring
+                        * RING_WIDTH);
+    }
+
+    /**
+     * @param ring
+     *            the ring, the first ring is ring 0.
+     * @return the outer radius of the ring in pixels.
+     */
+    public double outerRadius(final int ring) {
+        return innerRadius(ring + 1);
+    }
+
+    /**
+     * @return the number of rings.
+     */
+    public int ringCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @param ring
+     *            the ring.
+     * @return the number of segments in the ring.
+     */
+    public int segmentCount(final int ring) {
+        return nodes[ring].length;
+    }
+
+    /**
+     * @param ring
+     *            the ring.
+     * @param segment
+     *            the index of the segment in the ring.
+     * @return the node of the segment, or null if the segment merges nodes
+     *         which are too small to draw.
+     */
+    public PhylogeneticTreeItem getNode(final int ring, final int segment) {
+        return nodes[ring][segment];
+    }
+
+    /**
+     * @param ring
+     *            the ring.
+     * @param segment
+     *            the index of the segment in the ring.
+     * @return the start angle of the segment.
+     */
+    public double getStartAngle(final int ring, final int segment) {
+        return startAngles[ring][segment];
+    }
+
+    /**
+     * @param ring
+     *            the ring.
+     * @param segment
+     *            the index of the segment in the ring.
+     * @return the end angle of the segment.
+     */
+    public double getEndAngle(final int ring, final int segment) {
+        return endAngles[ring][segment];
+    }
+
+    /**
+     * Finds the node drawn at a point.
+     *
+     * @param x
+     *            the horizontal distance of the point to the center.
+     * @param y
+     *            the vertical distance of the point to the center, downwards.
+     * @return the node at the point, the center node in the center circle, or
+     *         null if there is no node at the point.
+     */
+    public PhylogeneticTreeItem nodeAt(final double x, final double y) {
+        double radius = Math.hypot(x, y);
+        if (radius < centerRadius()) {
+            return center;
+        }
+        int ring = (int) ((radius / scale - CENTER_RADIUS)
+                / RING_WIDTH);
+        if (ring >= nodes.length) {
+            return null;
+        }
+        double angle = Math.toDegrees(Math.atan2(x, -y));
+        if (angle < 0) {
+            angle += CIRCLEDEGREES;
+        }
+        int segment = Arrays.binarySearch(startAngles[ring], angle);
+        if (segment < 0) {
+            // the segment starting before the angle
+            segment = -segment - 2;
+        }
+        if (segment < 0 || angle >= endAngles[ring][segment]) {
+            return null;
+        }
+        return nodes[ring][segment];
+    }
+
+    /**
+     * The segments of a ring while it is laid out.
+     *
+     * @author agent
+     *
+     */
+    private static final class Ring {
+        /**
+         * The nodes of the segments.
+         */
+        private final List<PhylogeneticTreeItem> nodes = new ArrayList<>();
+        /**
+         * The start angles of the segments.
+         */
+        private final List<Double> starts = new ArrayList<>();
+        /**
+         * The end angles of the segments.
+         */
+        private final List<Double> ends = new ArrayList<>();
+
+        /**
+         * @param node
+         *            the node of the segment, null for merged segments.
+         * @param start
+         *            the start angle of the segment.
+         * @param end
+         *            the end angle of the segment.
+         */
+        void add(final PhylogeneticTreeItem node, final double start,
+                final double end) {
+            nodes.add(node);
+            starts.add(start);
+            ends.add(end);
+        }
+
+        /**
+         * @return the number of segments.
+         */
+        int size() {
+            return nodes.size();
+        }
+    }
+
+}
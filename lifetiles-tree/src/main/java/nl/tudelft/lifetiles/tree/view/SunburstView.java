@@ -1,21 +1,70 @@
 package nl.tudelft.lifetiles.tree.view;
 
 import javafx.geometry.Bounds;
-import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Control;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import nl.tudelft.lifetiles.sequence.SequenceColor;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
 import nl.tudelft.lifetiles.tree.controller.TreeController;
 import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
 
 /**
  * A View to display a tree.
- * The tree will be displayed in a circle.
+ * The tree will be displayed in a circle, drawn on a single canvas. The
+ * positions of the segments are kept in a {@link SunburstLayout}, which is
+ * also used to find the node under the mouse.
  *
  * @author Albert Smit
  *
  */
 public class SunburstView extends Control {
 
+    /**
+     * The color of the center node without a sequence.
+     */
+    private static final Color CENTER_COLOR = Color.BLUE;
+
+    /**
+     * the max brightness for the color of a segment.
+     */
+    private static final double MAX_BRIGHTNESS = 0.8;
+
+    /**
+     * The default saturation of the color of a segment.
+     */
+    private static final double SATURATION = 0.9;
+
+    /**
+     * The label of the branch length in the tooltip.
+     */
+    private static final String DISTANCE_NAME = "Branch Length: ";
+
+    /**
+     * The color of segments which merge nodes too small to draw.
+     */
+    private static final Color MERGED_COLOR = Color.GRAY;
+
+    /**
+     * The color of the outlines of the segments.
+     */
+    private static final Color OUTLINE_COLOR = Color.BLACK;
+
+    /**
+     * The width of the outlines of the segments.
+     */
+    private static final double OUTLINE_WIDTH = 0.5;
+
+    /**
+     * The angle in degrees of the top of the circle, in the angles used by
+     * the canvas.
+     */
+    private static final double TOP_ANGLE = 90d;
+
     /**
      * The root of the tree this view will show.
      */
@@ -24,10 +73,6 @@ public class SunburstView extends Control {
      * the current node we use as the center of the view.
      */
     private PhylogeneticTreeItem currentItem;
-    /**
-     * The center coordinates of this view.
-     */
-    private Point2D centerPoint;
     /**
      * the {@link TreeController} controlling this SunburstView.
      */
@@ -40,13 +85,35 @@ public class SunburstView extends Control {
      * The bounds for this view, used to scale content to fit.
      */
     private Bounds layoutBounds;
+    /**
+     * The canvas the diagram is drawn on.
+     */
+    private final Canvas canvas;
+    /**
+     * The positions of the segments, null while there is no tree.
+     */
+    private SunburstLayout layout;
+    /**
+     * The tooltip showing the node under the mouse.
+     */
+    private final Tooltip tooltip;
+    /**
+     * The node the tooltip is shown for.
+     */
+    private PhylogeneticTreeItem hoveredItem;
 
     /**
      * Creates a new SunburstView.
      */
     public SunburstView() {
         super();
-        centerPoint = new Point2D(getWidth() / 2d, getHeight() / 2d);
+        canvas = new Canvas();
+        // the canvas follows the size of the view, not the other way around
+        canvas.setManaged(false);
+        canvas.setOnMouseClicked(this::mouseClicked);
+        canvas.setOnMouseMoved(this::mouseMoved);
+        tooltip = new Tooltip();
+        getChildren().add(canvas);
     }
 
     /**
@@ -99,78 +166,148 @@ public class SunburstView extends Control {
     }
 
     /**
-     * updates the view by redrawing all elements.
+     * {@inheritDoc}
+     */
+    @Override
+    protected void layoutChildren() {
+        if (canvas.getWidth() != getWidth()
+                || canvas.getHeight() != getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            draw();
+        }
+    }
+
+    /**
+     * updates the layout of the diagram and redraws it.
      */
     private void update() {
-        // remove the old elements
-        getChildren().clear();
+        layout = new SunburstLayout(currentItem, scale);
+        draw();
+    }
 
-        centerPoint = new Point2D(getWidth() / 2d, getHeight() / 2d);
+    /**
+     * draws the center and all rings on the canvas.
+     */
+    private void draw() {
+        GraphicsContext context = canvas.getGraphicsContext2D();
+        context.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (layout == null) {
+            return;
+        }
+        double centerX = canvas.getWidth() / 2d;
+        double centerY = canvas.getHeight() / 2d;
+        context.setStroke(OUTLINE_COLOR);
+        context.setLineWidth(OUTLINE_WIDTH);
 
-        // add a center unit
-        SunburstCenter center = new SunburstCenter(currentItem, scale);
-        center.setOnMouseClicked(mouseEvent -> {
-            if (mouseEvent.getButton() == MouseButton.PRIMARY) {
-                selectNode(currentItem.getParent());
-                controller.shoutVisible(currentItem.getChildSequences());
+        for (int ring = 0; ring < layout.ringCount(); ring++) {
+            for (int segment = 0; segment < layout.segmentCount(ring);
+                    segment++) {
+                PhylogeneticTreeItem node = layout.getNode(ring, segment);
+                double start = layout.getStartAngle(ring, segment);
+                if (node == null) {
+                    context.setFill(MERGED_COLOR);
+                } else {
+                    context.setFill(createColor(node, start, ring));
+                }
+                drawSegment(context, centerX, centerY, ring, start,
+                        layout.getEndAngle(ring, segment));
             }
-        });
-        getChildren().add(center);
-
-        // add the ring units
-        double totalDescendants = currentItem.numberDescendants();
-        double degreeStart = 0d;
-        for (PhylogeneticTreeItem child : currentItem.getChildren()) {
-            double sectorSize = (child.numberDescendants() + 1)
-                    / totalDescendants;
-
-            double degreeEnd = degreeStart
-                    + (AbstractSunburstNode.CIRCLEDEGREES * sectorSize);
-            DegreeRange angle = new DegreeRange(degreeStart, degreeEnd);
-            drawRingRecursive(child, 0, angle);
-            degreeStart = degreeEnd;
         }
+
+        double radius = layout.centerRadius();
+        context.setFill(createCenterColor(currentItem));
+        context.fillOval(centerX - radius, centerY - radius, 2 * radius,
+                2 * radius);
+    }
+
+    /**
+     * draws a single segment of a ring.
+     *
+     * @param context
+     *            the context to draw with.
+     * @param centerX
+     *            the horizontal coordinate of the center.
+     * @param centerY
+     *            the vertical coordinate of the center.
+     * @param ring
+     *            the ring of the segment.
+     * @param start
+     *            the start angle of the segment, clockwise from the top.
+     * @param end
+     *            the end angle of the segment, clockwise from the top.
+     */
+    private void drawSegment(final GraphicsContext context,
+            final double centerX, final double centerY, final int ring,
+            final double start, final double end) {
+        double inner = layout.innerRadius(ring);
+        double outer = layout.outerRadius(ring);
+        double extent = end - start;
+        double startRadians = Math.toRadians(start);
+        // the canvas measures angles counterclockwise from the right
+        context.beginPath();
+        context.moveTo(centerX + outer * Math.sin(startRadians), centerY
+                - outer * Math.cos(startRadians));
+        context.arc(centerX, centerY, outer, outer, TOP_ANGLE - start, -extent);
+        context.arc(centerX, centerY, inner, inner, TOP_ANGLE - end, extent);
+        context.closePath();
+        context.fill();
+        context.stroke();
+    }
+
+    /**
+     * selects the node which was clicked.
+     *
+     * @param event
+     *            the mouse event.
+     */
+    private void mouseClicked(final MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+        PhylogeneticTreeItem node = nodeAt(event);
+        if (node == null) {
+            return;
+        }
+        if (node == currentItem) {
+            selectNode(currentItem.getParent());
+        } else {
+            selectNode(node);
+        }
+        controller.shoutVisible(currentItem.getChildSequences());
     }
 
     /**
-     * draws all ringUnits.
+     * shows the tooltip of the node under the mouse.
      *
-     * @param node
-     *            the {@link PhylogeneticTreeItem} that this
-     *            SunburstRingSegment will represent.
-     * @param layer
-     *            the layer on which this SunburstRingSegment is located
-     * @param angle
-     *            the start and end point of this ring, in degrees
-     */
-    private void drawRingRecursive(final PhylogeneticTreeItem node,
-            final int layer, final DegreeRange angle) {
-        // generate ring
-        SunburstRingSegment ringUnit = new SunburstRingSegment(node, layer,
-                angle, centerPoint, scale);
-        ringUnit.setOnMouseClicked(mouseEvent -> {
-            if (mouseEvent.getButton() == MouseButton.PRIMARY) {
-                selectNode(node);
-                controller.shoutVisible(currentItem.getChildSequences());
-            }
-        });
-        getChildren().add(ringUnit);
-
-        double totalDescendants = node.numberDescendants();
-        double start = angle.getStartAngle();
-        double sectorAngle = angle.angle();
-
-        // generate rings for child nodes
-        for (PhylogeneticTreeItem child : node.getChildren()) {
-            double sectorSize = (child.numberDescendants() + 1)
-                    / totalDescendants;
-            double end = start + (sectorAngle * sectorSize);
-
-            DegreeRange childAngle = new DegreeRange(start, end);
-            drawRingRecursive(child, layer + 1, childAngle);
-            start = end;
+     * @param event
+     *            the mouse event.
+     */
+    private void mouseMoved(final MouseEvent event) {
+        PhylogeneticTreeItem node = nodeAt(event);
+        if (node == hoveredItem) {
+            return;
         }
+        hoveredItem = node;
+        if (node == null) {
+            Tooltip.uninstall(canvas, tooltip);
+        } else {
+            tooltip.setText(createTooltipText(node));
+            Tooltip.install(canvas, tooltip);
+        }
+    }
 
+    /**
+     * @param event
+     *            the mouse event.
+     * @return the node under the mouse, or null if there is none.
+     */
+    private PhylogeneticTreeItem nodeAt(final MouseEvent event) {
+        if (layout == null) {
+            return null;
+        }
+        return layout.nodeAt(event.getX() - canvas.getWidth() / 2d,
+                event.getY() - canvas.getHeight() / 2d);
     }
 
     /**
@@ -184,9 +321,71 @@ public class SunburstView extends Control {
         double minSize = Math.min(layoutBounds.getWidth(),
                 layoutBounds.getHeight());
 
-        double maxRadius = AbstractSunburstNode.CENTER_RADIUS;
-        maxRadius += depth * AbstractSunburstNode.RING_WIDTH;
+        double maxRadius = SunburstLayout.CENTER_RADIUS;
+        maxRadius += depth * SunburstLayout.RING_WIDTH;
 
         return Math.min(1, minSize / (maxRadius * 2));
     }
+
+    /**
+     * Creates the text of the tooltip of a node, its name and branch length.
+     *
+     * @param node
+     *            the node to create the text for.
+     * @return the text of the tooltip.
+     */
+    static String createTooltipText(final PhylogeneticTreeItem node) {
+        String name = node.getName();
+        StringBuffer tooltip = new StringBuffer();
+        if (name != null) {
+            tooltip.append(name).append(System.lineSeparator());
+        }
+        tooltip.append(DISTANCE_NAME).append(node.getDistance());
+        return tooltip.toString();
+    }
+
+    /**
+     * Creates a {@link Color} for a segment. The color depends on the position
+     * of the segment by default, and is the color associated with the
+     * sequence when the node has a sequence.
+     *
+     * @param node
+     *            the node to create the color for.
+     * @param degrees
+     *            the location where the segment is drawn, will become the hue
+     *            of the color.
+     * @param layer
+     *            the ring where the segment is drawn, is used for the
+     *            brightness
+     * @return a Color object that specifies what color this node will be.
+     */
+    static Color createColor(final PhylogeneticTreeItem node,
+            final double degrees, final int layer) {
+        Sequence sequence = node.getSequence();
+        if (sequence == null) {
+            double brightness = Math.min(MAX_BRIGHTNESS, 1d / layer);
+            brightness = Math.abs(brightness - 1);
+            return Color.hsb(degrees, SATURATION, brightness);
+        } else {
+            return SequenceColor.getColor(sequence);
+        }
+    }
+
+    /**
+     * Creates a {@link Color} for the center node. the color will be blue by
+     * default, and the color associated with the sequence when the node has a
+     * sequence.
+     *
+     * @param node
+     *            the node to create the color for.
+     * @return a Color object that specifies what color this node will be.
+     */
+    static Color createCenterColor(final PhylogeneticTreeItem node) {
+        Sequence sequence = node.getSequence();
+        if (sequence == null) {
+            return CENTER_COLOR;
+        } else {
+            return SequenceColor.getColor(sequence);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package nl.tudelft.lifetiles.tree.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import nl.tudelft.lifetiles.sequence.model.DefaultSequence;
+import nl.tudelft.lifetiles.sequence.model.Sequence;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for PhylogeneticTreeIndex.
+ *
+ * @author agent
+ *
+ */
+public class TestPhylogeneticTreeIndex {
+
+    /**
+     * Compares the structure of trees.
+     */
+    private static final PhylogeneticTreeComparator STRUCTURE = new PhylogeneticTreeComparator();
+
+    /**
+     * The tree (A:0.1,B:0.2,(C:0.3,D:0.4)E:0.5)F;.
+     */
+    private PhylogeneticTreeItem root;
+    /**
+     * The index over the tree.
+     */
+    private PhylogeneticTreeIndex index;
+    /**
+     * The sequences in the tree.
+     */
+    private Sequence a, b, c, d;
+
+    /**
+     * Creates the test tree and its index.
+     */
+    @Before
+    public void setUp() {
+        a = new DefaultSequence("A");
+        b = new DefaultSequence("B");
+        c = new DefaultSequence("C");
+        d = new DefaultSequence("D");
+        root = new PhylogeneticTreeItem();
+        root.setName("F");
+        addLeaf(root, "A", 0.1, a);
+        addLeaf(root, "B", 0.2, b);
+        PhylogeneticTreeItem inner = new PhylogeneticTreeItem();
+        inner.setName("E");
+        inner.setDistance(0.5);
+        inner.setParent(root);
+        addLeaf(inner, "C", 0.3, c);
+        addLeaf(inner, "D", 0.4, d);
+        index = new PhylogeneticTreeIndex(root);
+    }
+
+    /**
+     * Adds a leaf to the tree.
+     *
+     * @param parent
+     *            the parent of the leaf.
+     * @param name
+     *            the name of the leaf.
+     * @param distance
+     *            the distance of the leaf.
+     * @param sequence
+     *            the sequence of the leaf.
+     * @return the leaf.
+     */
+    private static PhylogeneticTreeItem addLeaf(
+            final PhylogeneticTreeItem parent, final String name,
+            final double distance, final Sequence sequence) {
+        PhylogeneticTreeItem leaf = new PhylogeneticTreeItem();
+        leaf.setName(name);
+        leaf.setDistance(distance);
+        leaf.setSequence(sequence);
+        leaf.setParent(parent);
+        return leaf;
+    }
+
+    /**
+     * Test for size and toBits.
+     */
+    @Test
+    public void testIndex() {
+        assertEquals(6, index.size());
+        Set<Sequence> sequences = new HashSet<Sequence>(Arrays.asList(a, d,
+                new DefaultSequence("X")));
+        assertEquals(2, index.toBits(sequences).cardinality());
+    }
+
+    /**
+     * Test that a clade without visible sequences is removed.
+     */
+    @Test
+    public void testSubTreeRemovesClade() {
+        Set<Sequence> visible = new HashSet<Sequence>(Arrays.asList(a, b));
+        PhylogeneticTreeItem expected = new PhylogeneticTreeItem();
+        addLeaf(expected, "A", 0.1, a);
+        addLeaf(expected, "B", 0.2, b);
+
+        PhylogeneticTreeItem subtree = index.subTree(visible);
+        assertEquals("Trees did not match", 0, STRUCTURE.compare(expected, subtree));
+        assertNull("the root should not have a parent", subtree.getParent());
+        assertEquals(visible, subtree.getChildSequences());
+    }
+
+    /**
+     * Test that nodes with a single visible child are collapsed.
+     */
+    @Test
+    public void testSubTreeCollapses() {
+        Set<Sequence> visible = new HashSet<Sequence>(Arrays.asList(a, c));
+        PhylogeneticTreeItem expected = new PhylogeneticTreeItem();
+        addLeaf(expected, "A", 0.1, a);
+        addLeaf(expected, "C", 0.3, c);
+
+        assertEquals("Trees did not match", 0, STRUCTURE.compare(expected, index.subTree(visible)));
+    }
+
+    /**
+     * Test that the tree is empty without visible sequences.
+     */
+    @Test
+    public void testSubTreeEmpty() {
+        assertNull(index.subTree(new HashSet<Sequence>()));
+    }
+
+}
@@ -15,6 +15,21 @@ import org.junit.Test;
  */
 public class TestPhylogeneticTreeItem {
 
+    /**
+     * Compares the structure of trees.
+     */
+    private static final PhylogeneticTreeComparator STRUCTURE = new PhylogeneticTreeComparator();
+
+    /**
+     * @param left the first tree.
+     * @param right the second tree.
+     * @return whether both trees have the same structure.
+     */
+    private static boolean sameStructure(final PhylogeneticTreeItem left,
+            final PhylogeneticTreeItem right) {
+        return STRUCTURE.compare(left, right) == 0;
+    }
+
 
     /**
      * Test for setParent.
@@ -228,15 +243,15 @@ public class TestPhylogeneticTreeItem {
         PhylogeneticTreeItem test3 = new PhylogeneticTreeItem();
         //actual testing
         PhylogeneticTreeItem subtree1 = root.subTree(set1);
-        assertEquals("Trees did not match",test1, subtree1);
+        assertTrue("Trees did not match", sameStructure(test1, subtree1));
         
         PhylogeneticTreeItem subtree2 = root.subTree(set2);
-        assertEquals("Trees did not match",test2, subtree2);
+        assertTrue("Trees did not match", sameStructure(test2, subtree2));
         
         test2.setParent(test3);
         test1.setParent(test3);
         PhylogeneticTreeItem subtree3 = root.subTree(set3);
-        assertEquals("Trees did not match",test3, subtree3);
+        assertTrue("Trees did not match", sameStructure(test3, subtree3));
     }
     
     /**
@@ -298,12 +313,12 @@ public class TestPhylogeneticTreeItem {
         node3.setName("AnotherNode");
         
         // test equal nodes
-        assertTrue("two empty nodes should be the same",node1.equals(node2));
-        assertTrue("two empty nodes should be the same",node2.equals(node1));
+        assertTrue("two empty nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two empty nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
                
     }
     
@@ -322,12 +337,12 @@ public class TestPhylogeneticTreeItem {
         node3.setName("AnotherNode");
         
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
                 
     }
     
@@ -347,12 +362,12 @@ public class TestPhylogeneticTreeItem {
         node3.setDistance(0.3);
         
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
     }
     
     /**
@@ -373,12 +388,12 @@ public class TestPhylogeneticTreeItem {
         node3.setDistance(0.3);
         
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
     }
     
     /**
@@ -399,12 +414,12 @@ public class TestPhylogeneticTreeItem {
         PhylogeneticTreeItem node21 = new PhylogeneticTreeItem();
         node21.setParent(node2);
         // test equal nodes
-        assertTrue("two empty nodes should be the same",node1.equals(node2));
-        assertTrue("two empty nodes should be the same",node2.equals(node1));
+        assertTrue("two empty nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two empty nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
                
     }
     
@@ -428,12 +443,12 @@ public class TestPhylogeneticTreeItem {
         node21.setParent(node2);
         
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
                 
     }
     
@@ -457,12 +472,12 @@ public class TestPhylogeneticTreeItem {
         PhylogeneticTreeItem node21 = new PhylogeneticTreeItem();
         node21.setParent(node2);
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
     }
     /**
      * Test for equals.
@@ -487,12 +502,12 @@ public class TestPhylogeneticTreeItem {
         node21.setParent(node2);
         
         // test equal nodes
-        assertTrue("two equal nodes should be the same",node1.equals(node2));
-        assertTrue("two equal nodes should be the same",node2.equals(node1));
+        assertTrue("two equal nodes should be the same",sameStructure(node1, node2));
+        assertTrue("two equal nodes should be the same",sameStructure(node2, node1));
         
         // test different nodes
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
     }
     
     @Test
@@ -507,11 +522,11 @@ public class TestPhylogeneticTreeItem {
         node4.setName("not the same");
         node4.setParent(node5);
         
-        assertFalse("two different nodes should not match",node1.equals(node3));
-        assertFalse("two different nodes should not match",node3.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node3));
+        assertFalse("two different nodes should not match",sameStructure(node3, node1));
         
-        assertFalse("two different nodes should not match",node1.equals(node5));
-        assertFalse("two different nodes should not match",node5.equals(node1));
+        assertFalse("two different nodes should not match",sameStructure(node1, node5));
+        assertFalse("two different nodes should not match",sameStructure(node5, node1));
     }
     
     /**
@@ -567,7 +582,8 @@ public class TestPhylogeneticTreeItem {
         PhylogeneticTreeItem node2 = new PhylogeneticTreeItem();
               
         // test equal nodes
-        assertEquals("two empty nodes should have the same haxh",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
       
     }
     
@@ -584,7 +600,8 @@ public class TestPhylogeneticTreeItem {
         node2.setName("DuplicateNode");
         
         // test equal nodes
-        assertEquals("two equal nodes should hace the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
        
                 
     }
@@ -602,7 +619,8 @@ public class TestPhylogeneticTreeItem {
         
         
         // test equal nodes
-        assertEquals("two equal nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
     }
     
     /**
@@ -620,7 +638,8 @@ public class TestPhylogeneticTreeItem {
         node2.setName("DuplicateNode");
         
         // test equal nodes
-        assertEquals("two equal nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
    }
     
     /**
@@ -639,7 +658,8 @@ public class TestPhylogeneticTreeItem {
         node21.setParent(node2);
         
         // test equal nodes
-        assertEquals("two empty nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
                        
     }
     
@@ -661,7 +681,8 @@ public class TestPhylogeneticTreeItem {
         node21.setParent(node2);
         
         // test equal nodes
-        assertEquals("two equal nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
        
     }
     
@@ -682,7 +703,8 @@ public class TestPhylogeneticTreeItem {
         PhylogeneticTreeItem node21 = new PhylogeneticTreeItem();
         node21.setParent(node2);
         // test equal nodes
-        assertEquals("two equal nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
     }
     
     /**
@@ -705,7 +727,99 @@ public class TestPhylogeneticTreeItem {
         node21.setParent(node2);
         
         // test equal nodes
-        assertEquals("two equal nodes should have the same hash",node1.hashCode(),node2.hashCode());
+        assertTrue("two equal trees should compare as the same", sameStructure(node1, node2));
+        assertNotEquals("two distinct nodes should have a different hash", node1.hashCode(), node2.hashCode());
+    }
+
+    /**
+     * Test for numberLeaves.
+     */
+    @Test
+    public void testNumberLeaves() {
+        // (A,B,(C,D)E)F;
+        PhylogeneticTreeItem root = new PhylogeneticTreeItem();
+        PhylogeneticTreeItem leaf = new PhylogeneticTreeItem();
+        leaf.setName("A");
+        leaf.setParent(root);
+        PhylogeneticTreeItem current = new PhylogeneticTreeItem();
+        current.setName("B");
+        current.setParent(root);
+        current = new PhylogeneticTreeItem();
+        current.setName("E");
+        current.setParent(root);
+        PhylogeneticTreeItem current2 = new PhylogeneticTreeItem();
+        current2.setName("C");
+        current2.setParent(current);
+        current2 = new PhylogeneticTreeItem();
+        current2.setName("D");
+        current2.setParent(current);
+
+        assertEquals("numberLeaves did not match for full tree", 4, root.numberLeaves());
+        assertEquals("numberLeaves did not match for sub tree", 2, current.numberLeaves());
+        assertEquals("numberLeaves did not match for childless tree", 1, leaf.numberLeaves());
+    }
+
+    /**
+     * Test that the cached statistics are updated when the tree changes.
+     */
+    @Test
+    public void testStatisticsInvalidated() {
+        PhylogeneticTreeItem root = new PhylogeneticTreeItem();
+        PhylogeneticTreeItem child = new PhylogeneticTreeItem();
+        child.setName("A");
+        child.setParent(root);
+        assertEquals(1, root.numberDescendants());
+        assertEquals(1, root.maxDepth());
+        assertTrue(root.getChildSequences().isEmpty());
+
+        PhylogeneticTreeItem grandChild = new PhylogeneticTreeItem();
+        grandChild.setName("B");
+        grandChild.setParent(child);
+        assertEquals(2, root.numberDescendants());
+        assertEquals(2, root.maxDepth());
+        assertEquals(1, root.getChildren().size());
+
+        Sequence sequence = new DefaultSequence("B");
+        grandChild.setSequence(sequence);
+        assertTrue(root.getChildSequences().contains(sequence));
+        assertTrue(child.getSequences().contains(sequence));
+    }
+
+    /**
+     * Test that the cached children can not be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testChildrenUnmodifiable() {
+        PhylogeneticTreeItem root = new PhylogeneticTreeItem();
+        root.getChildren().add(new PhylogeneticTreeItem());
+    }
+
+    /**
+     * Test that nodes are only equal to themselves and keep their hash when
+     * the tree changes.
+     */
+    @Test
+    public void testIdentity() {
+        PhylogeneticTreeItem node1 = new PhylogeneticTreeItem();
+        PhylogeneticTreeItem node2 = new PhylogeneticTreeItem();
+        assertFalse("distinct nodes should not be equal", node1.equals(node2));
+        assertTrue("ids should be assigned in order", node1.getId() < node2.getId());
+
+        int hash = node1.hashCode();
+        node2.setParent(node1);
+        node1.setName("changed");
+        assertEquals("the hash should not change with the tree", hash, node1.hashCode());
+        assertEquals("equal siblings should both be kept", 2,
+                addEmptyChild(addEmptyChild(new PhylogeneticTreeItem())).getChildren().size());
+    }
+
+    /**
+     * @param parent the node to add a child to.
+     * @return the parent.
+     */
+    private static PhylogeneticTreeItem addEmptyChild(final PhylogeneticTreeItem parent) {
+        new PhylogeneticTreeItem().setParent(parent);
+        return parent;
     }
 
 }
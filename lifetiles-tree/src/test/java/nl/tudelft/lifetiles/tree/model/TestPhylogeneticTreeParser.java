@@ -1,6 +1,10 @@
 package nl.tudelft.lifetiles.tree.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
 
 import org.junit.Test;
 
@@ -10,6 +14,11 @@ import org.junit.Test;
  */
 public class TestPhylogeneticTreeParser {
 
+    /**
+     * Compares the structure of trees.
+     */
+    private static final PhylogeneticTreeComparator STRUCTURE = new PhylogeneticTreeComparator();
+
     /**
      * test the parser without any data in the tree.
      */
@@ -36,7 +45,7 @@ public class TestPhylogeneticTreeParser {
         current2.setParent(current);
 
         // compare the trees
-        assertEquals("both trees do not match", rootExpected, rootActual);
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
 
     }
 
@@ -70,7 +79,7 @@ public class TestPhylogeneticTreeParser {
         current2.setName("D");
 
         // compare the trees
-        assertEquals("both trees do not match", rootExpected, rootActual);
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
 
     }
 
@@ -106,7 +115,7 @@ public class TestPhylogeneticTreeParser {
         current2.setName("D");
 
         // compare the trees
-        assertEquals("both trees do not match", rootExpected, rootActual);
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
 
     }
 
@@ -140,7 +149,7 @@ public class TestPhylogeneticTreeParser {
         current2.setParent(current);
         current2.setDistance(0.4);
         // compare the trees
-        assertEquals("both trees do not match", rootExpected, rootActual);
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
 
     }
 
@@ -181,8 +190,82 @@ public class TestPhylogeneticTreeParser {
         current2.setDistance(0.4);
 
         // compare the trees
-        assertEquals("both trees do not match", rootExpected, rootActual);
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
+
+    }
+
+    /**
+     * test the parser with quoted labels, comments and whitespace.
+     */
+    @Test
+    public void testPhylogeneticTreeParserQuotedAndComments() {
+        String tree = "('A B':0.1[comment], 'it''s' : 0.2)[&root];";
+        PhylogeneticTreeItem rootActual = PhylogeneticTreeParser.parse(tree);
+
+        PhylogeneticTreeItem rootExpected = new PhylogeneticTreeItem();
+        PhylogeneticTreeItem current = new PhylogeneticTreeItem();
+        current.setParent(rootExpected);
+        current.setName("A B");
+        current.setDistance(0.1);
+        current = new PhylogeneticTreeItem();
+        current.setParent(rootExpected);
+        current.setName("it's");
+        current.setDistance(0.2);
+
+        assertEquals("both trees do not match", 0, STRUCTURE.compare(rootExpected, rootActual));
+    }
+
+    /**
+     * test that numeric labels of internal nodes are read as support values.
+     */
+    @Test
+    public void testPhylogeneticTreeParserSupport() {
+        String tree = "((A,B)95:0.3,C)root;";
+        PhylogeneticTreeItem rootActual = PhylogeneticTreeParser.parse(tree);
+
+        assertEquals("root", rootActual.getName());
+        for (PhylogeneticTreeItem child : rootActual.getChildren()) {
+            if (child.getChildren().isEmpty()) {
+                assertEquals("C", child.getName());
+            } else {
+                assertNull(child.getName());
+                assertEquals(95, child.getSupport(), 0);
+                assertEquals(0.3, child.getDistance(), 0);
+            }
+        }
+    }
+
+    /**
+     * test the parser on a very deep tree read from a reader.
+     *
+     * @throws IOException
+     *             when the tree can not be read.
+     */
+    @Test
+    public void testPhylogeneticTreeParserDeepTree() throws IOException {
+        final int depth = 100000;
+        StringBuilder tree = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            tree.append('(');
+        }
+        tree.append('A');
+        for (int i = 0; i < depth; i++) {
+            tree.append(",B)");
+        }
+        tree.append(';');
+        PhylogeneticTreeItem rootActual = PhylogeneticTreeParser
+                .parse(new StringReader(tree.toString()));
 
+        assertEquals(depth, rootActual.maxDepth());
+        assertEquals(depth + 1, rootActual.numberLeaves());
+    }
+
+    /**
+     * test that unbalanced parentheses are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPhylogeneticTreeParserUnbalanced() {
+        PhylogeneticTreeParser.parse("((A,B);");
     }
 
 }
@@ -0,0 +1,86 @@
+package nl.tudelft.lifetiles.tree.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ *
+ */
+public class TestSunburstLayout {
+
+    private static final double DELTA = 1e-9;
+
+    private PhylogeneticTreeItem root;
+
+    private PhylogeneticTreeItem a;
+
+    private PhylogeneticTreeItem b;
+
+    private PhylogeneticTreeItem inner;
+
+    private PhylogeneticTreeItem c;
+
+    private PhylogeneticTreeItem d;
+
+    @Before
+    public void setUp() {
+        // (A,B,(C,D)E)F;
+        root = new PhylogeneticTreeItem();
+        a = new PhylogeneticTreeItem();
+        a.setParent(root);
+        b = new PhylogeneticTreeItem();
+        b.setParent(root);
+        inner = new PhylogeneticTreeItem();
+        inner.setParent(root);
+        c = new PhylogeneticTreeItem();
+        c.setParent(inner);
+        d = new PhylogeneticTreeItem();
+        d.setParent(inner);
+    }
+
+    @Test
+    public void testRings() {
+        SunburstLayout layout = new SunburstLayout(root, 1d);
+        assertEquals(2, layout.ringCount());
+        assertEquals(3, layout.segmentCount(0));
+        assertEquals(2, layout.segmentCount(1));
+        // the inner node has 3 of the 5 descendants
+        assertEquals(144, layout.getStartAngle(0, 2), DELTA);
+        assertEquals(360, layout.getEndAngle(0, 2), DELTA);
+        assertEquals(252, layout.getStartAngle(1, 1), DELTA);
+    }
+
+    @Test
+    public void testNodeAt() {
+        SunburstLayout layout = new SunburstLayout(root, 1d);
+        assertSame(root, layout.nodeAt(1, 1));
+        // ring 0 lies between radius 50 and 75, A covers the first 72 degrees from the top
+        assertSame(a, layout.nodeAt(30, -52));
+        assertSame(b, layout.nodeAt(60, 20));
+        assertSame(inner, layout.nodeAt(-60, 0));
+        // ring 1 lies between radius 75 and 100
+        assertSame(d, layout.nodeAt(-80, -10));
+        assertNull(layout.nodeAt(60, 60));
+        assertNull(layout.nodeAt(200, 0));
+    }
+
+    @Test
+    public void testSmallSegmentsMerged() {
+        PhylogeneticTreeItem wide = new PhylogeneticTreeItem();
+        for (int i = 0; i < 1000; i++) {
+            new PhylogeneticTreeItem().setParent(wide);
+        }
+        SunburstLayout layout = new SunburstLayout(wide, 1d);
+        assertEquals(1, layout.ringCount());
+        assertEquals(1, layout.segmentCount(0));
+        assertNull(layout.getNode(0, 0));
+        assertEquals(360, layout.getEndAngle(0, 0), DELTA);
+    }
+
+}
@@ -0,0 +1,44 @@
+package nl.tudelft.lifetiles.tree.view;
+
+import static org.junit.Assert.assertEquals;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.paint.Color;
+import nl.tudelft.lifetiles.tree.model.PhylogeneticTreeItem;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author agent
+ *
+ */
+public class TestSunburstView {
+
+    @BeforeClass
+    public static void before() {
+        new JFXPanel(); // force to initialize Toolkit
+    }
+
+    @Test
+    public void testDefaultCenterColor() {
+        assertEquals("color was not right", Color.BLUE,
+                SunburstView.createCenterColor(new PhylogeneticTreeItem()));
+    }
+
+    @Test
+    public void testDefaultColorHue() {
+        Color color = SunburstView.createColor(new PhylogeneticTreeItem(),
+                120d, 2);
+        assertEquals("hue was not the angle", 120d, color.getHue(), 1e-9);
+    }
+
+    @Test
+    public void testTooltipText() {
+        PhylogeneticTreeItem node = new PhylogeneticTreeItem();
+        node.setName("A");
+        node.setDistance(2d);
+        assertEquals("A" + System.lineSeparator() + "Branch Length: 2.0",
+                SunburstView.createTooltipText(node));
+    }
+
+}